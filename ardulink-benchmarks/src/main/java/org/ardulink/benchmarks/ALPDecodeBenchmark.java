@@ -0,0 +1,83 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.benchmarks.BenchmarkData.alpLines;
+
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2.ALPByteStreamProcessor;
+import org.ardulink.core.proto.ardulink.ScratchBufferALPByteStreamProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Decodes <code>alp://ared/3/512</code> lines using the state object based
+ * {@link ALPByteStreamProcessor} and the
+ * {@link ScratchBufferALPByteStreamProcessor}. The score is reported in lines
+ * per second, run with <code>-prof gc</code> to get the allocation rate.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ALPDecodeBenchmark {
+
+	private static final int LINES = 1024 * 1024;
+
+	@Param({ "states", "scratchbuffer" })
+	private String processor;
+
+	private byte[] data;
+	private ByteStreamProcessor byteStreamProcessor;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		data = alpLines(LINES);
+		byteStreamProcessor = "states".equals(processor) ? new ALPByteStreamProcessor()
+				: new ScratchBufferALPByteStreamProcessor();
+		byteStreamProcessor.addListener(blackhole::consume);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public void decode() {
+		byteStreamProcessor.process(data);
+	}
+
+}
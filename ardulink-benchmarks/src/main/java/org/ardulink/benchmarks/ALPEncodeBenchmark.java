@@ -0,0 +1,91 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessageCustom.toDeviceMessageCustom;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinStateChange.toDeviceMessagePinStateChange;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessageTone.toDeviceMessageTone;
+
+import org.ardulink.core.Tone;
+import org.ardulink.core.messages.api.ToDeviceMessageCustom;
+import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.ardulink.core.messages.api.ToDeviceMessageTone;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2.ALPByteStreamProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Encodes messages to the device using
+ * {@link ALPByteStreamProcessor#toDevice(ToDeviceMessagePinStateChange)} and
+ * its siblings.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ALPEncodeBenchmark {
+
+	private final ALPByteStreamProcessor byteStreamProcessor = new ALPByteStreamProcessor();
+
+	private final ToDeviceMessagePinStateChange analog = toDeviceMessagePinStateChange(analogPin(3), 512);
+	private final ToDeviceMessagePinStateChange digital = toDeviceMessagePinStateChange(digitalPin(13), true);
+	private final ToDeviceMessageTone tone = toDeviceMessageTone(
+			Tone.forPin(analogPin(2)).withHertz(440).withDuration(100, MILLISECONDS));
+	private final ToDeviceMessageCustom custom = toDeviceMessageCustom("foo", "bar");
+
+	@Benchmark
+	public byte[] analogPinStateChange() {
+		return byteStreamProcessor.toDevice(analog);
+	}
+
+	@Benchmark
+	public byte[] digitalPinStateChange() {
+		return byteStreamProcessor.toDevice(digital);
+	}
+
+	@Benchmark
+	public byte[] tone() {
+		return byteStreamProcessor.toDevice(tone);
+	}
+
+	@Benchmark
+	public byte[] custom() {
+		return byteStreamProcessor.toDevice(custom);
+	}
+
+}
@@ -0,0 +1,45 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ */
+final class BenchmarkData {
+
+	static final String ALP_LINE = "alp://ared/3/512\n";
+
+	// compile time constant of ALP_LINE.length(), needed inside annotations
+	static final int ALP_LINE_LENGTH = 17;
+
+	private BenchmarkData() {
+		super();
+	}
+
+	static byte[] alpLines(int count) {
+		return ALP_LINE.repeat(count).getBytes(US_ASCII);
+	}
+
+}
@@ -0,0 +1,94 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.io.InputStream.nullInputStream;
+import static java.io.OutputStream.nullOutputStream;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+
+import java.io.IOException;
+
+import org.ardulink.core.ConnectionBasedLink;
+import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.StreamConnection;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2.ALPByteStreamProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Several threads sending through one shared {@link ConnectionBasedLink}, with
+ * and without a registered reply listener (message ids). Compare the score
+ * with <code>-t 1</code> to see how the throughput scales with the number of
+ * senders.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ContendedSendBenchmark {
+
+	private final AnalogPin pin = analogPin(3);
+
+	@Param({ "false", "true" })
+	private boolean withMessageIds;
+
+	private ConnectionBasedLink link;
+
+	@Setup
+	public void setup() throws IOException {
+		link = new ConnectionBasedLink(
+				new StreamConnection(nullInputStream(), nullOutputStream(), new ALPByteStreamProcessor()));
+		if (withMessageIds) {
+			link.addRplyListener(e -> {
+			});
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		link.close();
+	}
+
+	@Benchmark
+	public long switchAnalogPin() throws IOException {
+		return link.switchAnalogPin(pin, 42);
+	}
+
+}
@@ -0,0 +1,132 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.ardulink.core.proto.firmata.CapabilityCache;
+import org.ardulink.core.proto.firmata.FirmataProtocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Connects a new {@link FirmataProtocol} byte stream processor to a simulated
+ * Arduino Mega (70 pins): The board reports its firmware and, if the processor
+ * queries them, its capabilities. Compares connecting without and with a
+ * (warm) {@link CapabilityCache}. The score only covers the host side, the
+ * capabilities response of {@value #CAPABILITIES_RESPONSE_LENGTH} bytes
+ * additionally takes ~{@value #CAPABILITIES_RESPONSE_MILLIS_AT_57600_BAUD} ms
+ * on a 57600 baud serial line.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirmataConnectBenchmark {
+
+	private static final byte[] FIRMWARE_REPORT = { (byte) 0xF0, 0x79, 0x02, 0x05, 'M', 0, 'e', 0, 'g', 0, 'a', 0,
+			(byte) 0xF7 };
+	private static final byte[] CAPABILITIES_RESPONSE = megaCapabilitiesResponse();
+
+	static final int CAPABILITIES_RESPONSE_LENGTH = 699;
+	static final int CAPABILITIES_RESPONSE_MILLIS_AT_57600_BAUD = 121;
+
+	@Param({ "false", "true" })
+	private boolean cached;
+
+	private Path directory;
+	private FirmataProtocol protocol;
+
+	private static byte[] megaCapabilitiesResponse() {
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		response.write(0xF0);
+		response.write(0x6C);
+		for (int pin = 0; pin < 70; pin++) {
+			// digital input, digital output, input pullup, servo
+			response.writeBytes(new byte[] { 0x00, 0x01, 0x01, 0x01, 0x0B, 0x01, 0x04, 0x0E });
+			if ((pin >= 2 && pin <= 13) || (pin >= 44 && pin <= 46)) {
+				response.writeBytes(new byte[] { 0x03, 0x08 });
+			}
+			if (pin == 20 || pin == 21) {
+				response.writeBytes(new byte[] { 0x06, 0x01 });
+			}
+			if (pin >= 54) {
+				response.writeBytes(new byte[] { 0x02, 0x0A });
+			}
+			response.write(0x7F);
+		}
+		response.write(0xF7);
+		return response.toByteArray();
+	}
+
+	@Setup
+	public void setup() throws IOException {
+		if (CAPABILITIES_RESPONSE.length != CAPABILITIES_RESPONSE_LENGTH) {
+			throw new IllegalStateException("Response has " + CAPABILITIES_RESPONSE.length + " bytes");
+		}
+		if (cached) {
+			directory = Files.createTempDirectory("capabilities");
+			protocol = new FirmataProtocol(new CapabilityCache(directory));
+			connect();
+		} else {
+			protocol = new FirmataProtocol();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		if (directory != null) {
+			new CapabilityCache(directory).invalidateAll();
+			Files.delete(directory);
+		}
+	}
+
+	@Benchmark
+	public ByteStreamProcessor connect() {
+		ByteStreamProcessor byteStreamProcessor = protocol.newByteStreamProcessor();
+		byteStreamProcessor.setOutboundListener(query -> byteStreamProcessor.process(CAPABILITIES_RESPONSE));
+		byteStreamProcessor.process(FIRMWARE_REPORT);
+		return byteStreamProcessor;
+	}
+
+}
@@ -0,0 +1,87 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.proto.api.Protocols.protoByName;
+
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.ardulink.core.proto.firmata.FirmataProtocol;
+import org.ardulink.core.proto.firmata.NativeFirmataProtocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Decodes Firmata analog messages (analog pin 3, value 512) using the byte
+ * stream processor of {@link FirmataProtocol} (firmata4j's state machine) and
+ * of {@link NativeFirmataProtocol}. The score is reported in messages per
+ * second, run with <code>-prof gc</code> to get the allocation rate.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirmataDecodeBenchmark {
+
+	private static final int MESSAGES = 64 * 1024;
+
+	private static final byte[] ANALOG_MESSAGE = { (byte) 0xE3, 0x00, 0x04 };
+
+	@Param({ FirmataProtocol.NAME, NativeFirmataProtocol.NAME })
+	private String protocol;
+
+	private byte[] data;
+	private ByteStreamProcessor byteStreamProcessor;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		data = new byte[ANALOG_MESSAGE.length * MESSAGES];
+		for (int i = 0; i < MESSAGES; i++) {
+			System.arraycopy(ANALOG_MESSAGE, 0, data, i * ANALOG_MESSAGE.length, ANALOG_MESSAGE.length);
+		}
+		byteStreamProcessor = protoByName(protocol).newByteStreamProcessor();
+		byteStreamProcessor.addListener(blackhole::consume);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void decode() {
+		byteStreamProcessor.process(data);
+	}
+
+}
@@ -0,0 +1,114 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinStateChange.toDeviceMessagePinStateChange;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinWriteBatch.toDeviceMessagePinWriteBatch;
+
+import org.ardulink.core.PinWriteBatch;
+import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.ardulink.core.messages.api.ToDeviceMessagePinWriteBatch;
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.ardulink.core.proto.firmata.FirmataProtocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Encodes pin state changes using the byte stream processor of
+ * {@link FirmataProtocol}: Toggles all 54 digital pins of an Arduino Mega on
+ * and off again (pin by pin or as one {@link PinWriteBatch} each) and writes a
+ * PWM value. The score is reported in messages per
+ * second, run with <code>-prof gc</code> to get the allocation rate.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirmataEncodeBenchmark {
+
+	private static final int MEGA_DIGITAL_PINS = 54;
+
+	private final ToDeviceMessagePinStateChange[] on = new ToDeviceMessagePinStateChange[MEGA_DIGITAL_PINS];
+	private final ToDeviceMessagePinStateChange[] off = new ToDeviceMessagePinStateChange[MEGA_DIGITAL_PINS];
+	private ToDeviceMessagePinWriteBatch allOn;
+	private ToDeviceMessagePinWriteBatch allOff;
+	private final ToDeviceMessagePinStateChange pwm = toDeviceMessagePinStateChange(analogPin(9), 128);
+
+	private ByteStreamProcessor byteStreamProcessor;
+
+	@Setup
+	public void setup() {
+		PinWriteBatch.Builder allOnBuilder = PinWriteBatch.builder();
+		PinWriteBatch.Builder allOffBuilder = PinWriteBatch.builder();
+		for (int i = 0; i < MEGA_DIGITAL_PINS; i++) {
+			on[i] = toDeviceMessagePinStateChange(digitalPin(i), true);
+			off[i] = toDeviceMessagePinStateChange(digitalPin(i), false);
+			allOnBuilder.switchDigitalPin(digitalPin(i), true);
+			allOffBuilder.switchDigitalPin(digitalPin(i), false);
+		}
+		allOn = toDeviceMessagePinWriteBatch(allOnBuilder.build());
+		allOff = toDeviceMessagePinWriteBatch(allOffBuilder.build());
+		byteStreamProcessor = new FirmataProtocol().newByteStreamProcessor();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * MEGA_DIGITAL_PINS)
+	public void toggleAllDigitalPins(Blackhole blackhole) {
+		for (ToDeviceMessagePinStateChange message : on) {
+			blackhole.consume(byteStreamProcessor.toDevice(message));
+		}
+		for (ToDeviceMessagePinStateChange message : off) {
+			blackhole.consume(byteStreamProcessor.toDevice(message));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * MEGA_DIGITAL_PINS)
+	public void toggleAllDigitalPinsBatched(Blackhole blackhole) {
+		blackhole.consume(byteStreamProcessor.toDevice(allOn));
+		blackhole.consume(byteStreamProcessor.toDevice(allOff));
+	}
+
+	@Benchmark
+	public byte[] pwmPinStateChange() {
+		return byteStreamProcessor.toDevice(pwm);
+	}
+
+}
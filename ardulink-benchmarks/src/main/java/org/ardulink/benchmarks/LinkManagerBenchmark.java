@@ -0,0 +1,84 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.net.URI;
+import java.util.List;
+
+import org.ardulink.core.linkmanager.LinkManager;
+import org.ardulink.core.linkmanager.LinkManager.Configurer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Measures the LinkFactory lookups of {@link LinkManager}:
+ * <code>discoverAndList</code> is what the first call after startup (or after
+ * {@link LinkManager#reloadLinkFactories()}) costs, <code>listURIs</code> and
+ * <code>getConfigurer</code> are served by the cached factories.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkManagerBenchmark {
+
+	private final LinkManager linkManager = LinkManager.getInstance();
+
+	private URI uri;
+
+	@Setup
+	public void setup() {
+		uri = linkManager.listURIs().get(0);
+	}
+
+	@Benchmark
+	public List<URI> discoverAndList() {
+		linkManager.reloadLinkFactories();
+		return linkManager.listURIs();
+	}
+
+	@Benchmark
+	public List<URI> listURIs() {
+		return linkManager.listURIs();
+	}
+
+	@Benchmark
+	public Configurer getConfigurer() {
+		return linkManager.getConfigurer(uri);
+	}
+
+}
@@ -0,0 +1,104 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.io.InputStream.nullInputStream;
+import static java.io.OutputStream.nullOutputStream;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+
+import java.io.IOException;
+
+import org.ardulink.core.ConnectionBasedLink;
+import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.StreamConnection;
+import org.ardulink.core.Tone;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * The send paths of {@link ConnectionBasedLink} (message creation, encoding
+ * and writing) over an in-memory {@link StreamConnection}.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkSendBenchmark {
+
+	private final AnalogPin analogPin = analogPin(3);
+	private final DigitalPin digitalPin = digitalPin(13);
+	private final Tone tone = Tone.forPin(analogPin(2)).withHertz(440).withDuration(100, MILLISECONDS);
+
+	private ConnectionBasedLink link;
+	private boolean value;
+
+	@Setup
+	public void setup() {
+		link = new ConnectionBasedLink(new StreamConnection(nullInputStream(), nullOutputStream(),
+				new ArdulinkProtocol2().newByteStreamProcessor()));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		link.close();
+	}
+
+	@Benchmark
+	public long switchAnalogPin() throws IOException {
+		return link.switchAnalogPin(analogPin, 512);
+	}
+
+	@Benchmark
+	public long switchDigitalPin() throws IOException {
+		return link.switchDigitalPin(digitalPin, value = !value);
+	}
+
+	@Benchmark
+	public long sendTone() throws IOException {
+		return link.sendTone(tone);
+	}
+
+	@Benchmark
+	public long sendCustomMessage() throws IOException {
+		return link.sendCustomMessage("foo", "bar");
+	}
+
+}
@@ -0,0 +1,111 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.io.InputStream.nullInputStream;
+import static java.io.OutputStream.nullOutputStream;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinStateChange.toDeviceMessagePinStateChange;
+import static org.ardulink.core.proto.api.MessageIdHolders.addMessageId;
+import static org.ardulink.core.proto.api.MessageIdHolders.proxyWithMessageId;
+
+import java.io.IOException;
+
+import org.ardulink.core.ConnectionBasedLink;
+import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.StreamConnection;
+import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2.ALPByteStreamProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Measures the cost of sending messages carrying a message id (as done when
+ * reply listeners are registered, e.g. by QoS): encoding a dynamic proxy
+ * against encoding the id carrying message and
+ * {@link ConnectionBasedLink#switchDigitalPin(DigitalPin, boolean)} with a
+ * registered reply listener.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageIdBenchmark {
+
+	private final DigitalPin pin = digitalPin(13);
+	private final ALPByteStreamProcessor byteStreamProcessor = new ALPByteStreamProcessor();
+
+	private ConnectionBasedLink link;
+	private long messageId;
+	private boolean value;
+
+	@Setup
+	public void setup() throws IOException {
+		link = new ConnectionBasedLink(new StreamConnection(nullInputStream(), nullOutputStream(), byteStreamProcessor));
+		link.addRplyListener(e -> {
+		});
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		link.close();
+	}
+
+	@Benchmark
+	public byte[] encodeProxy() {
+		ToDeviceMessagePinStateChange message = proxyWithMessageId(toDeviceMessagePinStateChange(pin, toggle()),
+				++messageId);
+		return byteStreamProcessor.toDevice(message);
+	}
+
+	@Benchmark
+	public byte[] encodeIdCarryingMessage() {
+		ToDeviceMessagePinStateChange message = addMessageId(toDeviceMessagePinStateChange(pin, toggle()),
+				++messageId);
+		return byteStreamProcessor.toDevice(message);
+	}
+
+	@Benchmark
+	public long switchDigitalPinWithReplyListener() throws IOException {
+		return link.switchDigitalPin(pin, toggle());
+	}
+
+	private boolean toggle() {
+		return value = !value;
+	}
+
+}
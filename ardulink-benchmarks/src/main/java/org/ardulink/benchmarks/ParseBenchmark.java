@@ -0,0 +1,79 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.benchmarks.BenchmarkData.alpLines;
+import static org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessors.parse;
+
+import java.util.List;
+
+import org.ardulink.core.messages.api.FromDeviceMessage;
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessors;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Measures {@link ByteStreamProcessors#parse(ByteStreamProcessor, byte[])} as
+ * used e.g. by the MQTT and REST modules: <code>lines</code> ALP lines are
+ * parsed into a list of {@link FromDeviceMessage}s.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+	@Param({ "1", "64" })
+	private int lines;
+
+	private byte[] data;
+	private ByteStreamProcessor byteStreamProcessor;
+
+	@Setup
+	public void setup() {
+		data = alpLines(lines);
+		byteStreamProcessor = new ArdulinkProtocol2().newByteStreamProcessor();
+	}
+
+	@Benchmark
+	public List<FromDeviceMessage> parseLines() {
+		return parse(byteStreamProcessor, data);
+	}
+
+}
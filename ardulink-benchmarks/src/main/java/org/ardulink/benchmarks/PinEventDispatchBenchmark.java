@@ -0,0 +1,147 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.events.DefaultAnalogPinValueChangedEvent.analogPinValueChanged;
+import static org.ardulink.core.events.FilteredEventListenerAdapter.filter;
+
+import java.io.IOException;
+
+import org.ardulink.core.AbstractListenerLink;
+import org.ardulink.core.Pin;
+import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.Tone;
+import org.ardulink.core.events.AnalogPinValueChangedEvent;
+import org.ardulink.core.events.EventListener;
+import org.ardulink.core.events.EventListenerAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Dispatches pin events to a link having <code>listeners</code> listeners.
+ * If <code>filtered</code> the listeners are pin filtered and spread over 64
+ * analog pins, otherwise each listener gets each event.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PinEventDispatchBenchmark {
+
+	private static final int PINS = 64;
+
+	@Param({ "1", "64", "512" })
+	private int listeners;
+
+	@Param({ "true", "false" })
+	private boolean filtered;
+
+	private AbstractListenerLink link;
+	private AnalogPinValueChangedEvent event;
+
+	/**
+	 * A link doing nothing but dispatching events.
+	 */
+	private static class DispatchingLink extends AbstractListenerLink {
+
+		@Override
+		public long startListening(Pin pin) {
+			return -1;
+		}
+
+		@Override
+		public long stopListening(Pin pin) {
+			return -1;
+		}
+
+		@Override
+		public long switchAnalogPin(AnalogPin analogPin, int value) {
+			return -1;
+		}
+
+		@Override
+		public long switchDigitalPin(DigitalPin digitalPin, boolean value) {
+			return -1;
+		}
+
+		@Override
+		public long sendKeyPressEvent(char keychar, int keycode, int keylocation, int keymodifiers,
+				int keymodifiersex) {
+			return -1;
+		}
+
+		@Override
+		public long sendTone(Tone tone) {
+			return -1;
+		}
+
+		@Override
+		public long sendNoTone(AnalogPin analogPin) {
+			return -1;
+		}
+
+		@Override
+		public long sendCustomMessage(String... messages) {
+			return -1;
+		}
+
+	}
+
+	@Setup
+	public void setup(Blackhole blackhole) throws IOException {
+		link = new DispatchingLink();
+		for (int i = 0; i < listeners; i++) {
+			EventListener listener = new EventListenerAdapter() {
+				@Override
+				public void stateChanged(AnalogPinValueChangedEvent event) {
+					blackhole.consume(event);
+				}
+			};
+			link.addListener(filtered ? filter(analogPin(i % PINS), listener) : listener);
+		}
+		event = analogPinValueChanged(analogPin(0), 42);
+	}
+
+	@Benchmark
+	public void fireStateChanged() {
+		link.fireStateChanged(event);
+	}
+
+}
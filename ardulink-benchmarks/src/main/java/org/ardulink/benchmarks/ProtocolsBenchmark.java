@@ -0,0 +1,74 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.List;
+
+import org.ardulink.core.proto.api.Protocol;
+import org.ardulink.core.proto.api.Protocols;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Measures the {@link Protocols} lookups: <code>reloadAndProtoByName</code> is
+ * what the first lookup (or one after {@link Protocols#reloadProtocols()})
+ * costs, <code>protoByName</code> and <code>protocolNames</code> are served by
+ * the cached protocols.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtocolsBenchmark {
+
+	@Benchmark
+	public Protocol reloadAndProtoByName() {
+		Protocols.reloadProtocols();
+		return Protocols.protoByName(ArdulinkProtocol2.NAME);
+	}
+
+	@Benchmark
+	public Protocol protoByName() {
+		return Protocols.protoByName(ArdulinkProtocol2.NAME);
+	}
+
+	@Benchmark
+	public List<String> protocolNames() {
+		return Protocols.protocolNames();
+	}
+
+}
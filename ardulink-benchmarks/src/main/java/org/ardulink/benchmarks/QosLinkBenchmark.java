@@ -0,0 +1,149 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.benchmarks;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+
+import org.ardulink.core.ConnectionBasedLink;
+import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.PinWriteBatch;
+import org.ardulink.core.StreamConnection;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
+import org.ardulink.core.qos.QosLink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Round trips of a {@link QosLink}: The device is simulated by a loopback
+ * responder answering each message with an "ok" reply carrying the message's
+ * id. The reply is read and decoded by the link's reader thread, so the score
+ * includes the handover between the sending and the reading thread.<br>
+ * Switching the eight pins of a port one by one costs eight round trips,
+ * switching them as a {@link PinWriteBatch} costs one.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QosLinkBenchmark {
+
+	private static final int PORT_PINS = 8;
+
+	private final AnalogPin pin = analogPin(3);
+	private final PinWriteBatch batch = portBatch();
+
+	private QosLink link;
+
+	/**
+	 * Answers each line written ending with <code>?id=n\n</code> with
+	 * <code>alp://rply/ok?id=n\n</code>, lines without id are not answered.
+	 */
+	private static class LoopbackResponder extends OutputStream {
+
+		private final OutputStream toLink;
+		private final StringBuilder frame = new StringBuilder();
+
+		private LoopbackResponder(OutputStream toLink) {
+			this.toLink = toLink;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (b != '\n') {
+				frame.append((char) b);
+				return;
+			}
+			int idx = frame.indexOf("?id=");
+			String id = idx < 0 ? null : frame.substring(idx + "?id=".length());
+			frame.setLength(0);
+			if (id != null) {
+				toLink.write(("alp://rply/ok?id=" + id + "\n").getBytes(US_ASCII));
+				toLink.flush();
+			}
+		}
+
+	}
+
+	private static PinWriteBatch portBatch() {
+		PinWriteBatch.Builder builder = PinWriteBatch.builder();
+		for (int i = 0; i < PORT_PINS; i++) {
+			builder.switchDigitalPin(digitalPin(i), true);
+		}
+		return builder.build();
+	}
+
+	@Setup
+	public void setup() throws IOException {
+		PipedInputStream fromDevice = new PipedInputStream(64 * 1024);
+		PipedOutputStream toLink = new PipedOutputStream(fromDevice);
+		link = new QosLink(new ConnectionBasedLink(new StreamConnection(fromDevice, new LoopbackResponder(toLink),
+				new ArdulinkProtocol2().newByteStreamProcessor())), 5, SECONDS);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		link.close();
+	}
+
+	@Benchmark
+	public long roundTrip() throws IOException {
+		return link.sendNoTone(pin);
+	}
+
+	@Benchmark
+	public long switchPortPinByPin() throws IOException {
+		long messageId = 0;
+		for (int i = 0; i < PORT_PINS; i++) {
+			messageId = link.switchDigitalPin(digitalPin(i), true);
+		}
+		return messageId;
+	}
+
+	@Benchmark
+	public long switchPortAsBatch() throws IOException {
+		return link.switchPins(batch);
+	}
+
+}
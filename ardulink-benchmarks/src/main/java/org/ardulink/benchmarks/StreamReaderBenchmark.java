@@ -0,0 +1,85 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.benchmarks.BenchmarkData.alpLines;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.ardulink.core.StreamReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Compares the byte-by-byte read loop (buffer size 1) against the block read
+ * loop of {@link StreamReader}. The score is reported in bytes per second, run
+ * with <code>-prof gc</code> to get the allocation rate.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamReaderBenchmark {
+
+	private static final int LINES = 4096;
+
+	@Param({ "1", "1024" })
+	private int bufferSize;
+
+	private byte[] data;
+
+	@Setup
+	public void setup() {
+		data = alpLines(LINES);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkData.ALP_LINE_LENGTH * LINES)
+	public void readUntilClosed(Blackhole blackhole) throws IOException {
+		try (StreamReader reader = new StreamReader(new ByteArrayInputStream(data), bufferSize) {
+			@Override
+			protected void received(byte[] bytes) {
+				blackhole.consume(bytes);
+			}
+		}) {
+			reader.readUntilClosed(new BlackholeByteStreamProcessor(blackhole));
+		}
+	}
+
+}
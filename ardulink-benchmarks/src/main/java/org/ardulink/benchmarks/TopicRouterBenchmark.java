@@ -0,0 +1,113 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.benchmarks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.ardulink.util.TopicRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Resolves MQTT topics (digital and analog writes and both control topics, as
+ * used by the MQTT module, plus some topics not matching any) to their target
+ * and pin number: once trying one regular expression after the other and once
+ * using a {@link TopicRouter}. The score is reported in topics per second.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopicRouterBenchmark {
+
+	private static final int TOPICS = 4096;
+
+	private static final String BASE = "home/devices/ardulink/";
+
+	private static final String[] FORMATS = { BASE + "D%s/value/set", BASE + "A%s/value/set",
+			BASE + "system/listening/A%s/value/set", BASE + "system/listening/D%s/value/set" };
+
+	private Pattern[] patterns;
+	private TopicRouter<Pattern> router;
+	private String[] topics;
+
+	@Setup
+	public void setup() {
+		patterns = new Pattern[FORMATS.length];
+		TopicRouter.Builder<Pattern> builder = TopicRouter.builder();
+		for (int i = 0; i < FORMATS.length; i++) {
+			patterns[i] = Pattern.compile(String.format(FORMATS[i], "(\\w+)"));
+			builder.route(patterns[i], patterns[i]);
+		}
+		router = builder.build();
+		topics = new String[TOPICS];
+		for (int i = 0; i < topics.length; i++) {
+			String format = i % 8 == 7 ? BASE + "unknown/%s" : FORMATS[i % FORMATS.length];
+			topics[i] = String.format(format, i % 64);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOPICS)
+	public void regex(Blackhole blackhole) {
+		for (String topic : topics) {
+			for (Pattern pattern : patterns) {
+				Matcher matcher = pattern.matcher(topic);
+				if (matcher.matches()) {
+					blackhole.consume(pattern);
+					blackhole.consume(Integer.parseInt(matcher.group(1)));
+					break;
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOPICS)
+	public void router(Blackhole blackhole) {
+		for (String topic : topics) {
+			router.route(topic, (pattern, pin) -> {
+				blackhole.consume(pattern);
+				blackhole.consume(pin);
+				return pattern;
+			});
+		}
+	}
+
+}
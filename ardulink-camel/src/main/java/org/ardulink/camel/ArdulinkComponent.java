@@ -49,7 +49,9 @@ public class ArdulinkComponent extends DefaultComponent {
 	@Override
 	protected Endpoint createEndpoint(String uri, String remaining, Map<String, Object> parameters) throws Exception {
 		Set<Pin> pins = popStringValue(parameters, "listenTo").map(ArdulinkComponent::parsePins).orElse(Set.of());
-		EndpointConfig config = endpointConfigWithType(remaining).listenTo(pins).linkParams(parameters);
+		boolean typedBody = popStringValue(parameters, "typedBody").map(Boolean::parseBoolean).orElse(false);
+		EndpointConfig config = endpointConfigWithType(remaining).listenTo(pins).typedBody(typedBody)
+				.linkParams(parameters);
 		parameters.clear();
 		ArdulinkEndpoint endpoint = new ArdulinkEndpoint(uri, this, config);
 		setProperties(endpoint, parameters);
@@ -1,5 +1,6 @@
 package org.ardulink.camel;
 
+import static org.ardulink.core.messages.impl.DefaultFromDeviceMessagePinStateChanged.fromDeviceMessagePinStateChanged;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.ANALOG_PIN_READ;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.DIGITAL_PIN_READ;
 
@@ -15,16 +16,35 @@ import org.ardulink.core.Link;
 import org.ardulink.core.events.AnalogPinValueChangedEvent;
 import org.ardulink.core.events.DigitalPinValueChangedEvent;
 import org.ardulink.core.events.EventListener;
+import org.ardulink.core.messages.api.FromDeviceMessagePinStateChanged;
 import org.ardulink.core.proto.ardulink.ALProtoBuilder;
 
 public class ArdulinkConsumer extends DefaultConsumer {
 
 	private final EventListener listener = listener();
 	private final Link link;
+	private final boolean typedBody;
 
 	public ArdulinkConsumer(Endpoint endpoint, Processor processor, Link link) throws IOException {
+		this(endpoint, processor, link, false);
+	}
+
+	/**
+	 * Creates a consumer that sends the pin state changes of the passed link.
+	 * 
+	 * @param endpoint  the endpoint of this consumer
+	 * @param processor the processor to send the exchanges to
+	 * @param link      the link to listen to
+	 * @param typedBody if <code>true</code> the bodies are
+	 *                  {@link FromDeviceMessagePinStateChanged}s, otherwise
+	 *                  they are ALP strings
+	 * @throws IOException
+	 */
+	public ArdulinkConsumer(Endpoint endpoint, Processor processor, Link link, boolean typedBody)
+			throws IOException {
 		super(endpoint, processor);
 		this.link = link;
+		this.typedBody = typedBody;
 	}
 
 	@Override
@@ -52,6 +72,10 @@ public class ArdulinkConsumer extends DefaultConsumer {
 
 			@Override
 			public void stateChanged(DigitalPinValueChangedEvent event) {
+				if (typedBody) {
+					process(exchangeWithBody(fromDeviceMessagePinStateChanged(event.getPin(), event.getValue())));
+					return;
+				}
 				String body = ALProtoBuilder.alpProtocolMessage(DIGITAL_PIN_READ).forPin(event.getPin().pinNum())
 						.withState(event.getValue().booleanValue());
 				process(exchangeWithBody(body));
@@ -59,12 +83,16 @@ public class ArdulinkConsumer extends DefaultConsumer {
 
 			@Override
 			public void stateChanged(AnalogPinValueChangedEvent event) {
+				if (typedBody) {
+					process(exchangeWithBody(fromDeviceMessagePinStateChanged(event.getPin(), event.getValue())));
+					return;
+				}
 				String body = ALProtoBuilder.alpProtocolMessage(ANALOG_PIN_READ).forPin(event.getPin().pinNum())
 						.withValue(event.getValue());
 				process(exchangeWithBody(body));
 			}
 
-			private Exchange exchangeWithBody(String body) {
+			private Exchange exchangeWithBody(Object body) {
 				Exchange exchange = getEndpoint().createExchange();
 				Message message = new DefaultMessage(exchange.getContext());
 				message.setBody(body);
@@ -54,7 +54,7 @@ public class ArdulinkEndpoint extends DefaultEndpoint implements MultipleConsume
 
 	@Override
 	public Consumer createConsumer(Processor processor) throws Exception {
-		return new ArdulinkConsumer(this, processor, link);
+		return new ArdulinkConsumer(this, processor, link, config.isTypedBody());
 	}
 
 	@Override
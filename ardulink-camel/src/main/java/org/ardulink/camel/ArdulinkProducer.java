@@ -39,6 +39,10 @@ import org.ardulink.core.Pin;
 import org.ardulink.core.messages.api.FromDeviceChangeListeningState;
 import org.ardulink.core.messages.api.FromDeviceMessage;
 import org.ardulink.core.messages.api.FromDeviceMessagePinStateChanged;
+import org.ardulink.core.messages.api.ToDeviceMessage;
+import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.ardulink.core.messages.api.ToDeviceMessageStartListening;
+import org.ardulink.core.messages.api.ToDeviceMessageStopListening;
 import org.ardulink.core.proto.ardulink.ArdulinkProtocol2.ALPByteStreamProcessor;
 
 /**
@@ -68,25 +72,54 @@ public class ArdulinkProducer extends DefaultProducer {
 		this.link = link;
 	}
 
+	/**
+	 * Bodies can be ALP strings (the response then is the ALP string followed by
+	 * <code>=OK</code> or <code>=NOK</code>) or already typed messages
+	 * ({@link FromDeviceMessagePinStateChanged},
+	 * {@link FromDeviceChangeListeningState},
+	 * {@link ToDeviceMessagePinStateChange}, {@link ToDeviceMessageStartListening}
+	 * and {@link ToDeviceMessageStopListening}) which are not parsed at all (the
+	 * response then is <code>OK</code> or <code>NOK</code>).
+	 */
 	@Override
 	public void process(Exchange exchange) throws Exception {
+		Object body = exchange.getIn().getBody();
+		if (body instanceof FromDeviceMessage || body instanceof ToDeviceMessage) {
+			exchange.getMessage().setBody(rc(handle(body)));
+			return;
+		}
 		String payload = exchange.getIn().getBody(String.class);
 		FromDeviceMessage fromDevice = payload == null //
 				? null //
 				: getFirst(parse(camelPayloadProcessor, camelPayloadProcessor.toBytes(payload))).orElse(null);
-		Handled handledSuccessfully = NOT_HANDLED;
-		if (fromDevice instanceof FromDeviceMessagePinStateChanged) {
-			handledSuccessfully = handlePinStateChange((FromDeviceMessagePinStateChanged) fromDevice);
-		} else if (fromDevice instanceof FromDeviceChangeListeningState) {
-			handledSuccessfully = handleListeningStateChange((FromDeviceChangeListeningState) fromDevice);
+		exchange.getMessage().setBody(format("%s=%s", payload, rc(handle(fromDevice))));
+	}
+
+	private static String rc(Handled handled) {
+		return handled == HANDLED_SUCCESSFULLY ? "OK" : "NOK";
+	}
+
+	private Handled handle(Object message) throws IOException {
+		if (message instanceof FromDeviceMessagePinStateChanged) {
+			FromDeviceMessagePinStateChanged event = (FromDeviceMessagePinStateChanged) message;
+			return handlePinStateChange(event.getPin(), event.getValue());
+		} else if (message instanceof FromDeviceChangeListeningState) {
+			return handleListeningStateChange((FromDeviceChangeListeningState) message);
+		} else if (message instanceof ToDeviceMessagePinStateChange) {
+			ToDeviceMessagePinStateChange pinStateChange = (ToDeviceMessagePinStateChange) message;
+			return handlePinStateChange(pinStateChange.getPin(), pinStateChange.getValue());
+		} else if (message instanceof ToDeviceMessageStartListening) {
+			link.startListening(((ToDeviceMessageStartListening) message).getPin());
+			return HANDLED_SUCCESSFULLY;
+		} else if (message instanceof ToDeviceMessageStopListening) {
+			link.stopListening(((ToDeviceMessageStopListening) message).getPin());
+			return HANDLED_SUCCESSFULLY;
 		}
-		String rc = handledSuccessfully == HANDLED_SUCCESSFULLY ? "OK" : "NOK";
-		exchange.getMessage().setBody(format("%s=%s", payload, rc));
+		return NOT_HANDLED;
 	}
 
-	private Handled handlePinStateChange(FromDeviceMessagePinStateChanged event) throws IOException {
-		Pin pin = event.getPin();
-		String value = String.valueOf(event.getValue());
+	private Handled handlePinStateChange(Pin pin, Object pinValue) throws IOException {
+		String value = String.valueOf(pinValue);
 		if (pin.is(ANALOG)) {
 			link.switchAnalogPin(analogPin(pin.pinNum()), parseInt(value));
 			return HANDLED_SUCCESSFULLY;
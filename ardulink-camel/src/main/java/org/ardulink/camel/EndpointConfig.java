@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.ardulink.core.Pin;
+import org.ardulink.core.messages.api.FromDeviceMessagePinStateChanged;
 import org.ardulink.util.Iterables;
 
 public class EndpointConfig {
@@ -14,6 +15,7 @@ public class EndpointConfig {
 	private final String type;
 	private Map<String, Object> typeParams = Map.of();
 	private List<Pin> pins = List.of();
+	private boolean typedBody;
 
 	public static EndpointConfig endpointConfigWithType(String type) {
 		return new EndpointConfig(type);
@@ -43,6 +45,19 @@ public class EndpointConfig {
 		return this;
 	}
 
+	/**
+	 * If enabled the consumer emits {@link FromDeviceMessagePinStateChanged}s
+	 * instead of ALP strings, so routes can access pin and value without parsing
+	 * the body.
+	 * 
+	 * @param typedBody <code>true</code> to emit typed bodies
+	 * @return this {@link EndpointConfig}
+	 */
+	public EndpointConfig typedBody(boolean typedBody) {
+		this.typedBody = typedBody;
+		return this;
+	}
+
 	public String getType() {
 		return type;
 	}
@@ -55,4 +70,8 @@ public class EndpointConfig {
 		return pins;
 	}
 
+	public boolean isTypedBody() {
+		return typedBody;
+	}
+
 }
\ No newline at end of file
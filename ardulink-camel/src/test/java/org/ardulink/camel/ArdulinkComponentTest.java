@@ -24,6 +24,11 @@ import static org.apache.camel.ShutdownRunningTask.CompleteAllTasks;
 import static org.ardulink.core.Pin.analogPin;
 import static org.ardulink.core.Pin.digitalPin;
 import static org.ardulink.core.linkmanager.providers.DynamicLinkFactoriesProvider.withRegistered;
+import static org.ardulink.core.messages.api.FromDeviceChangeListeningState.Mode.START;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceChangeListeningState.fromDeviceChangeListeningState;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceMessagePinStateChanged.fromDeviceMessagePinStateChanged;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinStateChange.toDeviceMessagePinStateChange;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessageStopListening.toDeviceMessageStopListening;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.alpProtocolMessage;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.ANALOG_PIN_READ;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.CUSTOM_EVENT;
@@ -124,6 +129,20 @@ class ArdulinkComponentTest {
 		verifyNoMoreInteractions(mock);
 	}
 
+	@Test
+	void canHandleTypedBodies() throws Exception {
+		assertThat(send(fromDeviceMessagePinStateChanged(analogPin(3), 123))).isEqualTo("OK");
+		assertThat(send(toDeviceMessagePinStateChange(digitalPin(4), true))).isEqualTo("OK");
+		assertThat(send(fromDeviceChangeListeningState(analogPin(5), START))).isEqualTo("OK");
+		assertThat(send(toDeviceMessageStopListening(analogPin(5)))).isEqualTo("OK");
+		Link mock = getMock(link);
+		verify(mock).switchAnalogPin(analogPin(3), 123);
+		verify(mock).switchDigitalPin(digitalPin(4), true);
+		verify(mock).startListening(analogPin(5));
+		verify(mock).stopListening(analogPin(5));
+		verifyNoMoreInteractions(mock);
+	}
+
 	@Test
 	@ExpectedToFail("clarify who should filter it")
 	void ignoresNegativeValues() {
@@ -221,7 +240,7 @@ class ArdulinkComponentTest {
 		assertThat(send(message)).isEqualTo(format("%s=%s", message, rc));
 	}
 
-	private Object send(String message) {
+	private Object send(Object message) {
 		try {
 			return context.createProducerTemplate().asyncRequestBody(mockUri, message).get();
 		} catch (InterruptedException | ExecutionException e) {
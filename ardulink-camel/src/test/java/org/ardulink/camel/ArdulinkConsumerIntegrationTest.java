@@ -25,6 +25,7 @@ import static org.ardulink.core.proto.ardulink.ALProtoBuilder.alpProtocolMessage
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.ANALOG_PIN_READ;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.DIGITAL_PIN_READ;
 import static org.ardulink.testsupport.mock.TestSupport.fireEvent;
+import static org.assertj.core.api.Assertions.assertThat;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.builder.RouteBuilder;
@@ -32,6 +33,7 @@ import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.impl.DefaultCamelContext;
 import org.ardulink.core.Link;
 import org.ardulink.core.convenience.Links;
+import org.ardulink.core.messages.api.FromDeviceMessagePinStateChanged;
 import org.ardulink.testsupport.mock.junit5.MockUri;
 import org.junit.jupiter.api.Test;
 
@@ -71,6 +73,20 @@ class ArdulinkConsumerIntegrationTest {
 		}
 	}
 
+	@Test
+	void messageIsSentTypedIfConfigured(@MockUri String mockUri) throws Exception {
+		try (Link link = Links.getLink(mockUri); CamelContext context = camelContext(mockUri + "&typedBody=true")) {
+			fireEvent(link, analogPinValueChanged(analogPin(4), 42));
+			MockEndpoint out = getMockEndpoint(context);
+			out.expectedMessageCount(1);
+			out.assertIsSatisfied();
+			FromDeviceMessagePinStateChanged body = out.getExchanges().get(0).getIn()
+					.getBody(FromDeviceMessagePinStateChanged.class);
+			assertThat(body.getPin()).isEqualTo(analogPin(4));
+			assertThat(body.getValue()).isEqualTo(42);
+		}
+	}
+
 	private CamelContext camelContext(String from) throws Exception {
 		CamelContext context = new DefaultCamelContext();
 		context.addRoutes(new RouteBuilder() {
@@ -16,9 +16,6 @@ limitations under the License.
 
 package org.ardulink.core;
 
-import static java.util.function.Predicate.isEqual;
-import static org.ardulink.util.Predicates.attribute;
-
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -46,12 +43,13 @@ public abstract class AbstractListenerLink implements Link {
 
 	private static final Logger logger = LoggerFactory.getLogger(AbstractListenerLink.class);
 
-	private final List<EventListener> eventListeners = new CopyOnWriteArrayList<>();
+	private final EventListenerRegistry eventListeners = new EventListenerRegistry();
 	private final List<ConnectionListener> connectionListeners = new CopyOnWriteArrayList<>();
 	private final List<RplyListener> rplyListeners = new CopyOnWriteArrayList<>();
 	private final List<CustomListener> customListeners = new CopyOnWriteArrayList<>();
 
 	private boolean closed;
+	private volatile AsyncEventDispatcher eventDispatcher;
 
 	@Override
 	public Link addListener(EventListener listener) throws IOException {
@@ -108,8 +106,35 @@ public abstract class AbstractListenerLink implements Link {
 		return this;
 	}
 
+	/**
+	 * Sets the dispatcher used to deliver pin events to the
+	 * {@link EventListener}s. If <code>null</code> (the default) the listeners
+	 * are called on the thread firing the event.
+	 * 
+	 * @param eventDispatcher the dispatcher to use or <code>null</code>
+	 * @return this link
+	 */
+	public AbstractListenerLink setEventDispatcher(AsyncEventDispatcher eventDispatcher) {
+		this.eventDispatcher = eventDispatcher;
+		return this;
+	}
+
 	public void fireStateChanged(AnalogPinValueChangedEvent event) {
-		for (EventListener eventListener : this.eventListeners) {
+		AsyncEventDispatcher dispatcher = this.eventDispatcher;
+		if (dispatcher == null) {
+			deliver(event);
+		} else {
+			dispatcher.dispatch(event.getPin(), () -> deliver(event));
+		}
+	}
+
+	private void deliver(AnalogPinValueChangedEvent event) {
+		fireStateChanged(this.eventListeners.unfiltered(), event);
+		fireStateChanged(this.eventListeners.forPin(event.getPin()), event);
+	}
+
+	private void fireStateChanged(List<EventListener> eventListeners, AnalogPinValueChangedEvent event) {
+		for (EventListener eventListener : eventListeners) {
 			try {
 				eventListener.stateChanged(event);
 			} catch (Exception e) {
@@ -119,7 +144,21 @@ public abstract class AbstractListenerLink implements Link {
 	}
 
 	public void fireStateChanged(DigitalPinValueChangedEvent event) {
-		for (EventListener eventListener : this.eventListeners) {
+		AsyncEventDispatcher dispatcher = this.eventDispatcher;
+		if (dispatcher == null) {
+			deliver(event);
+		} else {
+			dispatcher.dispatch(event.getPin(), () -> deliver(event));
+		}
+	}
+
+	private void deliver(DigitalPinValueChangedEvent event) {
+		fireStateChanged(this.eventListeners.unfiltered(), event);
+		fireStateChanged(this.eventListeners.forPin(event.getPin()), event);
+	}
+
+	private void fireStateChanged(List<EventListener> eventListeners, DigitalPinValueChangedEvent event) {
+		for (EventListener eventListener : eventListeners) {
 			try {
 				eventListener.stateChanged(event);
 			} catch (Exception e) {
@@ -169,10 +208,7 @@ public abstract class AbstractListenerLink implements Link {
 	}
 
 	private boolean hasListenerForPin(Pin pin) {
-		return this.eventListeners.stream() //
-				.filter(FilteredEventListenerAdapter.class::isInstance) //
-				.map(FilteredEventListenerAdapter.class::cast) //
-				.anyMatch(attribute(FilteredEventListenerAdapter::getPin, isEqual(pin)));
+		return this.eventListeners.hasListenerForPin(pin);
 	}
 
 	private void logError(Object event, String eventType, Exception e) {
@@ -192,7 +228,7 @@ public abstract class AbstractListenerLink implements Link {
 	}
 
 	public void deregisterAllEventListeners() throws IOException {
-		for (EventListener eventListener : this.eventListeners) {
+		for (EventListener eventListener : this.eventListeners.all()) {
 			removeListener(eventListener);
 		}
 	}
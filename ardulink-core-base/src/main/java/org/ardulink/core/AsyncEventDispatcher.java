@@ -0,0 +1,189 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import static org.ardulink.util.Preconditions.checkArgument;
+import static org.ardulink.util.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Delivers the pin events of an {@link AbstractListenerLink} on the threads of
+ * an {@link Executor} instead of the thread reading from the device, so slow
+ * listeners do not stall the parsing of the incoming data. Any executor can be
+ * used, e.g. a fixed thread pool or (running on Java 21+)
+ * <code>Executors.newVirtualThreadPerTaskExecutor()</code>.<br>
+ * Events of the same pin are delivered in the order they were received, one
+ * after another. Each pin has a queue holding at most <code>capacity</code>
+ * events, the {@link OverflowPolicy} decides what happens if it is full.
+ * 
+ * @see AbstractListenerLink#setEventDispatcher(AsyncEventDispatcher)
+ *
+ */
+public class AsyncEventDispatcher {
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncEventDispatcher.class);
+
+	/**
+	 * Maximum number of events delivered for one pin before the pin's queue is
+	 * handed back to the executor so other pins get their turn.
+	 */
+	private static final int BATCH_SIZE = 64;
+
+	public enum OverflowPolicy {
+		/**
+		 * the reading thread waits until the pin's queue has space again
+		 */
+		BLOCK,
+		/**
+		 * the oldest event queued for the pin is dropped
+		 */
+		DROP_OLDEST,
+		/**
+		 * the newest event queued for the pin is replaced, so listeners get the
+		 * latest value of the pin
+		 */
+		COALESCE
+	}
+
+	private final Executor executor;
+	private final int capacity;
+	private final OverflowPolicy overflowPolicy;
+	private final Map<Object, Lane> lanes = new ConcurrentHashMap<>();
+	private final AtomicLong discarded = new AtomicLong();
+
+	private final class Lane implements Runnable {
+
+		private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+		private boolean scheduled;
+
+		private void offer(Runnable delivery) throws InterruptedException {
+			synchronized (this) {
+				if (queue.size() >= capacity) {
+					overflow();
+				}
+				queue.add(delivery);
+				if (scheduled) {
+					return;
+				}
+				scheduled = true;
+			}
+			schedule();
+		}
+
+		private void overflow() throws InterruptedException {
+			switch (overflowPolicy) {
+			case BLOCK:
+				while (queue.size() >= capacity) {
+					wait();
+				}
+				break;
+			case DROP_OLDEST:
+				queue.pollFirst();
+				discarded.incrementAndGet();
+				break;
+			case COALESCE:
+				queue.pollLast();
+				discarded.incrementAndGet();
+				break;
+			default:
+				throw new IllegalStateException("Unknown overflow policy " + overflowPolicy);
+			}
+		}
+
+		private void schedule() {
+			try {
+				executor.execute(this);
+			} catch (RuntimeException e) {
+				synchronized (this) {
+					scheduled = false;
+				}
+				throw e;
+			}
+		}
+
+		@Override
+		public void run() {
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				Runnable delivery;
+				synchronized (this) {
+					delivery = queue.pollFirst();
+					if (delivery == null) {
+						scheduled = false;
+						return;
+					}
+					notifyAll();
+				}
+				try {
+					delivery.run();
+				} catch (RuntimeException e) {
+					logger.error("Error while delivering event", e);
+				}
+			}
+			schedule();
+		}
+
+	}
+
+	public AsyncEventDispatcher(Executor executor, int capacity, OverflowPolicy overflowPolicy) {
+		checkArgument(capacity > 0, "capacity must be greater than 0 but was %s", capacity);
+		this.executor = checkNotNull(executor, "executor must not be null");
+		this.capacity = capacity;
+		this.overflowPolicy = checkNotNull(overflowPolicy, "overflowPolicy must not be null");
+	}
+
+	/**
+	 * Queues the delivery of an event. Deliveries with the same key are run in
+	 * the order they were dispatched.
+	 * 
+	 * @param key      the ordering key, e.g. the event's pin
+	 * @param delivery the delivery to run on the executor
+	 */
+	void dispatch(Object key, Runnable delivery) {
+		try {
+			lanes.computeIfAbsent(key, k -> new Lane()).offer(delivery);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			discarded.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the number of events not delivered due to the
+	 * {@link OverflowPolicy}.
+	 * 
+	 * @return number of discarded events
+	 */
+	public long discarded() {
+		return discarded.get();
+	}
+
+}
@@ -25,6 +25,7 @@ import static org.ardulink.core.messages.impl.DefaultToDeviceMessageCustom.toDev
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessageKeyPress.toDeviceMessageKeyPress;
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessageNoTone.toDeviceMessageNoTone;
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinStateChange.toDeviceMessagePinStateChange;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinWriteBatch.toDeviceMessagePinWriteBatch;
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePing.toDeviceMessageNoTone;
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessageStartListening.toDeviceMessageStartListening;
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessageStopListening.toDeviceMessageStopListening;
@@ -36,6 +37,7 @@ import static org.ardulink.util.StopWatch.Countdown.createStarted;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.ardulink.core.Connection.ListenerAdapter;
 import org.ardulink.core.Pin.AnalogPin;
@@ -51,6 +53,7 @@ import org.ardulink.core.messages.api.ToDeviceMessageCustom;
 import org.ardulink.core.messages.api.ToDeviceMessageKeyPress;
 import org.ardulink.core.messages.api.ToDeviceMessageNoTone;
 import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.ardulink.core.messages.api.ToDeviceMessagePinWriteBatch;
 import org.ardulink.core.messages.api.ToDeviceMessageStartListening;
 import org.ardulink.core.messages.api.ToDeviceMessageStopListening;
 import org.ardulink.core.messages.api.ToDeviceMessageTone;
@@ -67,13 +70,14 @@ import org.slf4j.LoggerFactory;
  * [adsense]
  *
  */
-public class ConnectionBasedLink extends AbstractListenerLink {
+public class ConnectionBasedLink extends AbstractListenerLink implements EncodedMessageSender {
 
 	private static final Logger logger = LoggerFactory.getLogger(ConnectionBasedLink.class);
 
 	private final Connection connection;
+	private final ConnectionWriter writer;
 	private final ByteStreamProcessor byteStreamProcessor;
-	private long messageId;
+	private final AtomicLong messageId = new AtomicLong();
 	private boolean infoMsgReceived;
 
 	public <T extends Connection & ByteStreamProcessorProvider> ConnectionBasedLink(T connection) {
@@ -82,11 +86,12 @@ public class ConnectionBasedLink extends AbstractListenerLink {
 
 	public ConnectionBasedLink(Connection connection, ByteStreamProcessor byteStreamProcessor) {
 		this.connection = connection;
+		this.writer = new ConnectionWriter(connection);
 		this.byteStreamProcessor = byteStreamProcessor;
 		this.byteStreamProcessor.addListener(this::received);
 		this.byteStreamProcessor.setOutboundListener(bytes -> {
 			try {
-				this.connection.write(bytes);
+				this.writer.write(bytes);
 			} catch (Exception e) {
 				// ignore outbound errors during boot
 			}
@@ -97,6 +102,10 @@ public class ConnectionBasedLink extends AbstractListenerLink {
 		return connection;
 	}
 
+	public ByteStreamProcessor getByteStreamProcessor() {
+		return byteStreamProcessor;
+	}
+
 	protected void received(FromDeviceMessage fromDevice) {
 		if (fromDevice instanceof FromDeviceMessagePinStateChanged) {
 			handlePinChanged((FromDeviceMessagePinStateChanged) fromDevice);
@@ -190,7 +199,7 @@ public class ConnectionBasedLink extends AbstractListenerLink {
 
 	private void ping() {
 		try {
-			connection.write(this.byteStreamProcessor.toDevice(addMessageId(toDeviceMessageNoTone(), 0)));
+			send(() -> this.byteStreamProcessor.toDevice(addMessageId(toDeviceMessageNoTone(), 0)));
 		} catch (IOException e) {
 			// ignore
 		}
@@ -199,21 +208,17 @@ public class ConnectionBasedLink extends AbstractListenerLink {
 	@Override
 	public long startListening(Pin pin) throws IOException {
 		logger.info("Starting listening on pin {}", pin);
-		synchronized (connection) {
-			ToDeviceMessageStartListening msg = addMessageIdIfNeeded(toDeviceMessageStartListening(pin));
-			send(this.byteStreamProcessor.toDevice(msg));
-			return messageIdOf(msg);
-		}
+		ToDeviceMessageStartListening msg = addMessageIdIfNeeded(toDeviceMessageStartListening(pin));
+		send(() -> this.byteStreamProcessor.toDevice(msg));
+		return messageIdOf(msg);
 	}
 
 	@Override
 	public long stopListening(Pin pin) throws IOException {
-		synchronized (connection) {
-			ToDeviceMessageStopListening msg = addMessageIdIfNeeded(toDeviceMessageStopListening(pin));
-			send(this.byteStreamProcessor.toDevice(msg));
-			logger.info("Stopped listening on pin {}", pin);
-			return messageIdOf(msg);
-		}
+		ToDeviceMessageStopListening msg = addMessageIdIfNeeded(toDeviceMessageStopListening(pin));
+		send(() -> this.byteStreamProcessor.toDevice(msg));
+		logger.info("Stopped listening on pin {}", pin);
+		return messageIdOf(msg);
 	}
 
 	@Override
@@ -226,62 +231,76 @@ public class ConnectionBasedLink extends AbstractListenerLink {
 		return send(digitalPin, value);
 	}
 
+	@Override
+	public long switchPins(PinWriteBatch batch) throws IOException {
+		ToDeviceMessagePinWriteBatch msg = addMessageIdIfNeeded(toDeviceMessagePinWriteBatch(batch));
+		send(() -> this.byteStreamProcessor.toDevice(msg));
+		return messageIdOf(msg);
+	}
+
 	@Override
 	public long sendKeyPressEvent(char keychar, int keycode, int keylocation, int keymodifiers, int keymodifiersex)
 			throws IOException {
-		synchronized (connection) {
-			ToDeviceMessageKeyPress msg = addMessageIdIfNeeded(
-					toDeviceMessageKeyPress(keychar, keycode, keylocation, keymodifiers, keymodifiersex));
-			send(this.byteStreamProcessor.toDevice(msg));
-			return messageIdOf(msg);
-		}
+		ToDeviceMessageKeyPress msg = addMessageIdIfNeeded(
+				toDeviceMessageKeyPress(keychar, keycode, keylocation, keymodifiers, keymodifiersex));
+		send(() -> this.byteStreamProcessor.toDevice(msg));
+		return messageIdOf(msg);
 	}
 
 	@Override
 	public long sendTone(Tone tone) throws IOException {
-		synchronized (connection) {
-			ToDeviceMessageTone msg = addMessageIdIfNeeded(toDeviceMessageTone(tone));
-			send(this.byteStreamProcessor.toDevice(msg));
-			return messageIdOf(msg);
-		}
+		ToDeviceMessageTone msg = addMessageIdIfNeeded(toDeviceMessageTone(tone));
+		send(() -> this.byteStreamProcessor.toDevice(msg));
+		return messageIdOf(msg);
 	}
 
 	@Override
 	public long sendNoTone(AnalogPin analogPin) throws IOException {
-		synchronized (connection) {
-			ToDeviceMessageNoTone msg = addMessageIdIfNeeded(toDeviceMessageNoTone(analogPin));
-			send(this.byteStreamProcessor.toDevice(msg));
-			return messageIdOf(msg);
-		}
+		ToDeviceMessageNoTone msg = addMessageIdIfNeeded(toDeviceMessageNoTone(analogPin));
+		send(() -> this.byteStreamProcessor.toDevice(msg));
+		return messageIdOf(msg);
 	}
 
 	@Override
 	public long sendCustomMessage(String... messages) throws IOException {
-		synchronized (connection) {
-			ToDeviceMessageCustom msg = addMessageIdIfNeeded(toDeviceMessageCustom(messages));
-			send(this.byteStreamProcessor.toDevice(msg));
-			return messageIdOf(msg);
-		}
+		ToDeviceMessageCustom msg = addMessageIdIfNeeded(toDeviceMessageCustom(messages));
+		send(() -> this.byteStreamProcessor.toDevice(msg));
+		return messageIdOf(msg);
 	}
 
 	private long send(AnalogPin pin, int value) throws IOException {
-		synchronized (connection) {
-			ToDeviceMessagePinStateChange msg = addMessageIdIfNeeded(toDeviceMessagePinStateChange(pin, value));
-			send(this.byteStreamProcessor.toDevice(msg));
-			return messageIdOf(msg);
-		}
+		ToDeviceMessagePinStateChange msg = addMessageIdIfNeeded(toDeviceMessagePinStateChange(pin, value));
+		send(() -> this.byteStreamProcessor.toDevice(msg));
+		return messageIdOf(msg);
 	}
 
 	private long send(DigitalPin pin, boolean value) throws IOException {
-		synchronized (connection) {
-			ToDeviceMessagePinStateChange msg = addMessageIdIfNeeded(toDeviceMessagePinStateChange(pin, value));
-			send(this.byteStreamProcessor.toDevice(msg));
-			return messageIdOf(msg);
-		}
+		ToDeviceMessagePinStateChange msg = addMessageIdIfNeeded(toDeviceMessagePinStateChange(pin, value));
+		send(() -> this.byteStreamProcessor.toDevice(msg));
+		return messageIdOf(msg);
 	}
 
-	private void send(byte[] bytes) throws IOException {
-		this.connection.write(bytes);
+	/**
+	 * Sends messages encoded by the {@link #getByteStreamProcessor()} through the
+	 * same serialized writer as all other messages of this link.
+	 */
+	@Override
+	public void sendEncoded(Encoder encoder) throws IOException {
+		send(encoder);
+	}
+
+	/**
+	 * Messages are encoded by the calling threads without holding any lock, only
+	 * the writes to the connection are serialized. Stateful encoders encode while
+	 * holding the write lock, otherwise messages could be written in another order
+	 * than they were encoded in.
+	 */
+	private void send(Encoder encoder) throws IOException {
+		if (this.byteStreamProcessor.isStatefulEncoder()) {
+			this.writer.write(encoder);
+		} else {
+			this.writer.write(encoder.encode());
+		}
 	}
 
 	private <T> T addMessageIdIfNeeded(T event) {
@@ -289,7 +308,7 @@ public class ConnectionBasedLink extends AbstractListenerLink {
 	}
 
 	private long nextId() {
-		return ++messageId;
+		return messageId.incrementAndGet();
 	}
 
 	@Override
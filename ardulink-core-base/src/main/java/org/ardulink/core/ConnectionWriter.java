@@ -0,0 +1,108 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.ardulink.core.EncodedMessageSender.Encoder;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Serializes the writes of already encoded frames to a {@link Connection}.
+ * Threads enqueue their frame into a lock-free queue and the thread owning the
+ * write lock writes all frames queued so far, so concurrent senders do not
+ * wait for each other's encoding and the lock gets handed over once per batch
+ * instead of once per frame. {@link #write(byte[])} returns not until the
+ * passed frame has been written (or failed to be written) so the semantics of
+ * {@link Connection#write(byte[])} are retained. Frames of stateful encoders
+ * are encoded while holding the write lock, see {@link #write(Encoder)}.
+ *
+ */
+class ConnectionWriter {
+
+	private static final class Frame {
+
+		private final byte[] bytes;
+		private Exception failure;
+
+		private Frame(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+	}
+
+	private final Connection connection;
+	private final Queue<Frame> frames = new ConcurrentLinkedQueue<>();
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	ConnectionWriter(Connection connection) {
+		this.connection = connection;
+	}
+
+	void write(byte[] bytes) throws IOException {
+		Frame frame = new Frame(bytes);
+		frames.add(frame);
+		writeLock.lock();
+		try {
+			// if another thread already wrote our frame this is a no-op or writes
+			// the frames enqueued meanwhile
+			drain();
+		} finally {
+			writeLock.unlock();
+		}
+		if (frame.failure instanceof IOException) {
+			throw (IOException) frame.failure;
+		}
+		if (frame.failure != null) {
+			throw (RuntimeException) frame.failure;
+		}
+	}
+
+	/**
+	 * Encodes the frame and writes it while holding the write lock, so frames
+	 * whose encoding depends on the frames encoded before are written in the
+	 * order they were encoded.
+	 */
+	void write(Encoder encoder) throws IOException {
+		writeLock.lock();
+		try {
+			write(encoder.encode());
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private void drain() {
+		for (Frame frame; (frame = frames.poll()) != null;) {
+			try {
+				connection.write(frame.bytes);
+			} catch (IOException | RuntimeException e) {
+				frame.failure = e;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+ 
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+ 
+    http://www.apache.org/licenses/LICENSE-2.0
+ 
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.core;
+
+import java.io.IOException;
+
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Sends messages already encoded by a {@link ByteStreamProcessor}, e.g.
+ * protocol specific messages that are not part of {@link Link}.
+ *
+ */
+public interface EncodedMessageSender {
+
+	/**
+	 * Encodes a message, may change the state of the encoding
+	 * {@link ByteStreamProcessor}.
+	 */
+	@FunctionalInterface
+	interface Encoder {
+		byte[] encode() throws IOException;
+	}
+
+	/**
+	 * Encodes and sends a message. If the {@link ByteStreamProcessor} is a
+	 * {@link ByteStreamProcessor#isStatefulEncoder() stateful encoder} encoding
+	 * and writing is atomic, so messages are written in the order they were
+	 * encoded.
+	 * 
+	 * @param encoder encodes the message to send
+	 * @throws IOException if the message could not be encoded or written
+	 */
+	void sendEncoded(Encoder encoder) throws IOException;
+
+}
@@ -0,0 +1,99 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import static org.ardulink.core.Pin.newPinMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.ardulink.core.events.EventListener;
+import org.ardulink.core.events.FilteredEventListenerAdapter;
+import org.ardulink.util.PinMap;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Holds the {@link EventListener}s of a link. Listeners filtering on a pin
+ * ({@link FilteredEventListenerAdapter}) are indexed by their {@link Pin} so
+ * that an event is dispatched only to the unfiltered listeners and the
+ * listeners of the event's pin. Checking if there is a listener for a pin
+ * does not have to iterate the listeners.
+ *
+ */
+class EventListenerRegistry {
+
+	private final List<EventListener> unfiltered = new CopyOnWriteArrayList<>();
+	private final PinMap<Pin, List<EventListener>> byPin = newPinMap();
+
+	void add(EventListener listener) {
+		if (listener instanceof FilteredEventListenerAdapter) {
+			byPin.compute(((FilteredEventListenerAdapter) listener).getPin(), (p, listeners) -> {
+				List<EventListener> result = listeners == null ? new CopyOnWriteArrayList<>() : listeners;
+				result.add(listener);
+				return result;
+			});
+		} else {
+			unfiltered.add(listener);
+		}
+	}
+
+	void remove(EventListener listener) {
+		if (listener instanceof FilteredEventListenerAdapter) {
+			byPin.compute(((FilteredEventListenerAdapter) listener).getPin(), (p, listeners) -> {
+				if (listeners == null) {
+					return null;
+				}
+				listeners.remove(listener);
+				return listeners.isEmpty() ? null : listeners;
+			});
+		} else {
+			unfiltered.remove(listener);
+		}
+	}
+
+	boolean hasListenerForPin(Pin pin) {
+		return byPin.containsKey(pin);
+	}
+
+	List<EventListener> unfiltered() {
+		return unfiltered;
+	}
+
+	/**
+	 * Returns the listeners filtering on the passed pin.
+	 * 
+	 * @param pin the pin
+	 * @return listeners registered for the pin, never <code>null</code>
+	 */
+	List<EventListener> forPin(Pin pin) {
+		return byPin.getOrDefault(pin, List.of());
+	}
+
+	List<EventListener> all() {
+		List<EventListener> all = new ArrayList<>(unfiltered);
+		byPin.forEach((pin, listeners) -> all.addAll(listeners));
+		return all;
+	}
+
+}
@@ -16,8 +16,11 @@ limitations under the License.
 
 package org.ardulink.core;
 
+import static org.ardulink.core.Pin.Type.ANALOG;
+
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Map.Entry;
 
 import org.ardulink.core.Pin.AnalogPin;
 import org.ardulink.core.Pin.DigitalPin;
@@ -56,6 +59,26 @@ public interface Link extends Closeable {
 	long switchDigitalPin(DigitalPin digitalPin, boolean value)
 			throws IOException;
 
+	/**
+	 * Switches all pins of the passed batch. Links whose protocol can encode
+	 * several pin writes into one message send the batch as one message which
+	 * gets (at most) one reply. This default implementation switches the pins
+	 * one after the other.
+	 * 
+	 * @param batch the pins to switch and their values
+	 * @return the MessageId of the (last) message sent
+	 * @throws IOException if a message could not be sent
+	 */
+	default long switchPins(PinWriteBatch batch) throws IOException {
+		long messageId = 0;
+		for (Entry<Pin, Object> entry : batch.getValues().entrySet()) {
+			Pin pin = entry.getKey();
+			messageId = pin.is(ANALOG) ? switchAnalogPin((AnalogPin) pin, (Integer) entry.getValue())
+					: switchDigitalPin((DigitalPin) pin, (Boolean) entry.getValue());
+		}
+		return messageId;
+	}
+
 	long sendKeyPressEvent(char keychar, int keycode, int keylocation,
 			int keymodifiers, int keymodifiersex) throws IOException;
 
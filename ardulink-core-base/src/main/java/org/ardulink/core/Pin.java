@@ -18,6 +18,8 @@ package org.ardulink.core;
 
 import java.util.Objects;
 
+import org.ardulink.util.PinMap;
+
 /**
  * [ardulinktitle] [ardulinkversion]
  * 
@@ -32,6 +34,22 @@ public class Pin {
 		ANALOG, DIGITAL
 	}
 
+	/**
+	 * Pins with numbers from 0 to this value (exclusive) are cached, so
+	 * {@link #analogPin(int)} and {@link #digitalPin(int)} do not allocate.
+	 */
+	public static final int CACHED_PINS = 256;
+
+	private static final AnalogPin[] ANALOG_PINS = new AnalogPin[CACHED_PINS];
+	private static final DigitalPin[] DIGITAL_PINS = new DigitalPin[CACHED_PINS];
+
+	static {
+		for (int i = 0; i < CACHED_PINS; i++) {
+			ANALOG_PINS[i] = new AnalogPin(i);
+			DIGITAL_PINS[i] = new DigitalPin(i);
+		}
+	}
+
 	private final int num;
 	private final Type type;
 
@@ -50,7 +68,8 @@ public class Pin {
 
 	@Override
 	public final int hashCode() {
-		return Objects.hash(type, num);
+		// same as Objects.hash(type, num) but without boxing and varargs array
+		return 31 * (31 + Objects.hashCode(type)) + num;
 	}
 
 	@Override
@@ -82,11 +101,25 @@ public class Pin {
 	}
 
 	public static AnalogPin analogPin(int num) {
-		return new AnalogPin(num);
+		return isCached(num) ? ANALOG_PINS[num] : new AnalogPin(num);
 	}
 
 	public static DigitalPin digitalPin(int num) {
-		return new DigitalPin(num);
+		return isCached(num) ? DIGITAL_PINS[num] : new DigitalPin(num);
+	}
+
+	private static boolean isCached(int num) {
+		return num >= 0 && num < CACHED_PINS;
+	}
+
+	/**
+	 * Creates a {@link PinMap} for {@link Pin} keys.
+	 * 
+	 * @param <V> the value type
+	 * @return new empty map
+	 */
+	public static <V> PinMap<Pin, V> newPinMap() {
+		return new PinMap<>(Type.values().length, p -> p.getType().ordinal(), Pin::pinNum);
 	}
 
 	public boolean is(Type type) {
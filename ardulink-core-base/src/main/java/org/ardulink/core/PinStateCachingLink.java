@@ -0,0 +1,229 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.Pin.Type.ANALOG;
+import static org.ardulink.core.Pin.Type.DIGITAL;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.convenience.LinkDelegate;
+import org.ardulink.core.events.AnalogPinValueChangedEvent;
+import org.ardulink.core.events.DigitalPinValueChangedEvent;
+import org.ardulink.core.events.EventListener;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Decorates a {@link Link} remembering the last value (and the time it was
+ * received) of each pin, so the current state of a pin can be queried without
+ * waiting for the next change event. Only one {@link EventListener} gets
+ * registered on the decorated link, it does not start listening on any pin.
+ * The values are kept in primitive arrays, pins with numbers not lower than
+ * {@link Pin#CACHED_PINS} are not cached.
+ *
+ */
+public class PinStateCachingLink extends LinkDelegate {
+
+	private static final int SIZE = Pin.CACHED_PINS;
+
+	private static final byte UNKNOWN = 0;
+	private static final byte LOW = 1;
+	private static final byte HIGH = 2;
+
+	public static class PinState {
+
+		private final Pin pin;
+		private final Object value;
+		private final long timestamp;
+
+		private PinState(Pin pin, Object value, long timestamp) {
+			this.pin = pin;
+			this.value = value;
+			this.timestamp = timestamp;
+		}
+
+		public Pin getPin() {
+			return pin;
+		}
+
+		/**
+		 * Returns the value of the pin, an {@link Integer} for analog pins, a
+		 * {@link Boolean} for digital pins.
+		 * 
+		 * @return the pin's value
+		 */
+		public Object getValue() {
+			return value;
+		}
+
+		/**
+		 * Returns the time the value was received.
+		 * 
+		 * @return time in milliseconds since the epoch
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		@Override
+		public String toString() {
+			return "PinState [pin=" + pin + ", value=" + value + ", timestamp=" + timestamp + "]";
+		}
+
+	}
+
+	private final StampedLock lock = new StampedLock();
+	private final boolean[] analogKnown = new boolean[SIZE];
+	private final int[] analogValues = new int[SIZE];
+	private final long[] analogTimestamps = new long[SIZE];
+	private final byte[] digitalValues = new byte[SIZE];
+	private final long[] digitalTimestamps = new long[SIZE];
+
+	private final EventListener listener = new EventListener() {
+
+		@Override
+		public void stateChanged(AnalogPinValueChangedEvent event) {
+			int pin = event.getPin().pinNum();
+			if (isCached(pin)) {
+				long stamp = lock.writeLock();
+				try {
+					analogValues[pin] = event.getValue();
+					analogTimestamps[pin] = System.currentTimeMillis();
+					analogKnown[pin] = true;
+				} finally {
+					lock.unlockWrite(stamp);
+				}
+			}
+		}
+
+		@Override
+		public void stateChanged(DigitalPinValueChangedEvent event) {
+			int pin = event.getPin().pinNum();
+			if (isCached(pin)) {
+				long stamp = lock.writeLock();
+				try {
+					digitalValues[pin] = event.getValue() ? HIGH : LOW;
+					digitalTimestamps[pin] = System.currentTimeMillis();
+				} finally {
+					lock.unlockWrite(stamp);
+				}
+			}
+		}
+
+	};
+
+	public PinStateCachingLink(Link delegate) throws IOException {
+		super(delegate);
+		delegate.addListener(listener);
+	}
+
+	private static boolean isCached(int pin) {
+		return pin >= 0 && pin < SIZE;
+	}
+
+	public Optional<Integer> analogValue(AnalogPin pin) {
+		return stateOf(pin).map(s -> (Integer) s.getValue());
+	}
+
+	public Optional<Boolean> digitalValue(DigitalPin pin) {
+		return stateOf(pin).map(s -> (Boolean) s.getValue());
+	}
+
+	/**
+	 * Returns the last state received for the passed pin.
+	 * 
+	 * @param pin the pin
+	 * @return the pin's state or empty if no value was received for the pin yet
+	 */
+	public Optional<PinState> stateOf(Pin pin) {
+		int num = pin.pinNum();
+		if (!isCached(num)) {
+			return Optional.empty();
+		}
+		long stamp = lock.tryOptimisticRead();
+		PinState state = read(pin);
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				state = read(pin);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return Optional.ofNullable(state);
+	}
+
+	private PinState read(Pin pin) {
+		int num = pin.pinNum();
+		if (pin.is(ANALOG)) {
+			return analogKnown[num] ? new PinState(pin, analogValues[num], analogTimestamps[num]) : null;
+		}
+		if (pin.is(DIGITAL)) {
+			byte value = digitalValues[num];
+			return value == UNKNOWN ? null : new PinState(pin, value == HIGH, digitalTimestamps[num]);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the states of all pins a value has been received for.
+	 * 
+	 * @return consistent snapshot of all pin states, analog pins first
+	 */
+	public Map<Pin, PinState> snapshot() {
+		Map<Pin, PinState> snapshot = new LinkedHashMap<>();
+		long stamp = lock.readLock();
+		try {
+			for (int i = 0; i < SIZE; i++) {
+				if (analogKnown[i]) {
+					AnalogPin pin = analogPin(i);
+					snapshot.put(pin, new PinState(pin, analogValues[i], analogTimestamps[i]));
+				}
+			}
+			for (int i = 0; i < SIZE; i++) {
+				if (digitalValues[i] != UNKNOWN) {
+					DigitalPin pin = digitalPin(i);
+					snapshot.put(pin, new PinState(pin, digitalValues[i] == HIGH, digitalTimestamps[i]));
+				}
+			}
+		} finally {
+			lock.unlockRead(stamp);
+		}
+		return snapshot;
+	}
+
+	@Override
+	public void close() throws IOException {
+		getDelegate().removeListener(listener);
+		super.close();
+	}
+
+}
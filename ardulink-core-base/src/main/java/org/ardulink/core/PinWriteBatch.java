@@ -0,0 +1,99 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.core;
+
+import static java.util.Collections.unmodifiableMap;
+import static org.ardulink.util.Preconditions.checkNotNull;
+import static org.ardulink.util.Preconditions.checkState;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.Pin.DigitalPin;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Pin writes that are sent to the device as one message, e.g. to update all
+ * LEDs of a matrix or all servos of an array at once. If a pin is written more
+ * than once only the last value is sent.
+ *
+ * @see Link#switchPins(PinWriteBatch)
+ */
+public class PinWriteBatch {
+
+	public static class Builder {
+
+		private final Map<Pin, Object> values = new LinkedHashMap<>();
+
+		public Builder switchAnalogPin(AnalogPin analogPin, int value) {
+			return put(analogPin, value);
+		}
+
+		public Builder switchDigitalPin(DigitalPin digitalPin, boolean value) {
+			return put(digitalPin, value);
+		}
+
+		private Builder put(Pin pin, Object value) {
+			checkNotNull(pin, "pin must not be null");
+			values.remove(pin);
+			values.put(pin, value);
+			return this;
+		}
+
+		public PinWriteBatch build() {
+			checkState(!values.isEmpty(), "batch must contain at least one pin write");
+			return new PinWriteBatch(this);
+		}
+
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private final Map<Pin, Object> values;
+
+	private PinWriteBatch(Builder builder) {
+		this.values = unmodifiableMap(new LinkedHashMap<>(builder.values));
+	}
+
+	/**
+	 * Returns the pins and their values in the order they were written. Values
+	 * are {@link Integer}s for analog pins and {@link Boolean}s for digital pins.
+	 * 
+	 * @return unmodifiable map of pins to their values
+	 */
+	public Map<Pin, Object> getValues() {
+		return values;
+	}
+
+	public int size() {
+		return values.size();
+	}
+
+	@Override
+	public String toString() {
+		return "PinWriteBatch [values=" + values + "]";
+	}
+
+}
@@ -14,13 +14,22 @@ See the License for the specific language governing permissions and
 limitations under the License.
 */
 
+
 package org.ardulink.core;
 
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.ardulink.util.Preconditions.checkArgument;
 import static org.ardulink.util.Preconditions.checkNotNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 
 import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
 import org.slf4j.Logger;
@@ -33,19 +42,44 @@ import org.slf4j.LoggerFactory;
  * 
  * [adsense]
  *
+ * If created with a coalesce time greater than 0 writes are not flushed one by
+ * one: Frames written within the coalesce time (or until
+ * {@value #COALESCE_BYTE_BUDGET} bytes are buffered) are written and flushed to
+ * the {@link OutputStream} at once. The listeners are informed about each frame
+ * sent after the frames were flushed. If flushing in the background fails the
+ * frames are kept and the next write (or {@link #close()}) flushes them
+ * together with its own frame synchronously, so a persisting failure is thrown
+ * to a writer whose frame was not written.
+ *
  */
 public class StreamConnection extends AbstractConnection implements ByteStreamProcessorProvider {
 
 	private static final Logger logger = LoggerFactory.getLogger(StreamConnection.class);
 
+	public static final int COALESCE_BYTE_BUDGET = 512;
+
 	private final StreamReader streamReader;
 	private final OutputStream outputStream;
 	private final ByteStreamProcessor byteStreamProcessor;
 
+	private final long coalesceMicros;
+	private final ByteArrayOutputStream coalesced = new ByteArrayOutputStream(COALESCE_BYTE_BUDGET);
+	private final List<byte[]> coalescedFrames = new ArrayList<>();
+	private ScheduledExecutorService flusher;
+	private ScheduledFuture<?> scheduledFlush;
+	private IOException flushFailure;
+
 	public StreamConnection(InputStream inputStream, OutputStream outputStream,
 			ByteStreamProcessor byteStreamProcessor) {
+		this(inputStream, outputStream, byteStreamProcessor, 0);
+	}
+
+	public StreamConnection(InputStream inputStream, OutputStream outputStream,
+			ByteStreamProcessor byteStreamProcessor, long coalesceMicros) {
+		checkArgument(coalesceMicros >= 0, "coalesceMicros must not be negative but was %s", coalesceMicros);
 		this.outputStream = outputStream;
 		this.byteStreamProcessor = byteStreamProcessor;
+		this.coalesceMicros = coalesceMicros;
 		this.streamReader = new StreamReader(inputStream) {
 			@Override
 			protected void received(byte[] bytes) throws Exception {
@@ -60,15 +94,104 @@ public class StreamConnection extends AbstractConnection implements ByteStreamPr
 	@Override
 	public void write(byte[] bytes) throws IOException {
 		logger.debug("Stream write {}", bytes);
-		outputStream.write(checkNotNull(bytes, "bytes must not be null"));
+		checkNotNull(bytes, "bytes must not be null");
+		if (coalesceMicros > 0) {
+			coalesce(bytes);
+		} else {
+			outputStream.write(bytes);
+			outputStream.flush();
+			fireSent(bytes);
+		}
+	}
+
+	private synchronized void coalesce(byte[] bytes) throws IOException {
+		coalesced.write(bytes);
+		coalescedFrames.add(bytes);
+		if (flushFailure != null || coalesced.size() >= COALESCE_BYTE_BUDGET) {
+			flushCoalesced();
+		} else if (scheduledFlush == null) {
+			scheduledFlush = flusher().schedule(this::scheduledFlush, coalesceMicros, MICROSECONDS);
+		}
+	}
+
+	private ScheduledExecutorService flusher() {
+		if (flusher == null) {
+			flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "StreamConnection-flusher");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return flusher;
+	}
+
+	private synchronized void scheduledFlush() {
+		try {
+			writeCoalesced();
+		} catch (IOException e) {
+			logger.error("Error flushing {} coalesced writes, retrying with the next write", coalescedFrames.size(),
+					e);
+			flushFailure = e;
+		}
+	}
+
+	/**
+	 * Writes the coalesced frames. If writing fails the frames are discarded and
+	 * the exception (with the failure of a previous background flush attached as
+	 * suppressed) is thrown to the caller.
+	 */
+	private void flushCoalesced() throws IOException {
+		IOException previousFailure = flushFailure;
+		flushFailure = null;
+		try {
+			writeCoalesced();
+		} catch (IOException e) {
+			coalesced.reset();
+			coalescedFrames.clear();
+			if (previousFailure != null && previousFailure != e) {
+				e.addSuppressed(previousFailure);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes the coalesced frames. If writing fails the frames are kept.
+	 */
+	private void writeCoalesced() throws IOException {
+		if (scheduledFlush != null) {
+			scheduledFlush.cancel(false);
+			scheduledFlush = null;
+		}
+		if (coalescedFrames.isEmpty()) {
+			return;
+		}
+		coalesced.writeTo(outputStream);
 		outputStream.flush();
-		fireSent(bytes);
+		coalesced.reset();
+		List<byte[]> frames = new ArrayList<>(coalescedFrames);
+		coalescedFrames.clear();
+		for (byte[] frame : frames) {
+			fireSent(frame);
+		}
 	}
 
 	@Override
 	public void close() throws IOException {
-		this.streamReader.close();
-		this.outputStream.close();
+		try {
+			synchronized (this) {
+				try {
+					flushCoalesced();
+				} finally {
+					if (flusher != null) {
+						flusher.shutdownNow();
+					}
+				}
+			}
+		} finally {
+			this.streamReader.close();
+			this.outputStream.close();
+		}
 	}
 
 	@Override
@@ -16,6 +16,10 @@ limitations under the License.
 
 package org.ardulink.core;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Arrays.copyOf;
+import static org.ardulink.util.Preconditions.checkArgument;
 import static org.ardulink.util.Preconditions.checkNotNull;
 
 import java.io.Closeable;
@@ -34,17 +38,33 @@ import org.slf4j.LoggerFactory;
  * 
  * [adsense]
  *
+ * Reads the {@link InputStream} in chunks: Whatever is already available is
+ * read at once into a reusable buffer (up to the buffer's size) and passed as
+ * one chunk to {@link #received(byte[])} and the {@link ByteStreamProcessor}.
+ * If nothing is available the reader blocks on the next byte like a plain
+ * {@link InputStream#read()} would do. A buffer size of <code>1</code> results
+ * in the byte-by-byte behavior.
+ *
  */
 public abstract class StreamReader implements Closeable {
 
 	private static final Logger logger = LoggerFactory.getLogger(StreamReader.class);
 
+	public static final int DEFAULT_BUFFER_SIZE = 1024;
+
 	private final InputStream inputStream;
+	private final byte[] buffer;
 
 	private Thread thread;
 
 	protected StreamReader(InputStream inputStream) {
+		this(inputStream, DEFAULT_BUFFER_SIZE);
+	}
+
+	protected StreamReader(InputStream inputStream, int bufferSize) {
+		checkArgument(bufferSize > 0, "bufferSize must be greater than 0 but was %s", bufferSize);
 		this.inputStream = checkNotNull(inputStream, "InputStream must not be null");
+		this.buffer = new byte[bufferSize];
 	}
 
 	public void runReaderThread(ByteStreamProcessor byteStreamProcessor) {
@@ -62,30 +82,26 @@ public abstract class StreamReader implements Closeable {
 	public void readUntilClosed() {
 		try {
 			int read;
-			while ((read = inputStream.read()) != -1 && !isInterrupted()) {
-				received(read);
+			while ((read = fillBuffer()) != -1 && !isInterrupted()) {
+				try {
+					received(copyOf(buffer, read));
+				} catch (Exception e) {
+					logger.error("Error while retrieving data", e);
+				}
 			}
 		} catch (Exception e) {
 			logger.error("Error while Reader Initialization", e);
 		}
 	}
 
-	private void received(int read) {
-		try {
-			received(new byte[] { (byte) read });
-		} catch (Exception e) {
-			logger.error("Error while retrieving data", e);
-		}
-	}
-
 	public void readUntilClosed(ByteStreamProcessor byteStreamProcessor) {
 		try {
 			int read;
-			while ((read = inputStream.read()) != -1 && !isInterrupted()) {
+			while ((read = fillBuffer()) != -1 && !isInterrupted()) {
 				try {
-					byte b = (byte) read;
-					received(new byte[] { b });
-					byteStreamProcessor.process(b);
+					byte[] bytes = copyOf(buffer, read);
+					byteStreamProcessor.process(bytes);
+					received(bytes);
 				} catch (Exception e) {
 					logger.error("Error while retrieving data", e);
 				}
@@ -95,6 +111,28 @@ public abstract class StreamReader implements Closeable {
 		}
 	}
 
+	/**
+	 * Blocks until at least one byte could be read and then reads all the bytes
+	 * that are available without blocking (up to the size of the buffer).
+	 * 
+	 * @return the number of bytes read into the buffer or <code>-1</code> if the
+	 *         end of the stream has been reached
+	 * @throws IOException if an I/O error occurs
+	 */
+	private int fillBuffer() throws IOException {
+		int read = inputStream.read();
+		if (read == -1) {
+			return -1;
+		}
+		buffer[0] = (byte) read;
+		return 1 + readAvailable(1);
+	}
+
+	private int readAvailable(int offset) throws IOException {
+		int available = min(inputStream.available(), buffer.length - offset);
+		return available > 0 ? max(0, inputStream.read(buffer, offset, available)) : 0;
+	}
+
 	private boolean isInterrupted() {
 		return this.thread != null && this.thread.isInterrupted();
 	}
@@ -107,4 +145,4 @@ public abstract class StreamReader implements Closeable {
 		inputStream.close();
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
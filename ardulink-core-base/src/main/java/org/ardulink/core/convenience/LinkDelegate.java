@@ -22,6 +22,7 @@ import org.ardulink.core.Link;
 import org.ardulink.core.Pin;
 import org.ardulink.core.Pin.AnalogPin;
 import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.PinWriteBatch;
 import org.ardulink.core.Tone;
 import org.ardulink.core.events.CustomListener;
 import org.ardulink.core.events.EventListener;
@@ -94,6 +95,11 @@ public class LinkDelegate implements Link {
 		return getDelegate().switchDigitalPin(digitalPin, value);
 	}
 
+	@Override
+	public long switchPins(PinWriteBatch batch) throws IOException {
+		return getDelegate().switchPins(batch);
+	}
+
 	@Override
 	public long sendTone(Tone tone) throws IOException {
 		return getDelegate().sendTone(tone);
@@ -29,13 +29,18 @@ import static org.ardulink.util.Iterables.getFirst;
 import static org.ardulink.util.Regex.regex;
 
 import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
@@ -57,9 +62,14 @@ import org.ardulink.core.linkmanager.LinkManager.Configurer;
  */
 public final class Links {
 
-	// TODO add ReferenceQueue to close GCed Links, we need strong refs to the keys
-	// but weak ones to the links
-	private static final Map<Object, CacheEntry> cache = new HashMap<>();
+	/**
+	 * The cache holds strong refs to the keys and the underlying links but only
+	 * weak ones to the shared links handed out, so shared links that get GCed
+	 * without being closed are enqueued to {@link #collected} and their
+	 * underlying link gets closed.
+	 */
+	private static final ConcurrentMap<Object, CacheEntry> cache = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<Link> collected = new ReferenceQueue<>();
 	private static final LinkManager linkManager = LinkManager.getInstance();
 
 	private static final Alias defaultAlias = new Alias("default", regex(".*"));
@@ -92,25 +102,71 @@ public final class Links {
 
 	}
 
+	/**
+	 * A cache entry is created empty and the link is created by the thread that
+	 * inserted the entry, all other threads requesting the same key wait for
+	 * {@link #created}. A usage counter of <code>-1</code> marks an evicted entry
+	 * that must no longer be used.
+	 */
 	private static class CacheEntry {
 
-		private final Link link;
-		private int usageCounter;
+		private final Object key;
+		private final AtomicBoolean creationStarted = new AtomicBoolean();
+		private final CompletableFuture<Void> created = new CompletableFuture<>();
+		private final AtomicInteger usageCounter = new AtomicInteger();
+		private volatile Link link;
+		private volatile SharedLinkReference sharedLink;
+
+		private CacheEntry(Object key) {
+			this.key = key;
+		}
+
+		private boolean startCreation() {
+			return creationStarted.compareAndSet(false, true);
+		}
+
+		private boolean increaseUsageCounter() {
+			for (;;) {
+				int usages = usageCounter.get();
+				if (usages < 0) {
+					return false;
+				}
+				if (usageCounter.compareAndSet(usages, usages + 1)) {
+					return true;
+				}
+			}
+		}
 
-		private CacheEntry(Link link) {
-			this.link = link;
+		private boolean decreaseUsageCounter() {
+			for (;;) {
+				int usages = usageCounter.get();
+				if (usages <= 0) {
+					return false;
+				}
+				if (usageCounter.compareAndSet(usages, usages - 1)) {
+					return usages == 1 && usageCounter.compareAndSet(0, -1);
+				}
+			}
 		}
 
-		private Link getLink() {
-			return link;
+		private boolean markEvicted() {
+			return usageCounter.getAndSet(-1) >= 0;
 		}
 
-		private int increaseUsageCounter() {
-			return ++usageCounter;
+		private Link sharedLink() {
+			SharedLinkReference reference = sharedLink;
+			return reference == null ? null : reference.get();
 		}
 
-		private int decreaseUsageCounter() {
-			return --usageCounter;
+	}
+
+	private static class SharedLinkReference extends WeakReference<Link> {
+
+		private final CacheEntry cacheEntry;
+
+		private SharedLinkReference(Link sharedLink, CacheEntry cacheEntry) {
+			super(sharedLink, collected);
+			this.cacheEntry = cacheEntry;
 		}
 
 	}
@@ -207,27 +263,91 @@ public final class Links {
 		return uris.stream().anyMatch(u -> extractNameFromURI(u).equals(name));
 	}
 
+	/**
+	 * Returns a shared Link for the passed Configurer. Links are created outside of
+	 * any lock, so only threads requesting the same Link wait for its creation.
+	 * 
+	 * @param configurer the Configurer to create the Link with
+	 * @return shared Link for the passed Configurer
+	 */
 	public static Link getLink(Configurer configurer) {
+		expungeCollectedLinks();
 		Object cacheKey = configurer.uniqueIdentifier();
-		synchronized (cache) {
-			CacheEntry cacheEntry = cache.computeIfAbsent(cacheKey,
-					k -> new CacheEntry(newDelegate(k, configurer.newLink())));
-			cacheEntry.increaseUsageCounter();
-			return cacheEntry.getLink();
+		for (;;) {
+			CacheEntry cacheEntry = cache.computeIfAbsent(cacheKey, CacheEntry::new);
+			if (!cacheEntry.increaseUsageCounter()) {
+				cache.remove(cacheKey, cacheEntry);
+			} else if (cacheEntry.startCreation()) {
+				return createLink(cacheEntry, configurer);
+			} else {
+				awaitCreation(cacheEntry);
+				Link sharedLink = cacheEntry.sharedLink();
+				if (sharedLink != null) {
+					return sharedLink;
+				}
+				evict(cacheEntry);
+			}
+		}
+	}
+
+	private static Link createLink(CacheEntry cacheEntry, Configurer configurer) {
+		try {
+			Link link = configurer.newLink();
+			Link sharedLink = newDelegate(cacheEntry, link);
+			cacheEntry.link = link;
+			cacheEntry.sharedLink = new SharedLinkReference(sharedLink, cacheEntry);
+			cacheEntry.created.complete(null);
+			return sharedLink;
+		} catch (RuntimeException | Error e) {
+			cacheEntry.markEvicted();
+			cache.remove(cacheEntry.key, cacheEntry);
+			cacheEntry.created.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	private static void awaitCreation(CacheEntry cacheEntry) {
+		try {
+			cacheEntry.created.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	private static void evict(CacheEntry cacheEntry) {
+		if (cacheEntry.markEvicted()) {
+			cache.remove(cacheEntry.key, cacheEntry);
+			try {
+				cacheEntry.link.close();
+			} catch (IOException e) {
+				// nobody uses this link anymore so there is no one to report to
+			}
+		}
+	}
+
+	private static void expungeCollectedLinks() {
+		SharedLinkReference reference;
+		while ((reference = (SharedLinkReference) collected.poll()) != null) {
+			evict(reference.cacheEntry);
 		}
 	}
 
-	private static LinkDelegate newDelegate(Object cacheKey, Link link) {
+	private static LinkDelegate newDelegate(CacheEntry cacheEntry, Link link) {
 		return new LinkDelegate(link) {
 			@Override
 			public void close() throws IOException {
-				synchronized (cache) {
-					CacheEntry cacheEntry = cache.get(cacheKey);
-					if (cacheEntry != null && cacheEntry.decreaseUsageCounter() == 0) {
-						cache.remove(cacheKey);
-						super.close();
-					}
+				if (cacheEntry.decreaseUsageCounter()) {
+					cache.remove(cacheEntry.key, cacheEntry);
+					super.close();
 				}
+				expungeCollectedLinks();
 			}
 
 			private final Map<Pin, AtomicInteger> listenCounter = new ConcurrentHashMap<>();
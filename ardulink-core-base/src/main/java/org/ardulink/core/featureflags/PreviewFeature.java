@@ -44,6 +44,16 @@ public final class PreviewFeature {
 	 */
 	public static final String SERIAL_LINKS_BY_ID_ENABLED_PROPERTY_FEATURE = "with.serial.links.byid";
 
+	/**
+	 * To let {@link org.ardulink.core.proto.ardulink.ArdulinkProtocol2} decode
+	 * using the
+	 * {@link org.ardulink.core.proto.ardulink.ScratchBufferALPByteStreamProcessor}
+	 * set the system property
+	 * {@value #ALP_SCRATCH_BUFFER_PROCESSOR_ENABLED_PROPERTY_FEATURE} to any
+	 * non-empty value.
+	 */
+	public static final String ALP_SCRATCH_BUFFER_PROCESSOR_ENABLED_PROPERTY_FEATURE = "protocol.ardulink2.scratchbuffer.enabled";
+
 	private PreviewFeature() {
 		super();
 	}
@@ -56,4 +66,8 @@ public final class PreviewFeature {
 		return isPropertySet(SERIAL_LINKS_BY_ID_ENABLED_PROPERTY_FEATURE);
 	}
 
+	public static boolean isAlpScratchBufferProcessorFeatureEnabled() {
+		return isPropertySet(ALP_SCRATCH_BUFFER_PROCESSOR_ENABLED_PROPERTY_FEATURE);
+	}
+
 }
@@ -0,0 +1,150 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.framing;
+
+import static org.ardulink.core.framing.FrameWriter.COMPRESSED;
+import static org.ardulink.core.framing.FrameWriter.HEADER_LENGTH;
+import static org.ardulink.core.framing.FrameWriter.MAX_PAYLOAD_LENGTH;
+import static org.ardulink.util.Preconditions.checkNotNull;
+import static org.ardulink.util.Preconditions.checkState;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Decodes the frames written by {@link FrameWriter}. The bytes can be passed in
+ * arbitrary chunks, each decoded message is passed to the
+ * {@link MessageHandler}.<br>
+ * This class is <b>not</b> threadsafe.
+ *
+ */
+public final class FrameReader {
+
+	public interface MessageHandler {
+		void message(long id, byte[] bytes, int offset, int length) throws IOException;
+	}
+
+	private final MessageHandler handler;
+	private final byte[] header = new byte[HEADER_LENGTH];
+	private final byte[] frame = new byte[MAX_PAYLOAD_LENGTH];
+	private int headerLength;
+	private int frameLength;
+	private int position;
+	private Inflater inflater;
+	private byte[] inflated;
+	private long expectedId = 1;
+	private long missedMessages;
+
+	// position while parsing the messages of a frame
+	private int parsePosition;
+
+	public FrameReader(MessageHandler handler) {
+		this.handler = checkNotNull(handler, "handler must not be null");
+	}
+
+	/**
+	 * Returns the number of messages the sender did skip.
+	 * 
+	 * @return number of messages lost
+	 */
+	public long missedMessages() {
+		return missedMessages;
+	}
+
+	public void process(byte[] bytes, int offset, int length) throws IOException {
+		int end = offset + length;
+		while (offset < end) {
+			if (headerLength < HEADER_LENGTH) {
+				header[headerLength++] = bytes[offset++];
+				if (headerLength == HEADER_LENGTH) {
+					frameLength = ((header[0] & 0xFF) << 8) | (header[1] & 0xFF);
+					position = 0;
+				}
+			} else {
+				int n = Math.min(end - offset, frameLength - position);
+				System.arraycopy(bytes, offset, frame, position, n);
+				position += n;
+				offset += n;
+			}
+			if (headerLength == HEADER_LENGTH && position == frameLength) {
+				frameComplete();
+			}
+		}
+	}
+
+	private void frameComplete() throws IOException {
+		headerLength = 0;
+		if ((header[2] & COMPRESSED) == 0) {
+			messages(frame, frameLength);
+		} else {
+			messages(inflated(), inflater.getTotalOut());
+		}
+	}
+
+	private byte[] inflated() throws IOException {
+		if (inflater == null) {
+			inflater = new Inflater(true);
+			inflated = new byte[MAX_PAYLOAD_LENGTH];
+		}
+		inflater.reset();
+		inflater.setInput(frame, 0, frameLength);
+		try {
+			inflater.inflate(inflated);
+		} catch (DataFormatException e) {
+			throw new IOException("Cannot inflate frame", e);
+		}
+		checkState(inflater.finished(), "Inflated frame exceeds %s bytes", MAX_PAYLOAD_LENGTH);
+		return inflated;
+	}
+
+	private void messages(byte[] payload, int length) throws IOException {
+		parsePosition = 0;
+		while (parsePosition < length) {
+			long id = readVarint(payload, length);
+			int messageLength = (int) readVarint(payload, length);
+			checkState(parsePosition + messageLength <= length, "Message %s exceeds frame", id);
+			if (id > expectedId) {
+				missedMessages += id - expectedId;
+			}
+			expectedId = id + 1;
+			handler.message(id, payload, parsePosition, messageLength);
+			parsePosition += messageLength;
+		}
+	}
+
+	private long readVarint(byte[] payload, int length) {
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			checkState(parsePosition < length, "Truncated varint");
+			byte b = payload[parsePosition++];
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalStateException("Malformed varint");
+	}
+
+}
@@ -0,0 +1,172 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.framing;
+
+import static org.ardulink.util.Preconditions.checkArgument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Batches messages into length prefixed binary frames:
+ * 
+ * <pre>
+ * frame   := length (2 bytes, big endian) flags (1 byte) payload
+ * payload := message* (deflated if flags has {@value #COMPRESSED} set)
+ * message := id (varint) length (varint) bytes
+ * </pre>
+ * 
+ * Each message gets the next id so the receiver can detect lost messages. The
+ * payload of a frame is compressed only if it is at least
+ * {@value #COMPRESSION_THRESHOLD} bytes long and compressing makes it
+ * smaller.<br>
+ * This class is <b>not</b> threadsafe.
+ *
+ */
+public final class FrameWriter {
+
+	public static final int HEADER_LENGTH = 3;
+	public static final int MAX_PAYLOAD_LENGTH = 0xFFFF;
+	public static final int COMPRESSED = 0x01;
+	public static final int COMPRESSION_THRESHOLD = 64;
+
+	private static final int MAX_MESSAGE_HEADER_LENGTH = 2 * 10;
+
+	private final boolean compress;
+	private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+	private Deflater deflater;
+	private byte[] compressed;
+	private long nextId = 1;
+
+	public FrameWriter(boolean compress) {
+		this.compress = compress;
+	}
+
+	/**
+	 * Adds a message to the current frame. Messages not fitting into one frame
+	 * are split into several messages.
+	 * 
+	 * @param bytes  the message's bytes
+	 * @param offset the start offset of the message
+	 * @param length the length of the message
+	 */
+	public void add(byte[] bytes, int offset, int length) {
+		checkArgument(length >= 0, "length must not be negative but was %s", length);
+		do {
+			if (payload.size() + MAX_MESSAGE_HEADER_LENGTH + Math.min(length, 1) > MAX_PAYLOAD_LENGTH) {
+				completeFrame();
+			}
+			int chunk = Math.min(length, MAX_PAYLOAD_LENGTH - MAX_MESSAGE_HEADER_LENGTH - payload.size());
+			writeVarint(payload, nextId++);
+			writeVarint(payload, chunk);
+			payload.write(bytes, offset, chunk);
+			offset += chunk;
+			length -= chunk;
+		} while (length > 0);
+	}
+
+	/**
+	 * Skips the passed number of message ids so the receiver sees that messages
+	 * were lost (e.g. dropped for a slow consumer).
+	 * 
+	 * @param count the number of ids to skip
+	 */
+	public void skip(long count) {
+		checkArgument(count >= 0, "count must not be negative but was %s", count);
+		nextId += count;
+	}
+
+	public boolean isEmpty() {
+		return payload.size() == 0 && frames.size() == 0;
+	}
+
+	/**
+	 * Writes all complete frames and the current frame to the passed
+	 * {@link OutputStream}.
+	 * 
+	 * @param outputStream the stream to write the frames to
+	 * @throws IOException if writing fails
+	 */
+	public void writeTo(OutputStream outputStream) throws IOException {
+		completeFrame();
+		frames.writeTo(outputStream);
+		frames.reset();
+	}
+
+	/**
+	 * Returns all complete frames and the current frame.
+	 * 
+	 * @return the frames' bytes
+	 */
+	public byte[] toByteArray() {
+		completeFrame();
+		byte[] bytes = frames.toByteArray();
+		frames.reset();
+		return bytes;
+	}
+
+	private void completeFrame() {
+		int length = payload.size();
+		if (length == 0) {
+			return;
+		}
+		int compressedLength = compress && length >= COMPRESSION_THRESHOLD ? deflate() : length;
+		boolean isCompressed = compressedLength < length;
+		int frameLength = isCompressed ? compressedLength : length;
+		frames.write(frameLength >>> 8);
+		frames.write(frameLength);
+		frames.write(isCompressed ? COMPRESSED : 0);
+		if (isCompressed) {
+			frames.write(compressed, 0, compressedLength);
+		} else {
+			frames.write(payload.toByteArray(), 0, length);
+		}
+		payload.reset();
+	}
+
+	private int deflate() {
+		if (deflater == null) {
+			deflater = new Deflater(Deflater.BEST_SPEED, true);
+			compressed = new byte[MAX_PAYLOAD_LENGTH];
+		}
+		deflater.reset();
+		byte[] uncompressed = payload.toByteArray();
+		deflater.setInput(uncompressed);
+		deflater.finish();
+		int length = deflater.deflate(compressed, 0, uncompressed.length - 1);
+		return deflater.finished() ? length : uncompressed.length;
+	}
+
+	static void writeVarint(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+}
@@ -0,0 +1,108 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.framing;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Reads binary frames (see {@link FrameWriter}) and returns the bytes of the
+ * contained messages.
+ *
+ */
+public class FramedInputStream extends FilterInputStream {
+
+	private final byte[] readBuffer = new byte[1024];
+	private final FrameReader frameReader = new FrameReader(this::append);
+	private byte[] decoded = new byte[1024];
+	private int decodedStart;
+	private int decodedEnd;
+
+	public FramedInputStream(InputStream in) {
+		super(in);
+	}
+
+	private void append(long id, byte[] bytes, int offset, int length) {
+		if (decodedEnd + length > decoded.length) {
+			decoded = Arrays.copyOf(decoded, Math.max(decoded.length * 2, decodedEnd + length));
+		}
+		System.arraycopy(bytes, offset, decoded, decodedEnd, length);
+		decodedEnd += length;
+	}
+
+	/**
+	 * Returns the number of messages the sender did skip.
+	 * 
+	 * @return number of messages lost
+	 */
+	public long missedMessages() {
+		return frameReader.missedMessages();
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		while (decodedStart == decodedEnd) {
+			decodedStart = 0;
+			decodedEnd = 0;
+			int read = in.read(readBuffer);
+			if (read < 0) {
+				return -1;
+			}
+			frameReader.process(readBuffer, 0, read);
+		}
+		int n = Math.min(length, decodedEnd - decodedStart);
+		System.arraycopy(decoded, decodedStart, bytes, offset, n);
+		decodedStart += n;
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return decodedEnd - decodedStart;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = Math.min(n, available());
+		decodedStart += (int) skipped;
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+}
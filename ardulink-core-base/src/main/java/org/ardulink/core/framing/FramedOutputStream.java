@@ -0,0 +1,102 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.framing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Writes the bytes as binary frames (see {@link FrameWriter}). Each
+ * newline-terminated line is one message, all messages written between two
+ * calls to {@link #flush()} are batched into as few frames as possible. An
+ * unterminated line is sent as a message of its own on flush.
+ *
+ */
+public class FramedOutputStream extends FilterOutputStream {
+
+	private static final byte SEPARATOR = '\n';
+
+	private final FrameWriter frameWriter;
+	private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+
+	public FramedOutputStream(OutputStream out, boolean compress) {
+		super(out);
+		this.frameWriter = new FrameWriter(compress);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		int start = offset;
+		int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			if (bytes[i] == SEPARATOR) {
+				addLine(bytes, start, i + 1 - start);
+				start = i + 1;
+			}
+		}
+		partialLine.write(bytes, start, end - start);
+	}
+
+	private void addLine(byte[] bytes, int offset, int length) {
+		if (partialLine.size() == 0) {
+			frameWriter.add(bytes, offset, length);
+		} else {
+			partialLine.write(bytes, offset, length);
+			addPartialLine();
+		}
+	}
+
+	private void addPartialLine() {
+		frameWriter.add(partialLine.toByteArray(), 0, partialLine.size());
+		partialLine.reset();
+	}
+
+	/**
+	 * Skips the passed number of message ids, see {@link FrameWriter#skip(long)}.
+	 * 
+	 * @param count the number of ids to skip
+	 */
+	public void skip(long count) {
+		frameWriter.skip(count);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (partialLine.size() > 0) {
+			addPartialLine();
+		}
+		if (!frameWriter.isEmpty()) {
+			frameWriter.writeTo(out);
+		}
+		out.flush();
+	}
+
+}
@@ -0,0 +1,76 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.framing;
+
+import java.util.Arrays;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * How the data exchanged after a successful connect is framed. The client
+ * requests the framing during the handshake, servers not knowing the request
+ * ignore it and the connection falls back to {@link #RAW}.
+ *
+ */
+public enum ProxyFraming {
+
+	/**
+	 * Unframed byte relay, the only mode known by older servers.
+	 */
+	RAW(false, false),
+	/**
+	 * Length prefixed binary frames, see {@link FrameWriter}.
+	 */
+	BINARY(true, false),
+	/**
+	 * Length prefixed binary frames whose payload may be compressed.
+	 */
+	BINARY_COMPRESSED(true, true);
+
+	private final boolean binary;
+	private final boolean compressed;
+
+	private ProxyFraming(boolean binary, boolean compressed) {
+		this.binary = binary;
+		this.compressed = compressed;
+	}
+
+	public boolean isBinary() {
+		return binary;
+	}
+
+	public boolean isCompressed() {
+		return compressed;
+	}
+
+	/**
+	 * Returns the framing with the passed name or {@link #RAW} if there is no
+	 * framing with that name.
+	 * 
+	 * @param name the name of the framing
+	 * @return the framing with the passed name or {@link #RAW}
+	 */
+	public static ProxyFraming framingWithName(String name) {
+		return Arrays.stream(values()).filter(f -> f.name().equals(name)).findFirst().orElse(RAW);
+	}
+
+}
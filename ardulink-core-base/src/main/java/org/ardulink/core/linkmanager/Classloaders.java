@@ -42,7 +42,11 @@ public final class Classloaders {
 
 	public static ClassLoader moduleClassloader() {
 		ClassLoader parent = Thread.currentThread().getContextClassLoader();
-		return new ModuleClassLoader(parent, systemProperty("ardulink.module.dir").orElse("."));
+		return new ModuleClassLoader(parent, moduleDir());
+	}
+
+	public static String moduleDir() {
+		return systemProperty("ardulink.module.dir").orElse(".");
 	}
 
 	public static Collection<URL> getResources(ClassLoader classloader, String name) throws IOException {
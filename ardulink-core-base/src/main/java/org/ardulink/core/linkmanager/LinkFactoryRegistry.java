@@ -0,0 +1,159 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.linkmanager;
+
+import static java.util.Collections.unmodifiableList;
+import static org.ardulink.core.linkmanager.Classloaders.moduleClassloader;
+import static org.ardulink.core.linkmanager.Classloaders.moduleDir;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.ServiceLoader.Provider;
+import java.util.WeakHashMap;
+import java.util.stream.Stream;
+
+import org.ardulink.core.linkmanager.LinkFactory.Alias;
+import org.ardulink.core.linkmanager.providers.LinkFactoriesProvider;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * The {@link LinkFactory}s found via the {@link LinkFactoriesProvider}s of the
+ * module classloader, indexed by name and {@link Alias}. Since factories can be
+ * (de)activated at any time {@link LinkFactory#isActive()} is checked on each
+ * lookup. The registries are cached per context classloader, see
+ * {@link #forContextClassLoader()}.
+ *
+ */
+final class LinkFactoryRegistry {
+
+	/**
+	 * The factories reference the classloader they were loaded by, so the
+	 * registries are softly referenced to not keep the classloaders from being
+	 * collected.
+	 */
+	private static final Map<ClassLoader, SoftReference<LinkFactoryRegistry>> registries = new WeakHashMap<>();
+
+	private final String moduleDir;
+	private final List<LinkFactory> factories;
+	private final Map<String, List<LinkFactory>> byName = new HashMap<>();
+	private final Map<String, List<LinkFactory>> byAlias = new HashMap<>();
+
+	private LinkFactoryRegistry(String moduleDir, List<LinkFactory> factories) {
+		this.moduleDir = moduleDir;
+		this.factories = unmodifiableList(factories);
+		for (LinkFactory factory : factories) {
+			add(byName, factory.getName(), factory);
+			Alias alias = factory.getClass().getAnnotation(Alias.class);
+			if (alias != null) {
+				for (String name : alias.value()) {
+					add(byAlias, name, factory);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the registry of the current context classloader, it gets loaded if
+	 * there is none yet or the module directory did change.
+	 * 
+	 * @return the registry of the current context classloader
+	 */
+	static LinkFactoryRegistry forContextClassLoader() {
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		String moduleDir = moduleDir();
+		synchronized (registries) {
+			SoftReference<LinkFactoryRegistry> reference = registries.get(contextClassLoader);
+			LinkFactoryRegistry registry = reference == null ? null : reference.get();
+			return registry == null || !Objects.equals(registry.moduleDir, moduleDir)
+					? load(contextClassLoader, moduleDir)
+					: registry;
+		}
+	}
+
+	/**
+	 * Drops the registries of all context classloaders and loads the one of the
+	 * current context classloader again, the others get loaded again on their next
+	 * use.
+	 */
+	static void reload() {
+		synchronized (registries) {
+			registries.clear();
+			load(Thread.currentThread().getContextClassLoader(), moduleDir());
+		}
+	}
+
+	/**
+	 * Loads the registry and caches it, the caller has to hold the lock of
+	 * {@link #registries}.
+	 */
+	private static LinkFactoryRegistry load(ClassLoader contextClassLoader, String moduleDir) {
+		List<LinkFactory> factories = new ArrayList<>();
+		ServiceLoader.load(LinkFactoriesProvider.class, moduleClassloader()).stream() //
+				.map(Provider::get) //
+				.map(LinkFactoriesProvider::loadLinkFactories) //
+				.flatMap(Collection::stream) //
+				.forEach(factories::add);
+		LinkFactoryRegistry registry = new LinkFactoryRegistry(moduleDir, factories);
+		registries.put(contextClassLoader, new SoftReference<>(registry));
+		return registry;
+	}
+
+	private static void add(Map<String, List<LinkFactory>> index, String name, LinkFactory factory) {
+		index.computeIfAbsent(name, k -> new ArrayList<>(1)).add(factory);
+	}
+
+	Stream<LinkFactory> activeFactories() {
+		return factories.stream().filter(LinkFactory::isActive);
+	}
+
+	/**
+	 * Returns the active factory with the passed name, if there is none the active
+	 * factory having an alias with the passed name.
+	 * 
+	 * @param name the name or alias of the factory
+	 * @return the factory, empty if there is none
+	 */
+	Optional<LinkFactory> get(String name) {
+		return firstActive(byName, name).or(() -> firstActive(byAlias, name));
+	}
+
+	private static Optional<LinkFactory> firstActive(Map<String, List<LinkFactory>> index, String name) {
+		List<LinkFactory> candidates = index.get(name);
+		if (candidates != null) {
+			for (LinkFactory candidate : candidates) {
+				if (candidate.isActive()) {
+					return Optional.of(candidate);
+				}
+			}
+		}
+		return Optional.empty();
+	}
+
+}
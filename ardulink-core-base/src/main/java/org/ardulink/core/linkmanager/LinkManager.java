@@ -27,7 +27,6 @@ import static java.util.function.Predicate.not;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toUnmodifiableMap;
 import static org.ardulink.core.beans.finder.api.AttributeFinders.propertyAnnotated;
-import static org.ardulink.core.linkmanager.Classloaders.moduleClassloader;
 import static org.ardulink.util.Enums.enumWithName;
 import static org.ardulink.util.Maps.entry;
 import static org.ardulink.util.Numbers.convertTo;
@@ -55,9 +54,6 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
-import java.util.ServiceLoader;
-import java.util.ServiceLoader.Provider;
-import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -76,8 +72,6 @@ import org.ardulink.core.beans.BeanProperties.DefaultAttribute;
 import org.ardulink.core.linkmanager.LinkConfig.ChoiceFor;
 import org.ardulink.core.linkmanager.LinkConfig.I18n;
 import org.ardulink.core.linkmanager.LinkConfig.Named;
-import org.ardulink.core.linkmanager.LinkFactory.Alias;
-import org.ardulink.core.linkmanager.providers.LinkFactoriesProvider;
 import org.ardulink.util.Numbers;
 import org.ardulink.util.anno.LapsedWith;
 
@@ -600,38 +594,21 @@ public abstract class LinkManager {
 
 		@Override
 		public List<URI> listURIs() {
-			return getLinkFactories().map(f -> create(format("%s://%s", ARDULINK_SCHEME, f.getName())))
-					.collect(toList());
+			return registry().activeFactories()
+					.map(f -> create(format("%s://%s", ARDULINK_SCHEME, f.getName()))).collect(toList());
 		}
 
 		private Optional<LinkFactory> getLinkFactory(String name) {
-			List<LinkFactory> connectionFactories = getLinkFactories().collect(toList());
-			BiFunction<String, List<LinkFactory>, Optional<LinkFactory>> function1 = (t, u) -> getByName(t, u);
-			BiFunction<String, List<LinkFactory>, Optional<LinkFactory>> function2 = (t, u) -> getByAlias(t, u);
-			return Stream.of(function1, function2) //
-					.flatMap(f -> f.apply(name, connectionFactories).stream()) //
-					.findFirst();
+			return registry().get(name);
 		}
 
-		private Optional<LinkFactory> getByName(String name, List<LinkFactory> connectionFactories) {
-			return connectionFactories.stream().filter(attribute(LinkFactory::getName, isEqual(name))).findFirst();
+		private LinkFactoryRegistry registry() {
+			return LinkFactoryRegistry.forContextClassLoader();
 		}
 
-		private Optional<LinkFactory> getByAlias(String name, List<LinkFactory> connectionFactories) {
-			return connectionFactories.stream().filter(f -> hasAliasNamed(name, f)).findFirst();
-		}
-
-		private boolean hasAliasNamed(String name, LinkFactory factory) {
-			Alias alias = factory.getClass().getAnnotation(LinkFactory.Alias.class);
-			return alias != null && asList(alias.value()).contains(name);
-		}
-
-		private Stream<LinkFactory> getLinkFactories() {
-			return ServiceLoader.load(LinkFactoriesProvider.class, moduleClassloader()).stream() //
-					.map(Provider::get) //
-					.map(LinkFactoriesProvider::loadLinkFactories) //
-					.flatMap(Collection::stream) //
-					.filter(LinkFactory::isActive);
+		@Override
+		public void reloadLinkFactories() {
+			LinkFactoryRegistry.reload();
 		}
 
 		@Override
@@ -706,6 +683,17 @@ public abstract class LinkManager {
 	 */
 	public abstract Configurer getConfigurer(URI uri);
 
+	/**
+	 * The {@link LinkFactory}s are discovered once per context classloader and then
+	 * cached (as long as the module directory does not change). Call this method to
+	 * discover them again, e.g. after modules have been added to the module
+	 * directory. Does nothing by default, for implementations not caching the
+	 * factories.
+	 */
+	public void reloadLinkFactories() {
+		// noop
+	}
+
 	/**
 	 * List all available (registered) URIs. Can be empty if no factory is
 	 * registered but never is <code>null</code>.
@@ -18,6 +18,8 @@ package org.ardulink.core.messages.impl;
 import static java.lang.String.join;
 
 import org.ardulink.core.messages.api.ToDeviceMessageCustom;
+import org.ardulink.core.proto.api.MessageIdAppendable;
+import org.ardulink.core.proto.api.MessageIdHolder;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -27,7 +29,8 @@ import org.ardulink.core.messages.api.ToDeviceMessageCustom;
  * [adsense]
  *
  */
-public class DefaultToDeviceMessageCustom implements ToDeviceMessageCustom {
+public class DefaultToDeviceMessageCustom
+		implements ToDeviceMessageCustom, MessageIdAppendable<ToDeviceMessageCustom> {
 
 	public static ToDeviceMessageCustom toDeviceMessageCustom(String... messages) {
 		return new DefaultToDeviceMessageCustom(messages);
@@ -44,6 +47,27 @@ public class DefaultToDeviceMessageCustom implements ToDeviceMessageCustom {
 		return messages.clone();
 	}
 
+	private static class WithMessageId extends DefaultToDeviceMessageCustom implements MessageIdHolder {
+
+		private final long messageId;
+
+		private WithMessageId(String[] messages, long messageId) {
+			super(messages);
+			this.messageId = messageId;
+		}
+
+		@Override
+		public long getId() {
+			return messageId;
+		}
+
+	}
+
+	@Override
+	public ToDeviceMessageCustom withMessageId(long messageId) {
+		return new WithMessageId(messages, messageId);
+	}
+
 	@Override
 	public String toString() {
 		return join(" ", messages);
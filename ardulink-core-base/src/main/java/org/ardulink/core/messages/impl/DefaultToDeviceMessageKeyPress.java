@@ -17,6 +17,8 @@ limitations under the License.
 package org.ardulink.core.messages.impl;
 
 import org.ardulink.core.messages.api.ToDeviceMessageKeyPress;
+import org.ardulink.core.proto.api.MessageIdAppendable;
+import org.ardulink.core.proto.api.MessageIdHolder;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -26,7 +28,8 @@ import org.ardulink.core.messages.api.ToDeviceMessageKeyPress;
  * [adsense]
  *
  */
-public class DefaultToDeviceMessageKeyPress implements ToDeviceMessageKeyPress {
+public class DefaultToDeviceMessageKeyPress
+		implements ToDeviceMessageKeyPress, MessageIdAppendable<ToDeviceMessageKeyPress> {
 
 	public static ToDeviceMessageKeyPress toDeviceMessageKeyPress(char keychar, int keycode, int keylocation,
 			int keymodifiers, int keymodifiersex) {
@@ -73,4 +76,26 @@ public class DefaultToDeviceMessageKeyPress implements ToDeviceMessageKeyPress {
 		return keymodifiersex;
 	}
 
+	private static class WithMessageId extends DefaultToDeviceMessageKeyPress implements MessageIdHolder {
+
+		private final long messageId;
+
+		private WithMessageId(char keychar, int keycode, int keylocation, int keymodifiers, int keymodifiersex,
+				long messageId) {
+			super(keychar, keycode, keylocation, keymodifiers, keymodifiersex);
+			this.messageId = messageId;
+		}
+
+		@Override
+		public long getId() {
+			return messageId;
+		}
+
+	}
+
+	@Override
+	public ToDeviceMessageKeyPress withMessageId(long messageId) {
+		return new WithMessageId(keychar, keycode, keylocation, keymodifiers, keymodifiersex, messageId);
+	}
+
 }
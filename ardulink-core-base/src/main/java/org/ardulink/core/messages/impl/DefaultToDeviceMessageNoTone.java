@@ -18,6 +18,8 @@ package org.ardulink.core.messages.impl;
 
 import org.ardulink.core.Pin.AnalogPin;
 import org.ardulink.core.messages.api.ToDeviceMessageNoTone;
+import org.ardulink.core.proto.api.MessageIdAppendable;
+import org.ardulink.core.proto.api.MessageIdHolder;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -27,7 +29,7 @@ import org.ardulink.core.messages.api.ToDeviceMessageNoTone;
  * [adsense]
  *
  */
-public class DefaultToDeviceMessageNoTone implements ToDeviceMessageNoTone {
+public class DefaultToDeviceMessageNoTone implements ToDeviceMessageNoTone, MessageIdAppendable<ToDeviceMessageNoTone> {
 
 	public static ToDeviceMessageNoTone toDeviceMessageNoTone(AnalogPin analogPin) {
 		return new DefaultToDeviceMessageNoTone(analogPin);
@@ -44,4 +46,25 @@ public class DefaultToDeviceMessageNoTone implements ToDeviceMessageNoTone {
 		return analogPin;
 	}
 
+	private static class WithMessageId extends DefaultToDeviceMessageNoTone implements MessageIdHolder {
+
+		private final long messageId;
+
+		private WithMessageId(AnalogPin analogPin, long messageId) {
+			super(analogPin);
+			this.messageId = messageId;
+		}
+
+		@Override
+		public long getId() {
+			return messageId;
+		}
+
+	}
+
+	@Override
+	public ToDeviceMessageNoTone withMessageId(long messageId) {
+		return new WithMessageId(analogPin, messageId);
+	}
+
 }
@@ -20,6 +20,8 @@ import org.ardulink.core.Pin;
 import org.ardulink.core.Pin.AnalogPin;
 import org.ardulink.core.Pin.DigitalPin;
 import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.ardulink.core.proto.api.MessageIdAppendable;
+import org.ardulink.core.proto.api.MessageIdHolder;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -29,7 +31,8 @@ import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
  * [adsense]
  *
  */
-public class DefaultToDeviceMessagePinStateChange implements ToDeviceMessagePinStateChange {
+public class DefaultToDeviceMessagePinStateChange
+		implements ToDeviceMessagePinStateChange, MessageIdAppendable<ToDeviceMessagePinStateChange> {
 
 	public static ToDeviceMessagePinStateChange toDeviceMessagePinStateChange(AnalogPin pin, int value) {
 		return new DefaultToDeviceMessagePinStateChange(pin, value);
@@ -52,6 +55,11 @@ public class DefaultToDeviceMessagePinStateChange implements ToDeviceMessagePinS
 		this.value = value;
 	}
 
+	private DefaultToDeviceMessagePinStateChange(Pin pin, Object value) {
+		this.pin = pin;
+		this.value = value;
+	}
+
 	@Override
 	public Pin getPin() {
 		return pin;
@@ -62,4 +70,25 @@ public class DefaultToDeviceMessagePinStateChange implements ToDeviceMessagePinS
 		return value;
 	}
 
+	private static class WithMessageId extends DefaultToDeviceMessagePinStateChange implements MessageIdHolder {
+
+		private final long messageId;
+
+		private WithMessageId(Pin pin, Object value, long messageId) {
+			super(pin, value);
+			this.messageId = messageId;
+		}
+
+		@Override
+		public long getId() {
+			return messageId;
+		}
+
+	}
+
+	@Override
+	public ToDeviceMessagePinStateChange withMessageId(long messageId) {
+		return new WithMessageId(pin, value, messageId);
+	}
+
 }
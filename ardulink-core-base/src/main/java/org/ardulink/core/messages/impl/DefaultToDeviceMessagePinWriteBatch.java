@@ -0,0 +1,71 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+ 
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+ 
+    http://www.apache.org/licenses/LICENSE-2.0
+ 
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.core.messages.impl;
+
+import org.ardulink.core.PinWriteBatch;
+import org.ardulink.core.messages.api.ToDeviceMessagePinWriteBatch;
+import org.ardulink.core.proto.api.MessageIdAppendable;
+import org.ardulink.core.proto.api.MessageIdHolder;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+public class DefaultToDeviceMessagePinWriteBatch
+		implements ToDeviceMessagePinWriteBatch, MessageIdAppendable<ToDeviceMessagePinWriteBatch> {
+
+	public static ToDeviceMessagePinWriteBatch toDeviceMessagePinWriteBatch(PinWriteBatch batch) {
+		return new DefaultToDeviceMessagePinWriteBatch(batch);
+	}
+
+	private final PinWriteBatch batch;
+
+	public DefaultToDeviceMessagePinWriteBatch(PinWriteBatch batch) {
+		this.batch = batch;
+	}
+
+	@Override
+	public PinWriteBatch getBatch() {
+		return batch;
+	}
+
+	private static class WithMessageId extends DefaultToDeviceMessagePinWriteBatch implements MessageIdHolder {
+
+		private final long messageId;
+
+		private WithMessageId(PinWriteBatch batch, long messageId) {
+			super(batch);
+			this.messageId = messageId;
+		}
+
+		@Override
+		public long getId() {
+			return messageId;
+		}
+
+	}
+
+	@Override
+	public ToDeviceMessagePinWriteBatch withMessageId(long messageId) {
+		return new WithMessageId(batch, messageId);
+	}
+
+}
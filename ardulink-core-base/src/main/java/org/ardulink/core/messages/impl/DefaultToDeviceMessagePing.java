@@ -17,6 +17,8 @@ limitations under the License.
 package org.ardulink.core.messages.impl;
 
 import org.ardulink.core.messages.api.ToDeviceMessagePing;
+import org.ardulink.core.proto.api.MessageIdAppendable;
+import org.ardulink.core.proto.api.MessageIdHolder;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -26,7 +28,7 @@ import org.ardulink.core.messages.api.ToDeviceMessagePing;
  * [adsense]
  *
  */
-public class DefaultToDeviceMessagePing implements ToDeviceMessagePing {
+public class DefaultToDeviceMessagePing implements ToDeviceMessagePing, MessageIdAppendable<ToDeviceMessagePing> {
 
 	private static final DefaultToDeviceMessagePing instance = new DefaultToDeviceMessagePing();
 
@@ -34,4 +36,24 @@ public class DefaultToDeviceMessagePing implements ToDeviceMessagePing {
 		return instance;
 	}
 
+	private static class WithMessageId extends DefaultToDeviceMessagePing implements MessageIdHolder {
+
+		private final long messageId;
+
+		private WithMessageId(long messageId) {
+			this.messageId = messageId;
+		}
+
+		@Override
+		public long getId() {
+			return messageId;
+		}
+
+	}
+
+	@Override
+	public ToDeviceMessagePing withMessageId(long messageId) {
+		return new WithMessageId(messageId);
+	}
+
 }
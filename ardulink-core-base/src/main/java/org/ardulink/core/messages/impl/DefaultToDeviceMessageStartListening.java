@@ -18,6 +18,8 @@ package org.ardulink.core.messages.impl;
 
 import org.ardulink.core.Pin;
 import org.ardulink.core.messages.api.ToDeviceMessageStartListening;
+import org.ardulink.core.proto.api.MessageIdAppendable;
+import org.ardulink.core.proto.api.MessageIdHolder;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -27,7 +29,7 @@ import org.ardulink.core.messages.api.ToDeviceMessageStartListening;
  * [adsense]
  *
  */
-public class DefaultToDeviceMessageStartListening implements ToDeviceMessageStartListening {
+public class DefaultToDeviceMessageStartListening implements ToDeviceMessageStartListening, MessageIdAppendable<ToDeviceMessageStartListening> {
 
 	public static ToDeviceMessageStartListening toDeviceMessageStartListening(Pin pin) {
 		return new DefaultToDeviceMessageStartListening(pin);
@@ -44,4 +46,25 @@ public class DefaultToDeviceMessageStartListening implements ToDeviceMessageStar
 		return pin;
 	}
 
+	private static class WithMessageId extends DefaultToDeviceMessageStartListening implements MessageIdHolder {
+
+		private final long messageId;
+
+		private WithMessageId(Pin pin, long messageId) {
+			super(pin);
+			this.messageId = messageId;
+		}
+
+		@Override
+		public long getId() {
+			return messageId;
+		}
+
+	}
+
+	@Override
+	public ToDeviceMessageStartListening withMessageId(long messageId) {
+		return new WithMessageId(pin, messageId);
+	}
+
 }
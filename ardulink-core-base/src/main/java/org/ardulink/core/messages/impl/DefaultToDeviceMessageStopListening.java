@@ -18,6 +18,8 @@ package org.ardulink.core.messages.impl;
 
 import org.ardulink.core.Pin;
 import org.ardulink.core.messages.api.ToDeviceMessageStopListening;
+import org.ardulink.core.proto.api.MessageIdAppendable;
+import org.ardulink.core.proto.api.MessageIdHolder;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -27,7 +29,7 @@ import org.ardulink.core.messages.api.ToDeviceMessageStopListening;
  * [adsense]
  *
  */
-public class DefaultToDeviceMessageStopListening implements ToDeviceMessageStopListening {
+public class DefaultToDeviceMessageStopListening implements ToDeviceMessageStopListening, MessageIdAppendable<ToDeviceMessageStopListening> {
 
 	public static DefaultToDeviceMessageStopListening toDeviceMessageStopListening(Pin pin) {
 		return new DefaultToDeviceMessageStopListening(pin);
@@ -44,4 +46,25 @@ public class DefaultToDeviceMessageStopListening implements ToDeviceMessageStopL
 		return pin;
 	}
 
+	private static class WithMessageId extends DefaultToDeviceMessageStopListening implements MessageIdHolder {
+
+		private final long messageId;
+
+		private WithMessageId(Pin pin, long messageId) {
+			super(pin);
+			this.messageId = messageId;
+		}
+
+		@Override
+		public long getId() {
+			return messageId;
+		}
+
+	}
+
+	@Override
+	public ToDeviceMessageStopListening withMessageId(long messageId) {
+		return new WithMessageId(pin, messageId);
+	}
+
 }
@@ -18,6 +18,8 @@ package org.ardulink.core.messages.impl;
 
 import org.ardulink.core.Tone;
 import org.ardulink.core.messages.api.ToDeviceMessageTone;
+import org.ardulink.core.proto.api.MessageIdAppendable;
+import org.ardulink.core.proto.api.MessageIdHolder;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -27,7 +29,7 @@ import org.ardulink.core.messages.api.ToDeviceMessageTone;
  * [adsense]
  *
  */
-public class DefaultToDeviceMessageTone implements ToDeviceMessageTone {
+public class DefaultToDeviceMessageTone implements ToDeviceMessageTone, MessageIdAppendable<ToDeviceMessageTone> {
 
 	public static ToDeviceMessageTone toDeviceMessageTone(Tone tone) {
 		return new DefaultToDeviceMessageTone(tone);
@@ -44,4 +46,25 @@ public class DefaultToDeviceMessageTone implements ToDeviceMessageTone {
 		return tone;
 	}
 
+	private static class WithMessageId extends DefaultToDeviceMessageTone implements MessageIdHolder {
+
+		private final long messageId;
+
+		private WithMessageId(Tone tone, long messageId) {
+			super(tone);
+			this.messageId = messageId;
+		}
+
+		@Override
+		public long getId() {
+			return messageId;
+		}
+
+	}
+
+	@Override
+	public ToDeviceMessageTone withMessageId(long messageId) {
+		return new WithMessageId(tone, messageId);
+	}
+
 }
@@ -0,0 +1,45 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+ 
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+ 
+    http://www.apache.org/licenses/LICENSE-2.0
+ 
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.proto.api;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Messages implementing this interface know how to create a copy of themselves
+ * that carries a message id. This way {@link MessageIdHolders#addMessageId}
+ * does not need to create a dynamic proxy for them.
+ *
+ * @param <T> the message type returned
+ */
+public interface MessageIdAppendable<T> {
+
+	/**
+	 * Returns a copy of this message that additionally implements
+	 * {@link MessageIdHolder}.
+	 * 
+	 * @param messageId the messageId to return when
+	 *                  {@link MessageIdHolder#getId()} is called
+	 * @return copy of this message implementing {@link MessageIdHolder}
+	 */
+	T withMessageId(long messageId);
+
+}
@@ -23,7 +23,6 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.Optional;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -76,6 +75,29 @@ public final class MessageIdHolders {
 		}
 	}
 
+	/**
+	 * Returns a message implementing MessageIdHolder. Calls to
+	 * {@link MessageIdHolder#getId()} will return the passed
+	 * <code>messageId</code>. If <code>delegateTo</code> is a
+	 * {@link MessageIdAppendable} the copy created by
+	 * {@link MessageIdAppendable#withMessageId(long)} is returned, otherwise a
+	 * dynamic proxy is created which forwards all other calls to the passed
+	 * <code>delegateTo</code>.
+	 * 
+	 * @param delegateTo the instance to delegate all calls except
+	 *                   {@link MessageIdHolder#getId()}
+	 * @param messageId  the messageId to return when
+	 *                   {@link MessageIdHolder#getId()} is called
+	 * @return message implementing {@link MessageIdHolder}
+	 * @see #proxyWithMessageId(Object, long)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T addMessageId(T delegateTo, long messageId) {
+		return delegateTo instanceof MessageIdAppendable
+				? (T) ((MessageIdAppendable<?>) delegateTo).withMessageId(messageId)
+				: proxyWithMessageId(delegateTo, messageId);
+	}
+
 	/**
 	 * Creates a dynamic proxy that implements MessageIdHolder automatically. Calls
 	 * to {@link MessageIdHolder#getId()} will return the passed
@@ -89,7 +111,7 @@ public final class MessageIdHolders {
 	 * @return dynamic proxy implementing {@link MessageIdHolder}
 	 */
 	@SuppressWarnings("unchecked")
-	public static <T> T addMessageId(T delegateTo, long messageId) {
+	public static <T> T proxyWithMessageId(T delegateTo, long messageId) {
 		return (T) Proxy.newProxyInstance(delegateTo.getClass().getClassLoader(),
 				insertInto(Class.class, MessageIdHolder.class, delegateTo.getClass().getInterfaces()),
 				new MessageIdHolderInvocationHandler(delegateTo, messageId));
@@ -107,20 +129,8 @@ public final class MessageIdHolders {
 		return (T[]) Array.newInstance(type, length);
 	}
 
-	/**
-	 * Returns an Optional holding the {@link MessageIdHolder} if the passed
-	 * <code>msg</code> implements {@link MessageIdHolder}.
-	 * 
-	 * @param msg the message
-	 * @return Optional holding the {@link MessageIdHolder} or empty if
-	 *         <code>msg</code> is no {@link MessageIdHolder}.
-	 */
-	private static Optional<MessageIdHolder> toHolder(Object msg) {
-		return Optional.of(msg).filter(MessageIdHolder.class::isInstance).map(MessageIdHolder.class::cast);
-	}
-
 	public static long messageIdOf(Object msg) {
-			return toHolder(msg).orElse(NO_ID).getId();
+		return (msg instanceof MessageIdHolder ? (MessageIdHolder) msg : NO_ID).getId();
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.proto.api;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.ServiceLoader.Provider;
+import java.util.WeakHashMap;
+import java.util.stream.Stream;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * The {@link Protocol}s found via the {@link ServiceLoader} of the context
+ * classloader, indexed by name. Since protocols can be (de)activated at any
+ * time {@link Protocol#isActive()} is checked on each lookup. The registries
+ * are cached per context classloader, see {@link #forContextClassLoader()}.
+ *
+ */
+final class ProtocolRegistry {
+
+	/**
+	 * The protocols reference the classloader they were loaded by, so the
+	 * registries are softly referenced to not keep the classloaders from being
+	 * collected.
+	 */
+	private static final Map<ClassLoader, SoftReference<ProtocolRegistry>> registries = new WeakHashMap<>();
+
+	private final List<Protocol> protocols;
+	private final Map<String, List<Protocol>> byName = new HashMap<>();
+
+	private ProtocolRegistry(List<Protocol> protocols) {
+		this.protocols = unmodifiableList(protocols);
+		for (Protocol protocol : protocols) {
+			byName.computeIfAbsent(protocol.getName(), k -> new ArrayList<>(1)).add(protocol);
+		}
+	}
+
+	/**
+	 * Returns the registry of the current context classloader, it gets loaded if
+	 * there is none yet.
+	 * 
+	 * @return the registry of the current context classloader
+	 */
+	static ProtocolRegistry forContextClassLoader() {
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		synchronized (registries) {
+			SoftReference<ProtocolRegistry> reference = registries.get(contextClassLoader);
+			ProtocolRegistry registry = reference == null ? null : reference.get();
+			return registry == null ? load(contextClassLoader) : registry;
+		}
+	}
+
+	/**
+	 * Drops the registries of all context classloaders and loads the one of the
+	 * current context classloader again, the others get loaded again on their next
+	 * use.
+	 */
+	static void reload() {
+		synchronized (registries) {
+			registries.clear();
+			load(Thread.currentThread().getContextClassLoader());
+		}
+	}
+
+	/**
+	 * Loads the registry and caches it, the caller has to hold the lock of
+	 * {@link #registries}.
+	 */
+	private static ProtocolRegistry load(ClassLoader contextClassLoader) {
+		List<Protocol> protocols = new ArrayList<>();
+		ServiceLoader.load(Protocol.class, contextClassLoader).stream().map(Provider::get).forEach(protocols::add);
+		ProtocolRegistry registry = new ProtocolRegistry(protocols);
+		registries.put(contextClassLoader, new SoftReference<>(registry));
+		return registry;
+	}
+
+	Stream<Protocol> activeProtocols() {
+		return protocols.stream().filter(Protocol::isActive);
+	}
+
+	/**
+	 * Returns the first active protocol with the passed name.
+	 * 
+	 * @param name the name of the protocol
+	 * @return the protocol, empty if there is none
+	 */
+	Optional<Protocol> get(String name) {
+		List<Protocol> candidates = byName.get(name);
+		if (candidates != null) {
+			for (Protocol candidate : candidates) {
+				if (candidate.isActive()) {
+					return Optional.of(candidate);
+				}
+			}
+		}
+		return Optional.empty();
+	}
+
+}
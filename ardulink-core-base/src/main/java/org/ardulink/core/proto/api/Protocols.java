@@ -17,16 +17,13 @@ limitations under the License.
 package org.ardulink.core.proto.api;
 
 import static java.lang.String.format;
-import static java.util.function.Predicate.isEqual;
 import static java.util.stream.Collectors.toList;
 import static org.ardulink.util.Iterables.getFirst;
 import static org.ardulink.util.Lists.mapList;
-import static org.ardulink.util.Predicates.attribute;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.ServiceLoader;
-import java.util.ServiceLoader.Provider;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -42,6 +39,18 @@ public final class Protocols {
 		super();
 	}
 
+	/**
+	 * The {@link Protocol}s are loaded once per context classloader via the
+	 * {@link ServiceLoader} and then cached. Call this method to load them again.
+	 */
+	public static void reloadProtocols() {
+		ProtocolRegistry.reload();
+	}
+
+	private static ProtocolRegistry registry() {
+		return ProtocolRegistry.forContextClassLoader();
+	}
+
 	/**
 	 * List all registered protocols.
 	 * 
@@ -49,10 +58,7 @@ public final class Protocols {
 	 * @see #protocolNames()
 	 */
 	public static List<Protocol> protocols() {
-		return ServiceLoader.load(Protocol.class) //
-				.stream().map(Provider::get) //
-				.filter(Protocol::isActive) //
-				.collect(toList());
+		return registry().activeProtocols().collect(toList());
 	}
 
 	/**
@@ -74,9 +80,8 @@ public final class Protocols {
 	 * @see #tryProtoByName(String)
 	 */
 	public static Protocol protoByName(String name) {
-		List<Protocol> availables = protocols();
-		return withName(availables, name).orElseThrow(() -> new IllegalStateException(
-				format("No protocol with name %s registered. Available names are %s", name, extractNames(availables))));
+		return tryProtoByName(name).orElseThrow(() -> new IllegalStateException(
+				format("No protocol with name %s registered. Available names are %s", name, protocolNames())));
 	}
 
 	/**
@@ -88,7 +93,7 @@ public final class Protocols {
 	 *         found
 	 */
 	public static Optional<Protocol> tryProtoByName(String name) {
-		return withName(protocols(), name);
+		return registry().get(name);
 	}
 
 	/**
@@ -104,10 +109,6 @@ public final class Protocols {
 		return tryProtoByName(name).or(() -> getFirst(protocols()));
 	}
 
-	private static Optional<Protocol> withName(List<Protocol> protocols, String name) {
-		return protocols.stream().filter(attribute(Protocol::getName, isEqual(name))).findFirst();
-	}
-
 	private static List<String> extractNames(List<Protocol> protocols) {
 		return mapList(protocols, Protocol::getName);
 	}
@@ -15,15 +15,28 @@ limitations under the License.
  */
 package org.ardulink.core.proto.api.bytestreamproccesors;
 
+import static org.ardulink.core.Pin.Type.ANALOG;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinStateChange.toDeviceMessagePinStateChange;
+import static org.ardulink.core.proto.api.MessageIdHolders.addMessageId;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import org.ardulink.core.Pin;
+import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.Pin.DigitalPin;
 import org.ardulink.core.messages.api.FromDeviceMessage;
 import org.ardulink.core.messages.api.ToDeviceMessageCustom;
 import org.ardulink.core.messages.api.ToDeviceMessageKeyPress;
 import org.ardulink.core.messages.api.ToDeviceMessageNoTone;
 import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.ardulink.core.messages.api.ToDeviceMessagePinWriteBatch;
 import org.ardulink.core.messages.api.ToDeviceMessagePing;
 import org.ardulink.core.messages.api.ToDeviceMessageStartListening;
 import org.ardulink.core.messages.api.ToDeviceMessageStopListening;
 import org.ardulink.core.messages.api.ToDeviceMessageTone;
+import org.ardulink.core.proto.api.MessageIdHolder;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -50,6 +63,19 @@ public interface ByteStreamProcessor {
 	default void setOutboundListener(OutboundListener listener) {
 	}
 
+	/**
+	 * Processors whose encoded messages depend on the messages encoded before
+	 * (e.g. a message carrying the state of several pins) have to be encoded and
+	 * written atomically, otherwise a message carrying an outdated state could be
+	 * written last.
+	 * 
+	 * @return <code>true</code> if encoding depends on and changes the state of
+	 *         this processor
+	 */
+	default boolean isStatefulEncoder() {
+		return false;
+	}
+
 	// -- in
 
 	void process(byte[] read);
@@ -66,6 +92,34 @@ public interface ByteStreamProcessor {
 
 	byte[] toDevice(ToDeviceMessagePinStateChange pinStateChange);
 
+	/**
+	 * Encodes all pin writes of the batch into one message. This default
+	 * implementation concatenates the encoded pin writes, only the last one
+	 * carries the batch's message id so the device replies once for the whole
+	 * batch.
+	 * 
+	 * @param pinWriteBatch the pin writes to encode
+	 * @return the encoded batch
+	 */
+	default byte[] toDevice(ToDeviceMessagePinWriteBatch pinWriteBatch) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		for (Iterator<Entry<Pin, Object>> it = pinWriteBatch.getBatch().getValues().entrySet().iterator(); it
+				.hasNext();) {
+			ToDeviceMessagePinStateChange pinStateChange = pinStateChange(it.next());
+			if (!it.hasNext() && pinWriteBatch instanceof MessageIdHolder) {
+				pinStateChange = addMessageId(pinStateChange, ((MessageIdHolder) pinWriteBatch).getId());
+			}
+			bytes.writeBytes(toDevice(pinStateChange));
+		}
+		return bytes.toByteArray();
+	}
+
+	private static ToDeviceMessagePinStateChange pinStateChange(Entry<Pin, Object> write) {
+		Pin pin = write.getKey();
+		return pin.is(ANALOG) ? toDeviceMessagePinStateChange((AnalogPin) pin, (Integer) write.getValue())
+				: toDeviceMessagePinStateChange((DigitalPin) pin, (Boolean) write.getValue());
+	}
+
 	byte[] toDevice(ToDeviceMessageKeyPress keyPress);
 
 	byte[] toDevice(ToDeviceMessageTone tone);
@@ -69,7 +69,7 @@ public class ALProtoBuilder {
 			this.command = command;
 		}
 
-		private String command() {
+		String command() {
 			return command;
 		}
 
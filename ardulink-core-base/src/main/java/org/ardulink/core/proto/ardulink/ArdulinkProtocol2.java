@@ -25,6 +25,7 @@ import static org.ardulink.core.Pin.analogPin;
 import static org.ardulink.core.Pin.digitalPin;
 import static org.ardulink.core.Pin.Type.ANALOG;
 import static org.ardulink.core.Pin.Type.DIGITAL;
+import static org.ardulink.core.featureflags.PreviewFeature.isAlpScratchBufferProcessorFeatureEnabled;
 import static org.ardulink.core.messages.impl.DefaultFromDeviceChangeListeningState.fromDeviceChangeListeningState;
 import static org.ardulink.core.messages.impl.DefaultFromDeviceMessageCustom.fromDeviceMessageCustom;
 import static org.ardulink.core.messages.impl.DefaultFromDeviceMessageInfo.fromDeviceMessageInfo;
@@ -52,7 +53,9 @@ import static org.ardulink.util.Maps.stringToMap;
 import static org.ardulink.util.Preconditions.checkNotNull;
 import static org.ardulink.util.Primitives.tryParseAs;
 
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.ardulink.core.Pin;
 import org.ardulink.core.messages.api.FromDeviceChangeListeningState.Mode;
@@ -63,6 +66,7 @@ import org.ardulink.core.messages.api.ToDeviceMessageCustom;
 import org.ardulink.core.messages.api.ToDeviceMessageKeyPress;
 import org.ardulink.core.messages.api.ToDeviceMessageNoTone;
 import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.ardulink.core.messages.api.ToDeviceMessagePinWriteBatch;
 import org.ardulink.core.messages.api.ToDeviceMessagePing;
 import org.ardulink.core.messages.api.ToDeviceMessageStartListening;
 import org.ardulink.core.messages.api.ToDeviceMessageStopListening;
@@ -407,15 +411,35 @@ public class ArdulinkProtocol2 implements Protocol {
 
 		@Override
 		public byte[] toDevice(ToDeviceMessagePinStateChange pinStateChange) {
-			if (pinStateChange.getPin().is(ANALOG)) {
-				return toBytes(builder(pinStateChange, POWER_PIN_INTENSITY).forPin(pinStateChange.getPin().pinNum())
-						.withValue(pinStateChange.getValue()));
+			return toBytes(pinStateChange(pinStateChange, pinStateChange.getPin(), pinStateChange.getValue()));
+		}
+
+		/**
+		 * Encodes the batch as one frame of newline separated
+		 * {@link ALPProtocolKey#POWER_PIN_INTENSITY} and
+		 * {@link ALPProtocolKey#POWER_PIN_SWITCH} commands. Only the last command
+		 * carries the message id so the device replies once for the whole batch.
+		 */
+		@Override
+		public byte[] toDevice(ToDeviceMessagePinWriteBatch pinWriteBatch) {
+			StringBuilder sb = new StringBuilder();
+			for (Iterator<Entry<Pin, Object>> it = pinWriteBatch.getBatch().getValues().entrySet().iterator(); it
+					.hasNext();) {
+				Entry<Pin, Object> write = it.next();
+				Object event = it.hasNext() ? null : pinWriteBatch;
+				sb.append(pinStateChange(event, write.getKey(), write.getValue())).append(NEWLINE);
+			}
+			return sb.toString().getBytes();
+		}
+
+		private String pinStateChange(Object event, Pin pin, Object value) {
+			if (pin.is(ANALOG)) {
+				return builder(event, POWER_PIN_INTENSITY).forPin(pin.pinNum()).withValue(value);
 			}
-			if (pinStateChange.getPin().is(DIGITAL)) {
-				return toBytes(builder(pinStateChange, POWER_PIN_SWITCH).forPin(pinStateChange.getPin().pinNum())
-						.withState((Boolean) pinStateChange.getValue()));
+			if (pin.is(DIGITAL)) {
+				return builder(event, POWER_PIN_SWITCH).forPin(pin.pinNum()).withState((Boolean) value);
 			}
-			throw illegalPinType(pinStateChange.getPin());
+			throw illegalPinType(pin);
 		}
 
 		private ALProtoBuilder builder(Object event, ALPProtocolKey key) {
@@ -462,7 +486,8 @@ public class ArdulinkProtocol2 implements Protocol {
 
 	@Override
 	public ByteStreamProcessor newByteStreamProcessor() {
-		return new ALPByteStreamProcessor();
+		return isAlpScratchBufferProcessorFeatureEnabled() ? new ScratchBufferALPByteStreamProcessor()
+				: new ALPByteStreamProcessor();
 	}
 
 }
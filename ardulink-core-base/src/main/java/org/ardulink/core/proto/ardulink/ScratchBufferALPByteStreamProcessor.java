@@ -0,0 +1,344 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.core.proto.ardulink;
+
+import static java.lang.Long.parseLong;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.Pin.Type.ANALOG;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceChangeListeningState.fromDeviceChangeListeningState;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceMessageCustom.fromDeviceMessageCustom;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceMessageInfo.fromDeviceMessageInfo;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceMessagePinStateChanged.fromDeviceMessagePinStateChanged;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceMessageReply.fromDeviceMessageReply;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.ANALOG_PIN_READ;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.CUSTOM_EVENT;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.DIGITAL_PIN_READ;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.INFO;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.RPLY;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.START_LISTENING_ANALOG;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.START_LISTENING_DIGITAL;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.STOP_LISTENING_ANALOG;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.STOP_LISTENING_DIGITAL;
+import static org.ardulink.util.Booleans.toBoolean;
+import static org.ardulink.util.Maps.stringToMap;
+import static org.ardulink.util.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import org.ardulink.core.Pin;
+import org.ardulink.core.messages.api.FromDeviceChangeListeningState.Mode;
+import org.ardulink.core.messages.api.FromDeviceMessage;
+import org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2.ALPByteStreamProcessor;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Decodes the same messages as {@link ALPByteStreamProcessor} but does not
+ * create state objects nor intermediate Strings per message: There is one
+ * scratch buffer per processor, command keys are matched on their bytes and pin
+ * numbers and values are parsed while they are read. Only the emitted
+ * {@link FromDeviceMessage}s (and the Strings of reply and custom messages)
+ * are allocated.<br>
+ * Encoding is inherited from {@link ALPByteStreamProcessor}.<br>
+ * This class is <b>not</b> threadsafe.
+ *
+ */
+public class ScratchBufferALPByteStreamProcessor extends ALPByteStreamProcessor {
+
+	private static final int MAX_BUFFER_LEN = 64;
+
+	private static final byte[] PREFIX = "alp://".getBytes();
+
+	private static final ALPProtocolKey[] KEYS = ALPProtocolKey.values();
+	private static final long[] KEY_BITS = keyBits(KEYS);
+
+	private static final int WAITING_FOR_PREFIX = 0;
+	private static final int WAITING_FOR_COMMAND = 1;
+	private static final int WAITING_FOR_OK_KO = 2;
+	private static final int WAITING_FOR_RPLY_PARAMS = 3;
+	private static final int WAITING_FOR_CUSTOM_MESSAGE = 4;
+	private static final int WAITING_FOR_PIN = 5;
+	private static final int WAITING_FOR_VALUE = 6;
+
+	private final byte[] buffer = new byte[MAX_BUFFER_LEN];
+
+	private int state = WAITING_FOR_PREFIX;
+	private int length;
+
+	private long commandBits;
+	private ALPProtocolKey key;
+	private boolean ok;
+	private final NumberParser pin = new NumberParser();
+	private final NumberParser value = new NumberParser();
+	private Pin readPin;
+
+	/**
+	 * Parses a decimal number byte by byte with the same rules as
+	 * {@link Integer#parseInt(String)}.
+	 */
+	private static final class NumberParser {
+
+		private long value;
+		private int digits;
+		private boolean negative;
+		private boolean valid;
+
+		private void reset() {
+			value = 0;
+			digits = 0;
+			negative = false;
+			valid = true;
+		}
+
+		private void append(byte b, int position) {
+			if (b >= '0' && b <= '9') {
+				value = value * 10 + (b - '0');
+				valid &= ++digits <= 10;
+			} else if (position == 0 && (b == '-' || b == '+')) {
+				negative = b == '-';
+			} else {
+				valid = false;
+			}
+		}
+
+		private boolean isValid() {
+			long signed = signed();
+			return valid && digits > 0 && signed >= Integer.MIN_VALUE && signed <= Integer.MAX_VALUE;
+		}
+
+		private long signed() {
+			return negative ? -value : value;
+		}
+
+		private int intValue() {
+			return (int) signed();
+		}
+
+	}
+
+	private static long[] keyBits(ALPProtocolKey[] keys) {
+		long[] bits = new long[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			long keyBits = 0;
+			for (byte b : keys[i].command().getBytes()) {
+				keyBits = append(keyBits, b);
+			}
+			bits[i] = keyBits;
+		}
+		return bits;
+	}
+
+	private static long append(long bits, byte b) {
+		return (bits << 8) | (b & 0xFF);
+	}
+
+	@Override
+	public void process(byte b) {
+		switch (state) {
+		case WAITING_FOR_PREFIX:
+			waitingForPrefix(b);
+			break;
+		case WAITING_FOR_COMMAND:
+			waitingForCommand(b);
+			break;
+		case WAITING_FOR_OK_KO:
+			waitingForOkKo(b);
+			break;
+		case WAITING_FOR_RPLY_PARAMS:
+			if (b == '\n') {
+				fireReply();
+			} else {
+				bufferAppend(b);
+			}
+			break;
+		case WAITING_FOR_CUSTOM_MESSAGE:
+			if (b == '\n') {
+				fireEvent(fromDeviceMessageCustom(bufferAsString()));
+			} else {
+				bufferAppend(b);
+			}
+			break;
+		case WAITING_FOR_PIN:
+			waitingForPin(b);
+			break;
+		case WAITING_FOR_VALUE:
+			waitingForValue(b);
+			break;
+		default:
+			throw new IllegalStateException("Unknown state " + state);
+		}
+	}
+
+	private void waitingForPrefix(byte b) {
+		if (b != PREFIX[length]) {
+			reset();
+		} else if (length + 1 == PREFIX.length) {
+			switchTo(WAITING_FOR_COMMAND);
+			commandBits = 0;
+		} else {
+			length++;
+		}
+	}
+
+	private void waitingForCommand(byte b) {
+		if (b != '/') {
+			commandBits = append(commandBits, b);
+			bufferAppend(b);
+			return;
+		}
+		ALPProtocolKey command = keyOf(commandBits, length);
+		if (command == null) {
+			reset();
+		} else if (command == INFO) {
+			fireEvent(fromDeviceMessageInfo());
+		} else if (command == RPLY) {
+			switchTo(WAITING_FOR_OK_KO);
+		} else if (command == CUSTOM_EVENT) {
+			switchTo(WAITING_FOR_CUSTOM_MESSAGE);
+		} else {
+			key = command;
+			pin.reset();
+			switchTo(WAITING_FOR_PIN);
+		}
+	}
+
+	private static ALPProtocolKey keyOf(long commandBits, int length) {
+		if (length <= Long.BYTES) {
+			for (int i = 0; i < KEY_BITS.length; i++) {
+				if (KEY_BITS[i] == commandBits) {
+					return KEYS[i];
+				}
+			}
+		}
+		return null;
+	}
+
+	private void waitingForOkKo(byte b) {
+		if (b != '?') {
+			bufferAppend(b);
+		} else if (bufferIs('o', 'k')) {
+			ok = true;
+			switchTo(WAITING_FOR_RPLY_PARAMS);
+		} else if (bufferIs('k', 'o')) {
+			ok = false;
+			switchTo(WAITING_FOR_RPLY_PARAMS);
+		} else {
+			reset();
+		}
+	}
+
+	private boolean bufferIs(char c0, char c1) {
+		return length == 2 && buffer[0] == c0 && buffer[1] == c1;
+	}
+
+	private void waitingForPin(byte b) {
+		if (b == '\n' && isChangeListening()) {
+			Pin listeningPin = pinOf(key == START_LISTENING_ANALOG || key == STOP_LISTENING_ANALOG);
+			fireEvent(fromDeviceChangeListeningState(listeningPin, mode()));
+		} else if (b == '/') {
+			if (key != ANALOG_PIN_READ && key != DIGITAL_PIN_READ) {
+				throw resetAndThrow(new IllegalStateException(key + " " + bufferAsString()));
+			}
+			Pin readPin = pinOf(key == ANALOG_PIN_READ);
+			switchTo(WAITING_FOR_VALUE);
+			this.value.reset();
+			this.readPin = readPin;
+		} else {
+			pin.append(b, length);
+			bufferAppend(b);
+		}
+	}
+
+	private void waitingForValue(byte b) {
+		if (b != '\n') {
+			value.append(b, length);
+			bufferAppend(b);
+			return;
+		}
+		if (!value.isValid()) {
+			throw resetAndThrow(new NumberFormatException("For input string: \"" + bufferAsString() + "\""));
+		}
+		int intValue = value.intValue();
+		fireEvent(fromDeviceMessagePinStateChanged(readPin,
+				readPin.is(ANALOG) ? (Object) intValue : toBoolean(intValue)));
+	}
+
+	private Pin pinOf(boolean analog) {
+		if (!pin.isValid()) {
+			throw resetAndThrow(new IllegalStateException("Cannot parse " + bufferAsString() + " as pin number"));
+		}
+		int pinNumber = pin.intValue();
+		return analog ? analogPin(pinNumber) : digitalPin(pinNumber);
+	}
+
+	private boolean isChangeListening() {
+		return key == START_LISTENING_ANALOG || key == STOP_LISTENING_ANALOG || key == START_LISTENING_DIGITAL
+				|| key == STOP_LISTENING_DIGITAL;
+	}
+
+	private Mode mode() {
+		return key == START_LISTENING_ANALOG || key == START_LISTENING_DIGITAL ? Mode.START : Mode.STOP;
+	}
+
+	private void fireReply() {
+		String query = bufferAsString();
+		reset();
+		Map<String, String> params = stringToMap(query, "&", "=");
+		String idKey = "id";
+		fireEvent(fromDeviceMessageReply(ok,
+				parseLong(checkNotNull(params.remove(idKey), "Reply message needs for mandatory param: %s", idKey)),
+				params));
+	}
+
+	@Override
+	protected void fireEvent(FromDeviceMessage fromDevice) {
+		reset();
+		super.fireEvent(fromDevice);
+	}
+
+	private void bufferAppend(byte b) {
+		if (length >= buffer.length) {
+			throw resetAndThrow(new IllegalArgumentException("buffer overrun"));
+		}
+		buffer[length++] = b;
+	}
+
+	private String bufferAsString() {
+		return new String(buffer, 0, length);
+	}
+
+	private void switchTo(int newState) {
+		state = newState;
+		length = 0;
+	}
+
+	private void reset() {
+		switchTo(WAITING_FOR_PREFIX);
+	}
+
+	private RuntimeException resetAndThrow(RuntimeException e) {
+		reset();
+		return e;
+	}
+
+}
@@ -0,0 +1,258 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+ 
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+ 
+    http://www.apache.org/licenses/LICENSE-2.0
+ 
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+
+
+package org.ardulink.core.qos;
+
+import static org.ardulink.core.proto.api.MessageIdHolders.NO_ID;
+import static org.ardulink.util.Preconditions.checkArgument;
+import static org.ardulink.util.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.ardulink.core.Link;
+import org.ardulink.core.Pin;
+import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.PinWriteBatch;
+import org.ardulink.core.Tone;
+import org.ardulink.core.events.RplyEvent;
+import org.ardulink.core.events.RplyListener;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Asynchronous counterpart of {@link QosLink}: Instead of blocking until the
+ * reply of a message has been received, the methods return a
+ * {@link CompletableFuture} that gets completed with the {@link RplyEvent}
+ * (which may be a "ko" reply, see {@link RplyEvent#isOk()}) or exceptionally
+ * with a {@link TimeoutException} if no reply was received in time.<br>
+ * Up to <code>maxInFlight</code> messages can be unanswered at the same time,
+ * if the window is full the calling thread blocks until a reply has been
+ * received or a message timed out. All replies are matched using one
+ * {@link RplyListener} that stays registered until this link gets closed.
+ *
+ */
+public class AsyncQosLink implements Closeable {
+
+	@FunctionalInterface
+	private interface Sender {
+		long send() throws IOException;
+	}
+
+	private final Link delegate;
+	private final long timeout;
+	private final TimeUnit timeUnit;
+	private final Semaphore window;
+	private final RplyListener listener = this::rplyReceived;
+
+	private final Object lock = new Object();
+	private final Map<Long, CompletableFuture<RplyEvent>> pending = new HashMap<>();
+	private final Map<Long, RplyEvent> unclaimed;
+
+	/**
+	 * Creates a new AsyncQosLink. A reply listener gets registered on the passed
+	 * link so that it does add message ids to the messages sent.
+	 * 
+	 * @param link        the link to send the messages to
+	 * @param maxInFlight the maximum number of messages waiting for their reply
+	 * @param timeout     the time to wait for a message's reply
+	 * @param timeUnit    the unit of <code>timeout</code>
+	 * @throws IOException if the reply listener could not be registered
+	 */
+	public AsyncQosLink(Link link, int maxInFlight, long timeout, TimeUnit timeUnit) throws IOException {
+		checkArgument(maxInFlight > 0, "maxInFlight must be greater than 0 but was %s", maxInFlight);
+		checkArgument(timeout > 0, "timeout must be greater than 0 but was %s", timeout);
+		this.delegate = checkNotNull(link, "link must not be null");
+		this.timeout = timeout;
+		this.timeUnit = checkNotNull(timeUnit, "timeUnit must not be null");
+		this.window = new Semaphore(maxInFlight);
+		this.unclaimed = boundedMap(maxInFlight);
+		this.delegate.addRplyListener(listener);
+	}
+
+	/**
+	 * Replies can be received before the sending thread did register the message
+	 * as pending. They are kept until the sending thread does ask for them. Replies
+	 * never asked for (e.g. those of messages sent directly on the delegate) get
+	 * evicted.
+	 */
+	private static Map<Long, RplyEvent> boundedMap(int maxSize) {
+		return new LinkedHashMap<>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, RplyEvent> eldest) {
+				return size() > maxSize;
+			}
+
+		};
+	}
+
+	public CompletableFuture<RplyEvent> startListening(Pin pin) throws IOException {
+		return send(() -> delegate.startListening(pin));
+	}
+
+	public CompletableFuture<RplyEvent> stopListening(Pin pin) throws IOException {
+		return send(() -> delegate.stopListening(pin));
+	}
+
+	public CompletableFuture<RplyEvent> switchAnalogPin(AnalogPin analogPin, int value) throws IOException {
+		return send(() -> delegate.switchAnalogPin(analogPin, value));
+	}
+
+	public CompletableFuture<RplyEvent> switchDigitalPin(DigitalPin digitalPin, boolean value) throws IOException {
+		return send(() -> delegate.switchDigitalPin(digitalPin, value));
+	}
+
+	/**
+	 * Sends all pin writes of the batch as one message, the returned future gets
+	 * completed with the one reply of the whole batch.
+	 * 
+	 * @param batch the pin writes to send
+	 * @return the future of the batch's reply
+	 * @throws IOException if the batch could not be sent
+	 */
+	public CompletableFuture<RplyEvent> switchPins(PinWriteBatch batch) throws IOException {
+		return send(() -> delegate.switchPins(batch));
+	}
+
+	public CompletableFuture<RplyEvent> sendKeyPressEvent(char keychar, int keycode, int keylocation,
+			int keymodifiers, int keymodifiersex) throws IOException {
+		return send(() -> delegate.sendKeyPressEvent(keychar, keycode, keylocation, keymodifiers, keymodifiersex));
+	}
+
+	public CompletableFuture<RplyEvent> sendTone(Tone tone) throws IOException {
+		return send(() -> delegate.sendTone(tone));
+	}
+
+	public CompletableFuture<RplyEvent> sendNoTone(AnalogPin analogPin) throws IOException {
+		return send(() -> delegate.sendNoTone(analogPin));
+	}
+
+	public CompletableFuture<RplyEvent> sendCustomMessage(String... messages) throws IOException {
+		return send(() -> delegate.sendCustomMessage(messages));
+	}
+
+	/**
+	 * Returns the number of messages sent whose reply has not been received yet.
+	 * 
+	 * @return number of messages waiting for their reply
+	 */
+	public int inFlight() {
+		synchronized (lock) {
+			return pending.size();
+		}
+	}
+
+	private CompletableFuture<RplyEvent> send(Sender sender) throws IOException {
+		acquireWindow();
+		long messageId;
+		try {
+			messageId = sender.send();
+		} catch (IOException | RuntimeException e) {
+			window.release();
+			throw e;
+		}
+		if (messageId == NO_ID.getId()) {
+			window.release();
+			throw new IllegalStateException("Link " + delegate + " did not assign a message id");
+		}
+		return register(messageId);
+	}
+
+	private void acquireWindow() throws InterruptedIOException {
+		try {
+			window.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a free slot");
+		}
+	}
+
+	private CompletableFuture<RplyEvent> register(long messageId) {
+		CompletableFuture<RplyEvent> future = new CompletableFuture<>();
+		future.whenComplete((r, t) -> {
+			synchronized (lock) {
+				pending.remove(messageId, future);
+			}
+			window.release();
+		});
+		RplyEvent reply;
+		synchronized (lock) {
+			reply = unclaimed.remove(messageId);
+			if (reply == null) {
+				pending.put(messageId, future);
+			}
+		}
+		if (reply == null) {
+			future.orTimeout(timeout, timeUnit);
+		} else {
+			future.complete(reply);
+		}
+		return future;
+	}
+
+	private void rplyReceived(RplyEvent event) {
+		CompletableFuture<RplyEvent> future;
+		synchronized (lock) {
+			future = pending.remove(event.getId());
+			if (future == null) {
+				unclaimed.put(event.getId(), event);
+			}
+		}
+		if (future != null) {
+			future.complete(event);
+		}
+	}
+
+	/**
+	 * Cancels all messages still waiting for their reply and closes the delegate.
+	 */
+	@Override
+	public void close() throws IOException {
+		delegate.removeRplyListener(listener);
+		List<CompletableFuture<RplyEvent>> cancel;
+		synchronized (lock) {
+			cancel = new ArrayList<>(pending.values());
+			pending.clear();
+			unclaimed.clear();
+		}
+		cancel.forEach(f -> f.cancel(false));
+		delegate.close();
+	}
+
+	public Link getDelegate() {
+		return delegate;
+	}
+
+}
@@ -26,6 +26,7 @@ import org.ardulink.core.Link;
 import org.ardulink.core.Pin;
 import org.ardulink.core.Pin.AnalogPin;
 import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.PinWriteBatch;
 import org.ardulink.core.Tone;
 import org.ardulink.core.events.CustomListener;
 import org.ardulink.core.events.EventListener;
@@ -125,6 +126,12 @@ public class QosLink implements Link {
 				delegate.switchDigitalPin(digitalPin, value)));
 	}
 
+	@Override
+	public long switchPins(PinWriteBatch batch) throws IOException {
+		return extractId(newAwaiter().waitForResponse(
+				delegate.switchPins(batch)));
+	}
+
 	@Override
 	public long sendKeyPressEvent(char keychar, int keycode, int keylocation,
 			int keymodifiers, int keymodifiersex) throws IOException {
@@ -0,0 +1,166 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.AsyncEventDispatcher.OverflowPolicy.BLOCK;
+import static org.ardulink.core.AsyncEventDispatcher.OverflowPolicy.COALESCE;
+import static org.ardulink.core.AsyncEventDispatcher.OverflowPolicy.DROP_OLDEST;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.events.FilteredEventListenerAdapter.filter;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import org.ardulink.core.events.AnalogPinValueChangedEvent;
+import org.ardulink.core.events.EventListenerAdapter;
+import org.ardulink.testsupport.junit5.ArduinoStubExt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+@Timeout(value = 15, unit = SECONDS)
+class AsyncEventDispatcherTest {
+
+	@RegisterExtension
+	ArduinoStubExt arduinoStub = new ArduinoStubExt();
+
+	/**
+	 * Collects the tasks and runs them when asked to.
+	 */
+	private static class ManualExecutor implements Executor {
+
+		private final List<Runnable> tasks = synchronizedList(new ArrayList<>());
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		private void runAll() {
+			while (!tasks.isEmpty()) {
+				tasks.remove(0).run();
+			}
+		}
+
+	}
+
+	private final ManualExecutor manualExecutor = new ManualExecutor();
+	private final List<Integer> delivered = synchronizedList(new ArrayList<>());
+
+	@Test
+	void listenersAreCalledOnTheExecutorsThread() throws Exception {
+		ExecutorService executor = newFixedThreadPool(1, r -> new Thread(r, "dispatcher"));
+		try {
+			List<String> threads = synchronizedList(new ArrayList<>());
+			ConnectionBasedLink link = arduinoStub.link();
+			link.setEventDispatcher(new AsyncEventDispatcher(executor, 16, BLOCK));
+			link.addListener(filter(analogPin(3), new EventListenerAdapter() {
+				@Override
+				public void stateChanged(AnalogPinValueChangedEvent event) {
+					threads.add(Thread.currentThread().getName());
+				}
+			}));
+			arduinoStub.simulateArduinoSends("alp://ared/3/42\n");
+			await().untilAsserted(() -> assertThat(threads).containsExactly("dispatcher"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void eventsOfTheSameKeyAreDeliveredInOrder() throws Exception {
+		int keys = 4;
+		int events = 1000;
+		ExecutorService executor = newFixedThreadPool(keys);
+		try {
+			AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(executor, 8, BLOCK);
+			List<List<Integer>> deliveredPerKey = new ArrayList<>();
+			for (int k = 0; k < keys; k++) {
+				deliveredPerKey.add(synchronizedList(new ArrayList<>()));
+			}
+			for (int i = 0; i < events; i++) {
+				for (int k = 0; k < keys; k++) {
+					int value = i;
+					List<Integer> target = deliveredPerKey.get(k);
+					dispatcher.dispatch(analogPin(k), () -> target.add(value));
+				}
+			}
+			await().untilAsserted(() -> assertThat(deliveredPerKey).allSatisfy(l -> assertThat(l).hasSize(events)));
+			assertThat(deliveredPerKey).allSatisfy(l -> assertThat(l).isSorted());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void dropOldestDiscardsTheOldestQueuedEvents() {
+		AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(manualExecutor, 2, DROP_OLDEST);
+		dispatchValues(dispatcher, 1, 2, 3, 4, 5);
+		manualExecutor.runAll();
+		assertThat(delivered).containsExactly(4, 5);
+		assertThat(dispatcher.discarded()).isEqualTo(3);
+	}
+
+	@Test
+	void coalesceReplacesTheNewestQueuedEvent() {
+		AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(manualExecutor, 2, COALESCE);
+		dispatchValues(dispatcher, 1, 2, 3, 4, 5);
+		manualExecutor.runAll();
+		assertThat(delivered).containsExactly(1, 5);
+		assertThat(dispatcher.discarded()).isEqualTo(3);
+	}
+
+	@Test
+	void blockWaitsUntilQueueHasSpace() throws Exception {
+		AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(manualExecutor, 1, BLOCK);
+		dispatchValues(dispatcher, 1);
+		CompletableFuture<Void> second = CompletableFuture.runAsync(() -> dispatchValues(dispatcher, 2));
+		assertThatThrownBy(() -> second.get(250, MILLISECONDS)).isInstanceOf(TimeoutException.class);
+		manualExecutor.runAll();
+		second.get();
+		manualExecutor.runAll();
+		assertThat(delivered).containsExactly(1, 2);
+		assertThat(dispatcher.discarded()).isZero();
+	}
+
+	private void dispatchValues(AsyncEventDispatcher dispatcher, int... values) {
+		for (int value : values) {
+			dispatcher.dispatch(analogPin(0), () -> delivered.add(value));
+		}
+	}
+
+}
@@ -123,6 +123,17 @@ class ConnectionBasedLinkTest {
 		assertToArduinoWasSent(format("alp://ppsw/%d/%d", pin, 1));
 	}
 
+	@Test
+	void canSendPinWriteBatch() throws IOException {
+		arduinoStub.link().switchPins(PinWriteBatch.builder() //
+				.switchDigitalPin(digitalPin(2), true) //
+				.switchDigitalPin(digitalPin(3), true) //
+				.switchAnalogPin(analogPin(9), 128) //
+				.switchDigitalPin(digitalPin(2), false) //
+				.build());
+		assertToArduinoWasSent("alp://ppsw/3/1", "alp://ppin/9/128", "alp://ppsw/2/0");
+	}
+
 	@Test
 	void doesSendStartListeningAnalogCommangToArduino() throws IOException {
 		int pin = anyPositive(int.class);
@@ -0,0 +1,112 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+@Timeout(value = 15, unit = SECONDS)
+class ConnectionWriterTest {
+
+	private static class RecordingConnection extends AbstractConnection {
+
+		private final List<String> written = synchronizedList(new ArrayList<>());
+		private final AtomicInteger writing = new AtomicInteger();
+		private final AtomicInteger maxWriting = new AtomicInteger();
+
+		@Override
+		public void write(byte[] bytes) throws IOException {
+			maxWriting.accumulateAndGet(writing.incrementAndGet(), Math::max);
+			try {
+				String string = new String(bytes);
+				if (string.equals("fail")) {
+					throw new IOException("cannot write " + string);
+				}
+				Thread.yield();
+				written.add(string);
+			} finally {
+				writing.decrementAndGet();
+			}
+		}
+
+		@Override
+		public void close() {
+			// do nothing
+		}
+
+	}
+
+	private final RecordingConnection connection = new RecordingConnection();
+	private final ConnectionWriter writer = new ConnectionWriter(connection);
+
+	@Test
+	void framesOfConcurrentSendersAreWrittenOneAfterAnother() throws Exception {
+		int threads = 8;
+		int framesPerThread = 500;
+		ExecutorService executor = newFixedThreadPool(threads);
+		try {
+			List<Callable<Void>> senders = range(0, threads).<Callable<Void>>mapToObj(t -> () -> {
+				for (int i = 0; i < framesPerThread; i++) {
+					writer.write((t + "-" + i).getBytes());
+				}
+				return null;
+			}).collect(toList());
+			for (Future<Void> future : executor.invokeAll(senders)) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(connection.written).hasSize(threads * framesPerThread).doesNotHaveDuplicates();
+		assertThat(connection.maxWriting).hasValue(1);
+	}
+
+	@Test
+	void failureIsThrownToTheSenderOfTheFrame() throws IOException {
+		writer.write("a".getBytes());
+		assertThatThrownBy(() -> writer.write("fail".getBytes())).isInstanceOf(IOException.class)
+				.hasMessageContaining("fail");
+		writer.write("b".getBytes());
+		assertThat(connection.written).containsExactly("a", "b");
+	}
+
+}
@@ -0,0 +1,73 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.events.FilteredEventListenerAdapter.filter;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.ardulink.core.events.EventListener;
+import org.ardulink.core.events.EventListenerAdapter;
+import org.junit.jupiter.api.Test;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class EventListenerRegistryTest {
+
+	private final EventListenerRegistry registry = new EventListenerRegistry();
+
+	@Test
+	void filteredListenersAreIndexedByPin() {
+		EventListener unfiltered = new EventListenerAdapter();
+		EventListener analog1 = filter(analogPin(1), unfiltered);
+		EventListener digital1 = filter(digitalPin(1), unfiltered);
+		registry.add(unfiltered);
+		registry.add(analog1);
+		registry.add(digital1);
+
+		assertThat(registry.unfiltered()).containsExactly(unfiltered);
+		assertThat(registry.forPin(analogPin(1))).containsExactly(analog1);
+		assertThat(registry.forPin(digitalPin(1))).containsExactly(digital1);
+		assertThat(registry.forPin(analogPin(2))).isEmpty();
+		assertThat(registry.all()).containsExactlyInAnyOrder(unfiltered, analog1, digital1);
+	}
+
+	@Test
+	void pinHasListenersUntilTheLastOneIsRemoved() {
+		EventListener listener1 = filter(analogPin(1), new EventListenerAdapter());
+		EventListener listener2 = filter(analogPin(1), new EventListenerAdapter());
+		registry.add(listener1);
+		registry.add(listener2);
+		assertThat(registry.hasListenerForPin(analogPin(1))).isTrue();
+		assertThat(registry.hasListenerForPin(digitalPin(1))).isFalse();
+
+		registry.remove(listener1);
+		assertThat(registry.hasListenerForPin(analogPin(1))).isTrue();
+		registry.remove(listener2);
+		assertThat(registry.hasListenerForPin(analogPin(1))).isFalse();
+		assertThat(registry.all()).isEmpty();
+	}
+
+}
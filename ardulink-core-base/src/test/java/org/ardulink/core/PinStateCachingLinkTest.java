@@ -0,0 +1,75 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.ardulink.core.PinStateCachingLink.PinState;
+import org.ardulink.testsupport.junit5.ArduinoStubExt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+@Timeout(value = 15, unit = SECONDS)
+class PinStateCachingLinkTest {
+
+	@RegisterExtension
+	ArduinoStubExt arduinoStub = new ArduinoStubExt();
+
+	@Test
+	void isEmptyIfNothingWasReceived() throws IOException {
+		try (PinStateCachingLink link = new PinStateCachingLink(arduinoStub.link())) {
+			assertThat(link.analogValue(analogPin(1))).isEmpty();
+			assertThat(link.digitalValue(digitalPin(1))).isEmpty();
+			assertThat(link.stateOf(digitalPin(Pin.CACHED_PINS))).isEmpty();
+			assertThat(link.snapshot()).isEmpty();
+		}
+	}
+
+	@Test
+	void holdsTheLastValueReceived() throws IOException {
+		try (PinStateCachingLink link = new PinStateCachingLink(arduinoStub.link())) {
+			long before = System.currentTimeMillis();
+			arduinoStub.simulateArduinoSends("alp://ared/1/42\n", "alp://ared/1/43\n", "alp://dred/2/1\n");
+			assertThat(link.analogValue(analogPin(1))).hasValue(43);
+			assertThat(link.digitalValue(digitalPin(2))).hasValue(true);
+			assertThat(link.analogValue(analogPin(2))).isEmpty();
+			assertThat(link.digitalValue(digitalPin(1))).isEmpty();
+			assertThat(link.stateOf(analogPin(1)).map(PinState::getTimestamp)).hasValueSatisfying(
+					t -> assertThat(t).isBetween(before, System.currentTimeMillis()));
+
+			arduinoStub.simulateArduinoSends("alp://dred/2/0\n");
+			assertThat(link.snapshot()).containsOnlyKeys(analogPin(1), digitalPin(2));
+			assertThat(link.snapshot().get(digitalPin(2)).getValue()).isEqualTo(false);
+		}
+	}
+
+}
@@ -16,6 +16,9 @@ limitations under the License.
 
 package org.ardulink.core;
 
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
 import org.junit.jupiter.api.Test;
@@ -28,4 +31,13 @@ class PinTest {
 	void equalsContract() {
 		assertDoesNotThrow(EqualsVerifier.forClass(Pin.class)::verify);
 	}
+
+	@Test
+	void pinsAreCached() {
+		assertThat(analogPin(0)).isSameAs(analogPin(0));
+		assertThat(digitalPin(Pin.CACHED_PINS - 1)).isSameAs(digitalPin(Pin.CACHED_PINS - 1));
+		assertThat(digitalPin(Pin.CACHED_PINS)).isNotSameAs(digitalPin(Pin.CACHED_PINS))
+				.isEqualTo(digitalPin(Pin.CACHED_PINS));
+		assertThat(analogPin(1)).isNotEqualTo(digitalPin(1));
+	}
 }
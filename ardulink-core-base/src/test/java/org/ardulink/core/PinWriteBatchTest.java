@@ -0,0 +1,56 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+
+package org.ardulink.core;
+
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.entry;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class PinWriteBatchTest {
+
+	@Test
+	void lastWriteOfAPinWins() {
+		PinWriteBatch batch = PinWriteBatch.builder() //
+				.switchDigitalPin(digitalPin(2), true) //
+				.switchAnalogPin(analogPin(2), 42) //
+				.switchDigitalPin(digitalPin(3), true) //
+				.switchDigitalPin(digitalPin(2), false) //
+				.build();
+		assertThat(batch.size()).isEqualTo(3);
+		assertThat(batch.getValues()).containsExactly(entry(analogPin(2), 42), entry(digitalPin(3), true),
+				entry(digitalPin(2), false));
+	}
+
+	@Test
+	void batchMustNotBeEmpty() {
+		assertThatIllegalStateException().isThrownBy(() -> PinWriteBatch.builder().build())
+				.withMessageContaining("at least one");
+	}
+
+}
@@ -0,0 +1,156 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import static java.io.InputStream.nullInputStream;
+import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ardulink.core.Connection.ListenerAdapter;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+@Timeout(value = 15, unit = SECONDS)
+class StreamConnectionTest {
+
+	private static class FlushCountingOutputStream extends ByteArrayOutputStream {
+
+		private final List<String> flushed = synchronizedList(new ArrayList<>());
+		private volatile int failures;
+		private volatile int failed;
+
+		@Override
+		public synchronized void flush() throws IOException {
+			if (failures > 0) {
+				failures--;
+				failed++;
+				reset();
+				throw new IOException("flush failure " + failed);
+			}
+			flushed.add(toString());
+			reset();
+		}
+
+	}
+
+	private final FlushCountingOutputStream outputStream = new FlushCountingOutputStream();
+	private final List<String> sent = synchronizedList(new ArrayList<>());
+
+	@Test
+	void withoutCoalescingEachWriteIsFlushed() throws IOException {
+		try (StreamConnection connection = streamConnection(0)) {
+			connection.write("a".getBytes());
+			connection.write("b".getBytes());
+			assertThat(outputStream.flushed).containsExactly("a", "b");
+			assertThat(sent).containsExactly("a", "b");
+		}
+	}
+
+	@Test
+	void writesWithinCoalesceTimeAreFlushedAtOnce() throws IOException {
+		try (StreamConnection connection = streamConnection(SECONDS.toMicros(1))) {
+			connection.write("a".getBytes());
+			connection.write("b".getBytes());
+			connection.write("c".getBytes());
+			assertThat(outputStream.flushed).isEmpty();
+			await().untilAsserted(() -> assertThat(outputStream.flushed).containsExactly("abc"));
+			assertThat(sent).containsExactly("a", "b", "c");
+		}
+	}
+
+	@Test
+	void flushesWhenByteBudgetIsExceeded() throws IOException {
+		byte[] bytes = new byte[StreamConnection.COALESCE_BYTE_BUDGET];
+		try (StreamConnection connection = streamConnection(SECONDS.toMicros(60))) {
+			connection.write(bytes);
+			assertThat(outputStream.flushed).hasSize(1);
+			assertThat(sent).hasSize(1);
+		}
+	}
+
+	@Test
+	void pendingWritesAreFlushedOnClose() throws IOException {
+		try (StreamConnection connection = streamConnection(SECONDS.toMicros(60))) {
+			connection.write("a".getBytes());
+		}
+		assertThat(outputStream.flushed).containsExactly("a");
+		assertThat(sent).containsExactly("a");
+	}
+
+	@Test
+	void framesOfFailedBackgroundFlushAreWrittenByNextWrite() throws IOException {
+		outputStream.failures = 1;
+		try (StreamConnection connection = streamConnection(1)) {
+			connection.write("a".getBytes());
+			await().until(() -> outputStream.failed == 1);
+			assertThat(sent).isEmpty();
+			connection.write("b".getBytes());
+			assertThat(outputStream.flushed).containsExactly("ab");
+			assertThat(sent).containsExactly("a", "b");
+		}
+	}
+
+	@Test
+	void persistingFlushFailureIsThrownByClose() throws IOException {
+		outputStream.failures = 2;
+		StreamConnection connection = streamConnection(1);
+		connection.write("a".getBytes());
+		await().until(() -> outputStream.failed == 1);
+		assertThatThrownBy(connection::close).isInstanceOf(IOException.class).hasMessage("flush failure 2")
+				.satisfies(e -> assertThat(e.getSuppressed()).extracting(Throwable::getMessage)
+						.containsExactly("flush failure 1"));
+		assertThat(outputStream.flushed).isEmpty();
+		assertThat(sent).isEmpty();
+	}
+
+	@Test
+	void coalesceTimeMustNotBeNegative() {
+		assertThatIllegalArgumentException().isThrownBy(() -> streamConnection(-1));
+	}
+
+	private StreamConnection streamConnection(long coalesceMicros) {
+		StreamConnection connection = new StreamConnection(nullInputStream(), outputStream,
+				new ArdulinkProtocol2().newByteStreamProcessor(), coalesceMicros);
+		connection.addListener(new ListenerAdapter() {
+			@Override
+			public void sent(byte[] bytes) {
+				sent.add(new String(bytes));
+			}
+		});
+		return connection;
+	}
+
+}
@@ -0,0 +1,113 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core;
+
+import static java.util.Collections.synchronizedList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ardulink.core.messages.api.FromDeviceMessage;
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
+import org.junit.jupiter.api.Test;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class StreamReaderTest {
+
+	private final List<String> received = synchronizedList(new ArrayList<>());
+
+	@Test
+	void availableBytesAreReadAsOneChunk() throws IOException {
+		try (StreamReader reader = streamReader(new ByteArrayInputStream("abc".getBytes()), 1024)) {
+			reader.readUntilClosed();
+		}
+		assertThat(received).containsExactly("abc");
+	}
+
+	@Test
+	void chunksAreLimitedToBufferSize() throws IOException {
+		try (StreamReader reader = streamReader(new ByteArrayInputStream("abcde".getBytes()), 2)) {
+			reader.readUntilClosed();
+		}
+		assertThat(received).containsExactly("ab", "cd", "e");
+	}
+
+	@Test
+	void bufferSizeOfOneReadsByteByByte() throws IOException {
+		try (StreamReader reader = streamReader(new ByteArrayInputStream("abc".getBytes()), 1)) {
+			reader.readUntilClosed();
+		}
+		assertThat(received).containsExactly("a", "b", "c");
+	}
+
+	@Test
+	void streamsNotReportingAvailableBytesAreReadByteByByte() throws IOException {
+		InputStream inputStream = new ByteArrayInputStream("abc".getBytes()) {
+			@Override
+			public synchronized int available() {
+				return 0;
+			}
+		};
+		try (StreamReader reader = streamReader(inputStream, 1024)) {
+			reader.readUntilClosed();
+		}
+		assertThat(received).containsExactly("a", "b", "c");
+	}
+
+	@Test
+	void chunksArePassedToByteStreamProcessor() throws IOException {
+		List<FromDeviceMessage> messages = new ArrayList<>();
+		ByteStreamProcessor byteStreamProcessor = new ArdulinkProtocol2().newByteStreamProcessor();
+		byteStreamProcessor.addListener(messages::add);
+		try (StreamReader reader = streamReader(
+				new ByteArrayInputStream("alp://ared/1/2\nalp://dred/3/1\n".getBytes()), 1024)) {
+			reader.readUntilClosed(byteStreamProcessor);
+		}
+		assertThat(received).containsExactly("alp://ared/1/2\nalp://dred/3/1\n");
+		assertThat(messages).hasSize(2);
+	}
+
+	@Test
+	void bufferSizeMustBePositive() {
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[0]);
+		assertThatIllegalArgumentException().isThrownBy(() -> streamReader(inputStream, 0));
+	}
+
+	private StreamReader streamReader(InputStream inputStream, int bufferSize) {
+		return new StreamReader(inputStream, bufferSize) {
+			@Override
+			protected void received(byte[] bytes) {
+				received.add(new String(bytes));
+			}
+		};
+	}
+
+}
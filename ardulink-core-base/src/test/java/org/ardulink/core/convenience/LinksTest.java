@@ -20,6 +20,7 @@ import static java.lang.String.format;
 import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
 import static java.util.UUID.randomUUID;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.IntStream.range;
@@ -33,6 +34,8 @@ import static org.ardulink.testsupport.mock.TestSupport.extractDelegated;
 import static org.ardulink.testsupport.mock.TestSupport.getMock;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.awaitility.Awaitility.await;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
@@ -46,6 +49,9 @@ import static org.mockito.Mockito.withSettings;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
@@ -63,7 +69,6 @@ import org.ardulink.testsupport.mock.junit5.MockUri;
 import org.ardulink.util.Closeables;
 import org.ardulink.util.ListMultiMap;
 import org.junit.jupiter.api.Test;
-import org.junitpioneer.jupiter.ExpectedToFail;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -369,12 +374,73 @@ class LinksTest {
 	}
 
 	@Test
-	@ExpectedToFail("Needs a ReferenceQueue in Links class")
 	void closesUnunsedLinksThatGetGCed(@MockUri String mockUri) throws IOException {
-		Link link = Links.getLink(mockUri);
-		link = null;
-		System.gc();
-		verify(getMock(link), times(1)).close();
+		Link mock = getMock(Links.getLink(mockUri));
+		await().untilAsserted(() -> {
+			System.gc();
+			// the collected links are closed on the next access
+			close(Links.getLink("ardulink://dummyLink"));
+			verify(mock, times(1)).close();
+		});
+	}
+
+	@Test
+	void creatingALinkDoesNotBlockRequestsForOtherLinks() throws Throwable {
+		CountDownLatch creationStarted = new CountDownLatch(1);
+		CountDownLatch releaseCreation = new CountDownLatch(1);
+		String slowName = "slow-" + randomUUID();
+		LinkFactoryForTest slowFactory = new LinkFactoryForTest(slowName, () -> NO_ATTRIBUTES) {
+			@Override
+			public Link newLink(LinkConfig config) {
+				creationStarted.countDown();
+				try {
+					releaseCreation.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.newLink(config);
+			}
+		};
+		withRegistered(slowFactory).execute(() -> {
+			ExecutorService executor = newFixedThreadPool(2);
+			try {
+				Future<Link> slow1 = executor.submit(() -> link(slowName));
+				creationStarted.await();
+				Future<Link> slow2 = executor.submit(() -> link(slowName));
+				try (Link other = Links.getLink("ardulink://dummyLink")) {
+					assertThat(other).isNotNull();
+				}
+				assertThat(slow2.isDone()).isFalse();
+				releaseCreation.countDown();
+				try (Link link1 = slow1.get(); Link link2 = slow2.get()) {
+					assertThat(link1).isSameAs(link2);
+				}
+			} finally {
+				releaseCreation.countDown();
+				executor.shutdownNow();
+			}
+		});
+	}
+
+	@Test
+	void failedCreationIsNotCached() throws Throwable {
+		AtomicBoolean fail = new AtomicBoolean(true);
+		String name = "failing-" + randomUUID();
+		withRegistered(new LinkFactoryForTest(name, () -> NO_ATTRIBUTES) {
+			@Override
+			public Link newLink(LinkConfig config) {
+				if (fail.get()) {
+					throw new IllegalStateException("cannot create " + name);
+				}
+				return super.newLink(config);
+			}
+		}).execute(() -> {
+			assertThatIllegalStateException().isThrownBy(() -> link(name)).withMessageContaining(name);
+			fail.set(false);
+			try (Link link = link(name)) {
+				assertThat(link).isNotNull();
+			}
+		});
 	}
 
 	private static Link link(String name) {
@@ -0,0 +1,131 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+ 
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+ 
+    http://www.apache.org/licenses/LICENSE-2.0
+ 
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+
+package org.ardulink.core.framing;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class FramingTest {
+
+	private final List<Long> ids = new ArrayList<>();
+	private final List<String> messages = new ArrayList<>();
+	private final FrameReader frameReader = new FrameReader((id, bytes, offset, length) -> {
+		ids.add(id);
+		messages.add(new String(bytes, offset, length));
+	});
+
+	@Test
+	void batchesAllLinesWrittenBeforeFlushIntoOneFrame() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FramedOutputStream framed = new FramedOutputStream(out, false)) {
+			framed.write("alp://ppin/1/2\nalp://pp".getBytes());
+			framed.write("sw/3/1\nalp://ppin/4/5\n".getBytes());
+			framed.flush();
+		}
+		byte[] frames = out.toByteArray();
+		int payloadLength = ((frames[0] & 0xFF) << 8) | (frames[1] & 0xFF);
+		assertThat(frames).hasSize(FrameWriter.HEADER_LENGTH + payloadLength);
+
+		frameReader.process(frames, 0, frames.length);
+		assertThat(messages).containsExactly("alp://ppin/1/2\n", "alp://ppsw/3/1\n", "alp://ppin/4/5\n");
+		assertThat(ids).containsExactly(1L, 2L, 3L);
+	}
+
+	@Test
+	void compressesLargePayloads() throws IOException {
+		String lines = range(0, 100).mapToObj(i -> "alp://ared/1/" + i + "\n").collect(joining());
+		FrameWriter frameWriter = new FrameWriter(true);
+		byte[] bytes = lines.getBytes();
+		frameWriter.add(bytes, 0, bytes.length);
+		byte[] frames = frameWriter.toByteArray();
+		assertThat(frames[2] & FrameWriter.COMPRESSED).isEqualTo(FrameWriter.COMPRESSED);
+		assertThat(frames.length).isLessThan(bytes.length);
+
+		frameReader.process(frames, 0, frames.length);
+		assertThat(messages).containsExactly(lines);
+	}
+
+	@Test
+	void doesNotCompressSmallPayloads() {
+		FrameWriter frameWriter = new FrameWriter(true);
+		frameWriter.add("alp://ppin/1/2\n".getBytes(), 0, 15);
+		assertThat(frameWriter.toByteArray()[2] & FrameWriter.COMPRESSED).isZero();
+	}
+
+	@Test
+	void framesCanBeReadInArbitraryChunks() throws IOException {
+		FrameWriter frameWriter = new FrameWriter(true);
+		for (int i = 0; i < 50; i++) {
+			byte[] message = ("alp://ared/1/" + i + "\n").getBytes();
+			frameWriter.add(message, 0, message.length);
+			frameWriter.toByteArray();
+		}
+		String message = range(0, 100).mapToObj(i -> "x").collect(joining());
+		frameWriter.add(message.getBytes(), 0, message.length());
+		byte[] frames = frameWriter.toByteArray();
+		for (byte b : frames) {
+			frameReader.process(new byte[] { b }, 0, 1);
+		}
+		assertThat(messages).containsExactly(message);
+		assertThat(ids).containsExactly(51L);
+		assertThat(frameReader.missedMessages()).isEqualTo(50);
+	}
+
+	@Test
+	void splitsMessagesNotFittingIntoOneFrame() throws IOException {
+		byte[] message = new byte[FrameWriter.MAX_PAYLOAD_LENGTH * 2];
+		FrameWriter frameWriter = new FrameWriter(false);
+		frameWriter.add(message, 0, message.length);
+		byte[] frames = frameWriter.toByteArray();
+		frameReader.process(frames, 0, frames.length);
+		assertThat(messages.stream().mapToInt(String::length).sum()).isEqualTo(message.length);
+		assertThat(ids).hasSize(3);
+	}
+
+	@Test
+	void framedInputStreamReturnsTheMessagesBytes() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FramedOutputStream framed = new FramedOutputStream(out, true)) {
+			framed.write("alp://ppin/1/2\n".getBytes());
+			framed.flush();
+			framed.skip(2);
+			framed.write("alp://ppsw/3/1\n".getBytes());
+		}
+		try (FramedInputStream in = new FramedInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			assertThat(new String(in.readAllBytes())).isEqualTo("alp://ppin/1/2\nalp://ppsw/3/1\n");
+			assertThat(in.missedMessages()).isEqualTo(2);
+		}
+	}
+
+}
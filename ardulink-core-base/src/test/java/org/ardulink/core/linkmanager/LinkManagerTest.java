@@ -37,6 +37,10 @@ import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
 import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import org.ardulink.core.Link;
@@ -45,6 +49,7 @@ import org.ardulink.core.linkmanager.LinkManager.Configurer;
 import org.ardulink.core.linkmanager.LinkManager.DefaultConfigurer.CacheKey;
 import org.ardulink.core.linkmanager.viaservices.AlLinkWithoutArealLinkFactoryWithConfig;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
 
@@ -145,6 +150,53 @@ class LinkManagerTest {
 		});
 	}
 
+	@Test
+	void factoriesAreReloadedWhenRegistrationsChange() throws Throwable {
+		List<URI> before = sut.listURIs();
+		withRegistered(new AliasUsingLinkFactory()).execute(() -> assertThat(sut.listURIs()).contains(aliasUri()));
+		assertThat(sut.listURIs()).doesNotContain(aliasUri()).isEqualTo(before);
+	}
+
+	@Test
+	void reloadingFactoriesDoesNotChangeTheListedURIs() {
+		List<URI> before = sut.listURIs();
+		sut.reloadLinkFactories();
+		assertThat(sut.listURIs()).isEqualTo(before);
+	}
+
+	@Test
+	void alternatingContextClassloadersDoNotReloadFactories(@TempDir Path dir) throws IOException {
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+		LinkFactoryRegistry registry = LinkFactoryRegistry.forContextClassLoader();
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, contextClassLoader)) {
+			thread.setContextClassLoader(classLoader);
+			LinkFactoryRegistry other = LinkFactoryRegistry.forContextClassLoader();
+			thread.setContextClassLoader(contextClassLoader);
+			assertThat(LinkFactoryRegistry.forContextClassLoader()).isSameAs(registry);
+			thread.setContextClassLoader(classLoader);
+			assertThat(LinkFactoryRegistry.forContextClassLoader()).isSameAs(other).isNotSameAs(registry);
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+	}
+
+	@Test
+	void factoriesAreReloadedWhenContextClassloaderChanges(@TempDir Path dir) throws IOException {
+		List<URI> before = sut.listURIs();
+		Path services = Files.createDirectories(dir.resolve("META-INF").resolve("services"));
+		Files.writeString(services.resolve(LinkFactory.class.getName()), AliasUsingLinkFactory.class.getName());
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, contextClassLoader)) {
+			thread.setContextClassLoader(classLoader);
+			assertThat(sut.listURIs()).contains(aliasUri());
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+		assertThat(sut.listURIs()).isEqualTo(before);
+	}
+
 	@Test
 	void equalsContract() {
 		assertDoesNotThrow(EqualsVerifier.forClass(CacheKey.class)::verify);
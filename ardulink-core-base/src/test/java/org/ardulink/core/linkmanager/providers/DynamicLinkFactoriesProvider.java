@@ -22,6 +22,7 @@ import java.util.Collection;
 import java.util.List;
 
 import org.ardulink.core.linkmanager.LinkFactory;
+import org.ardulink.core.linkmanager.LinkManager;
 import org.junit.jupiter.api.function.Executable;
 
 /**
@@ -44,10 +45,12 @@ public class DynamicLinkFactoriesProvider implements LinkFactoriesProvider {
 
 		public void execute(Executable statement) throws Throwable {
 			factories().addAll(factories);
+			LinkManager.getInstance().reloadLinkFactories();
 			try {
 				statement.execute();
 			} finally {
 				factories().removeAll(factories);
+				LinkManager.getInstance().reloadLinkFactories();
 			}
 		}
 
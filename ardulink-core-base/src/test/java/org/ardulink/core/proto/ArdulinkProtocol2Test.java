@@ -169,7 +169,7 @@ class ArdulinkProtocol2Test {
 		messages.addAll(parse(processor, read(stream, stream.available())));
 	}
 
-	private static ByteStreamProcessor byteStreamProcessor(Protocol protocol) {
+	protected ByteStreamProcessor byteStreamProcessor(Protocol protocol) {
 		return protocol.newByteStreamProcessor();
 	}
 
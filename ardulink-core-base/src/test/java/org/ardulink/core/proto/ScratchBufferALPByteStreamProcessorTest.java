@@ -0,0 +1,102 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.core.proto;
+
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.messages.api.FromDeviceChangeListeningState.Mode.START;
+import static org.ardulink.core.messages.api.FromDeviceChangeListeningState.Mode.STOP;
+import static org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessors.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatRuntimeException;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.util.List;
+
+import org.ardulink.core.Pin;
+import org.ardulink.core.messages.api.FromDeviceChangeListeningState;
+import org.ardulink.core.messages.api.FromDeviceChangeListeningState.Mode;
+import org.ardulink.core.messages.api.FromDeviceMessage;
+import org.ardulink.core.messages.api.FromDeviceMessagePinStateChanged;
+import org.ardulink.core.proto.api.Protocol;
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.ardulink.core.proto.ardulink.ScratchBufferALPByteStreamProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Runs all the tests of {@link ArdulinkProtocol2Test} against the
+ * {@link ScratchBufferALPByteStreamProcessor}.
+ *
+ */
+class ScratchBufferALPByteStreamProcessorTest extends ArdulinkProtocol2Test {
+
+	private final ByteStreamProcessor processor = new ScratchBufferALPByteStreamProcessor();
+
+	@Override
+	protected ByteStreamProcessor byteStreamProcessor(Protocol protocol) {
+		return new ScratchBufferALPByteStreamProcessor();
+	}
+
+	@Test
+	void canReadManyMessagesWithOneProcessor() {
+		List<FromDeviceMessage> messages = parse(processor, "alp://ared/3/512\nalp://dred/4/1\nalp://ared/5/-7\n".getBytes());
+		assertThat(messages).hasSize(3);
+		assertPinStateChanged(messages.get(0), analogPin(3), 512);
+		assertPinStateChanged(messages.get(1), digitalPin(4), true);
+		assertPinStateChanged(messages.get(2), analogPin(5), -7);
+	}
+
+	@Test
+	void canReadChangeListeningState() {
+		List<FromDeviceMessage> messages = parse(processor, "alp://srla/1\nalp://spld/2\n".getBytes());
+		assertThat(messages).hasSize(2);
+		assertChangeListening(messages.get(0), analogPin(1), START);
+		assertChangeListening(messages.get(1), digitalPin(2), STOP);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "alp://ared/3/x\n", "alp://ared/3/\n", "alp://ared/3/99999999999\n", "alp://ared/x/1\n",
+			"alp://ppin/3/1\n" })
+	void throwsOnUnparseableContentAndRecovers(String message) {
+		assertThatRuntimeException().isThrownBy(() -> parse(processor, message.getBytes()));
+		List<FromDeviceMessage> messages = parse(processor, "alp://ared/3/512\n".getBytes());
+		assertThat(messages).singleElement().satisfies(m -> assertPinStateChanged(m, analogPin(3), 512));
+	}
+
+	private static void assertPinStateChanged(FromDeviceMessage message, Pin pin, Object value) {
+		assertThat(message).isInstanceOfSatisfying(FromDeviceMessagePinStateChanged.class, m -> assertSoftly(s -> {
+			s.assertThat(m.getPin()).isEqualTo(pin);
+			s.assertThat(m.getValue()).isEqualTo(value);
+		}));
+	}
+
+	private static void assertChangeListening(FromDeviceMessage message, Pin pin, Mode mode) {
+		assertThat(message).isInstanceOfSatisfying(FromDeviceChangeListeningState.class, m -> assertSoftly(s -> {
+			s.assertThat(m.getPin()).isEqualTo(pin);
+			s.assertThat(m.getMode()).isEqualTo(mode);
+		}));
+	}
+
+}
@@ -0,0 +1,101 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.proto.api;
+
+import static java.lang.reflect.Proxy.isProxyClass;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessageCustom.toDeviceMessageCustom;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessageKeyPress.toDeviceMessageKeyPress;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessageNoTone.toDeviceMessageNoTone;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinStateChange.toDeviceMessagePinStateChange;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePing.toDeviceMessageNoTone;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessageStartListening.toDeviceMessageStartListening;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessageStopListening.toDeviceMessageStopListening;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessageTone.toDeviceMessageTone;
+import static org.ardulink.core.proto.api.MessageIdHolders.addMessageId;
+import static org.ardulink.core.proto.api.MessageIdHolders.messageIdOf;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.util.stream.Stream;
+
+import org.ardulink.core.Tone;
+import org.ardulink.core.messages.api.ToDeviceMessageCustom;
+import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class MessageIdHoldersTest {
+
+	static Stream<Object> defaultMessages() {
+		return Stream.of( //
+				toDeviceMessageNoTone(), //
+				toDeviceMessageStartListening(analogPin(1)), //
+				toDeviceMessageStopListening(digitalPin(2)), //
+				toDeviceMessagePinStateChange(analogPin(3), 4), //
+				toDeviceMessagePinStateChange(digitalPin(5), true), //
+				toDeviceMessageKeyPress('a', 1, 2, 3, 4), //
+				toDeviceMessageTone(Tone.forPin(analogPin(6)).withHertz(440).withDuration(1, SECONDS)), //
+				toDeviceMessageNoTone(analogPin(7)), //
+				toDeviceMessageCustom("a", "b") //
+		);
+	}
+
+	@ParameterizedTest
+	@MethodSource("defaultMessages")
+	void defaultMessagesGetIdWithoutProxy(Object message) {
+		Object withId = addMessageId(message, 42);
+		assertSoftly(s -> {
+			s.assertThat(isProxyClass(withId.getClass())).isFalse();
+			s.assertThat(withId).isInstanceOf(message.getClass().getInterfaces()[0]);
+			s.assertThat(messageIdOf(withId)).isEqualTo(42);
+			s.assertThat(messageIdOf(message)).isEqualTo(-1);
+		});
+	}
+
+	@Test
+	void idCarryingMessageDelegatesValues() {
+		ToDeviceMessagePinStateChange withId = addMessageId(toDeviceMessagePinStateChange(analogPin(3), 4), 42);
+		assertSoftly(s -> {
+			s.assertThat(withId.getPin()).isEqualTo(analogPin(3));
+			s.assertThat(withId.getValue()).isEqualTo(4);
+		});
+	}
+
+	@Test
+	void otherMessagesGetProxied() {
+		ToDeviceMessageCustom custom = () -> new String[] { "a" };
+		ToDeviceMessageCustom withId = addMessageId(custom, 42);
+		assertSoftly(s -> {
+			s.assertThat(isProxyClass(withId.getClass())).isTrue();
+			s.assertThat(withId.getMessages()).containsExactly("a");
+			s.assertThat(messageIdOf(withId)).isEqualTo(42);
+		});
+	}
+
+}
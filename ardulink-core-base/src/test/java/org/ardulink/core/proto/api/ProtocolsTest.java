@@ -18,10 +18,15 @@ package org.ardulink.core.proto.api;
 
 import static org.ardulink.core.proto.api.Protocols.protoByName;
 import static org.ardulink.core.proto.api.Protocols.protocolNames;
+import static org.ardulink.core.proto.api.Protocols.reloadProtocols;
 import static org.ardulink.core.proto.api.Protocols.tryProtoByName;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
 import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
 import org.ardulink.core.proto.dummy.DummyProtocol;
 import org.ardulink.core.proto.inactive.InactiveProtocol;
@@ -61,6 +66,31 @@ class ProtocolsTest {
 		});
 	}
 
+	@Test
+	void protocolsAreCachedUntilReloaded() {
+		Protocol protocol = protoByName(DummyProtocol.NAME);
+		assertThat(protoByName(DummyProtocol.NAME)).isSameAs(protocol);
+		reloadProtocols();
+		assertThat(protoByName(DummyProtocol.NAME)).isNotSameAs(protocol).isExactlyInstanceOf(DummyProtocol.class);
+	}
+
+	@Test
+	void alternatingContextClassloadersDoNotReloadProtocols() throws IOException {
+		Protocol protocol = protoByName(DummyProtocol.NAME);
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[0], contextClassLoader)) {
+			thread.setContextClassLoader(classLoader);
+			Protocol other = protoByName(DummyProtocol.NAME);
+			thread.setContextClassLoader(contextClassLoader);
+			assertThat(protoByName(DummyProtocol.NAME)).isSameAs(protocol);
+			thread.setContextClassLoader(classLoader);
+			assertThat(protoByName(DummyProtocol.NAME)).isSameAs(other).isNotSameAs(protocol);
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+	}
+
 	@Test
 	void inactiveProtcolGetsFilteredOut() {
 		assert verifyInactiveProtocolIsLoadableAtAll();
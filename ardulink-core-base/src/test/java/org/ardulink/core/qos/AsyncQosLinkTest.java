@@ -0,0 +1,157 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+ 
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+ 
+    http://www.apache.org/licenses/LICENSE-2.0
+ 
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+
+
+package org.ardulink.core.qos;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.util.Regex.regex;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.PinWriteBatch;
+import org.ardulink.core.events.RplyEvent;
+import org.ardulink.testsupport.junit5.ArduinoStubExt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+@Timeout(value = 15, unit = SECONDS)
+class AsyncQosLinkTest {
+
+	@RegisterExtension
+	ArduinoStubExt arduinoStub = new ArduinoStubExt();
+
+	@Test
+	void completesFuturesWithTheirReplies() throws Exception {
+		arduinoStub.onReceive(regex(lf("alp:\\/\\/notn\\/3\\?id\\=(\\d)"))).respondWith(lf("alp://rply/ok?id={0}"));
+		try (AsyncQosLink qosLink = newAsyncQosLink(3, 1, DAYS)) {
+			AnalogPin pin = analogPin(3);
+			CompletableFuture<RplyEvent> first = qosLink.sendNoTone(pin);
+			CompletableFuture<RplyEvent> second = qosLink.sendNoTone(pin);
+			CompletableFuture<RplyEvent> third = qosLink.sendNoTone(pin);
+			assertThat(first.get().getId()).isEqualTo(1);
+			assertThat(second.get().getId()).isEqualTo(2);
+			assertThat(third.get().getId()).isEqualTo(3);
+			assertThat(qosLink.inFlight()).isZero();
+		}
+	}
+
+	@Test
+	void pinWriteBatchIsAcknowledgedOnce() throws Exception {
+		arduinoStub.onReceive(regex(lf(
+				"alp:\\/\\/ppsw\\/2\\/1\nalp:\\/\\/ppsw\\/3\\/0\nalp:\\/\\/ppin\\/9\\/128\\?id\\=(\\d)")))
+				.respondWith(lf("alp://rply/ok?id={0}"));
+		try (AsyncQosLink qosLink = newAsyncQosLink(2, 1, DAYS)) {
+			PinWriteBatch batch = PinWriteBatch.builder().switchDigitalPin(digitalPin(2), true)
+					.switchDigitalPin(digitalPin(3), false).switchAnalogPin(analogPin(9), 128).build();
+			CompletableFuture<RplyEvent> first = qosLink.switchPins(batch);
+			CompletableFuture<RplyEvent> second = qosLink.switchPins(batch);
+			assertThat(first.get().getId()).isEqualTo(1);
+			assertThat(second.get().getId()).isEqualTo(2);
+			assertThat(qosLink.inFlight()).isZero();
+		}
+	}
+
+	@Test
+	void completesFutureWithKoReply() throws Exception {
+		arduinoStub.onReceive(regex(lf("alp:\\/\\/notn\\/3\\?id\\=(\\d)"))).respondWith(lf("alp://rply/ko?id={0}"));
+		try (AsyncQosLink qosLink = newAsyncQosLink(1, 1, DAYS)) {
+			assertThat(qosLink.sendNoTone(analogPin(3)).get().isOk()).isFalse();
+		}
+	}
+
+	@Test
+	void completesFutureExceptionallyIfNoResponseReceivedWithinHalfAsecond() throws Exception {
+		arduinoStub.onReceive(regex(lf("alp:\\/\\/notn\\/3\\?id\\=(\\d)"))).doNotRespond();
+		try (AsyncQosLink qosLink = newAsyncQosLink(1, 500, MILLISECONDS)) {
+			CompletableFuture<RplyEvent> future = qosLink.sendNoTone(analogPin(3));
+			assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class)
+					.hasCauseInstanceOf(TimeoutException.class);
+			assertThat(qosLink.inFlight()).isZero();
+		}
+	}
+
+	@Test
+	void blocksIfWindowIsFullUntilReplyIsReceived() throws Exception {
+		arduinoStub.onReceive(regex(lf("alp:\\/\\/notn\\/3\\?id\\=(\\d)"))).doNotRespond();
+		try (AsyncQosLink qosLink = newAsyncQosLink(2, 1, DAYS)) {
+			AnalogPin pin = analogPin(3);
+			CompletableFuture<RplyEvent> first = qosLink.sendNoTone(pin);
+			qosLink.sendNoTone(pin);
+			assertThat(qosLink.inFlight()).isEqualTo(2);
+
+			CompletableFuture<CompletableFuture<RplyEvent>> third = CompletableFuture.supplyAsync(() -> {
+				try {
+					return qosLink.sendNoTone(pin);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			});
+			assertThatThrownBy(() -> third.get(250, MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+			arduinoStub.simulateArduinoSends(lf("alp://rply/ok?id=1"));
+			assertThat(first.get().isOk()).isTrue();
+			assertThat(third.get()).isNotDone();
+			assertThat(qosLink.inFlight()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void cancelsPendingFuturesOnClose() throws Exception {
+		arduinoStub.onReceive(regex(lf("alp:\\/\\/notn\\/3\\?id\\=(\\d)"))).doNotRespond();
+		CompletableFuture<RplyEvent> future;
+		try (AsyncQosLink qosLink = newAsyncQosLink(1, 1, DAYS)) {
+			future = qosLink.sendNoTone(analogPin(3));
+		}
+		assertThat(future).isCancelled();
+	}
+
+	@Test
+	void windowMustBePositive() {
+		assertThatIllegalArgumentException().isThrownBy(() -> newAsyncQosLink(0, 1, DAYS))
+				.withMessageContaining("maxInFlight");
+	}
+
+	private AsyncQosLink newAsyncQosLink(int maxInFlight, long timeout, TimeUnit timeUnit) throws IOException {
+		return new AsyncQosLink(arduinoStub.link(), maxInFlight, timeout, timeUnit);
+	}
+
+	private static String lf(String string) {
+		return string + "\n";
+	}
+
+}
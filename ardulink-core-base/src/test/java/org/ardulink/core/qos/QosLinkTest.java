@@ -21,6 +21,7 @@ import static java.util.concurrent.TimeUnit.DAYS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
 import static org.ardulink.util.Regex.regex;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
@@ -30,6 +31,7 @@ import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
 import org.ardulink.core.Pin.AnalogPin;
+import org.ardulink.core.PinWriteBatch;
 import org.ardulink.core.Tone;
 import org.ardulink.testsupport.junit5.ArduinoStubExt;
 import org.junit.jupiter.api.Test;
@@ -61,6 +63,19 @@ class QosLinkTest {
 		}
 	}
 
+	@Test
+	void pinWriteBatchIsAcknowledgedOnce() throws Exception {
+		arduinoStub.onReceive(regex(lf(
+				"alp:\\/\\/ppsw\\/2\\/1\nalp:\\/\\/ppsw\\/3\\/0\nalp:\\/\\/ppin\\/9\\/128\\?id\\=(\\d)")))
+				.respondWith(lf("alp://rply/ok?id={0}"));
+		try (QosLink qosLink = newQosLink(MAX_VALUE, DAYS)) {
+			PinWriteBatch batch = PinWriteBatch.builder().switchDigitalPin(digitalPin(2), true)
+					.switchDigitalPin(digitalPin(3), false).switchAnalogPin(analogPin(9), 128).build();
+			assertThat(qosLink.switchPins(batch)).isEqualTo(1);
+			assertThat(qosLink.switchPins(batch)).isEqualTo(2);
+		}
+	}
+
 	@Test
 	void doesThrowExceptionIfNotResponseReceivedWithinHalfAsecond() throws Exception {
 		arduinoStub.onReceive(regex(lf("alp:\\/\\/notn\\/3\\?id\\=(\\d)"))).doNotRespond();
@@ -0,0 +1,206 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.proto.firmata;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.stream.Collectors.joining;
+import static org.ardulink.util.Preconditions.checkNotNull;
+import static org.ardulink.util.SystemProperties.systemProperty;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin;
+import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Persists the capabilities reported by Firmata boards, one file per firmware
+ * (name and version), so connecting to a board running the same firmware again
+ * does not need to query them. The cache is best effort: Entries that cannot
+ * be read are treated as missing, failing writes are logged.<br>
+ * The {@link FirmataProtocol}s use the cache if the system property
+ * {@value #CACHE_DIRECTORY_PROPERTY} is set to the directory to store the
+ * entries in.
+ *
+ */
+public class CapabilityCache {
+
+	public static final String CACHE_DIRECTORY_PROPERTY = "protocol.firmata.capabilitycache.dir";
+
+	private static final Logger logger = LoggerFactory.getLogger(CapabilityCache.class);
+
+	private static final String SUFFIX = ".capabilities";
+	private static final String FIRMWARE_KEY = "firmware";
+	private static final String PIN_KEY_PREFIX = "pin.";
+
+	private final Path directory;
+
+	public CapabilityCache(Path directory) {
+		this.directory = checkNotNull(directory, "directory must not be null");
+	}
+
+	/**
+	 * The cache configured by the system property
+	 * {@value #CACHE_DIRECTORY_PROPERTY}.
+	 * 
+	 * @return the cache or empty if the property is not set
+	 */
+	public static Optional<CapabilityCache> fromSystemProperty() {
+		return systemProperty(CACHE_DIRECTORY_PROPERTY).filter(d -> !d.isEmpty())
+				.map(d -> new CapabilityCache(Path.of(d)));
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Loads the capabilities stored for the passed firmware.
+	 * 
+	 * @param firmware the firmware's name and version
+	 * @return the supported modes by pin index or empty if there is no (readable)
+	 *         entry for the firmware
+	 */
+	public Optional<Map<Integer, Set<Mode>>> load(String firmware) {
+		Path file = file(firmware);
+		if (!Files.isRegularFile(file)) {
+			return Optional.empty();
+		}
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(file)) {
+			properties.load(reader);
+		} catch (IOException e) {
+			logger.warn("Cannot read capabilities of {} from {}", firmware, file, e);
+			return Optional.empty();
+		}
+		if (!firmware.equals(properties.getProperty(FIRMWARE_KEY))) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(unmodifiableMap(pins(properties)));
+		} catch (IllegalArgumentException e) {
+			logger.warn("Ignoring corrupt capabilities of {} in {}", firmware, file, e);
+			return Optional.empty();
+		}
+	}
+
+	private static Map<Integer, Set<Mode>> pins(Properties properties) {
+		Map<Integer, Set<Mode>> pins = new TreeMap<>();
+		for (String key : properties.stringPropertyNames()) {
+			if (key.startsWith(PIN_KEY_PREFIX)) {
+				Set<Mode> modes = new LinkedHashSet<>();
+				for (String mode : properties.getProperty(key).split(",")) {
+					if (!mode.isEmpty()) {
+						modes.add(Mode.valueOf(mode));
+					}
+				}
+				pins.put(Integer.valueOf(key.substring(PIN_KEY_PREFIX.length())), modes);
+			}
+		}
+		return pins;
+	}
+
+	/**
+	 * Stores the passed capabilities for the passed firmware, replacing a
+	 * previously stored entry.
+	 * 
+	 * @param firmware the firmware's name and version
+	 * @param pins     the pins of the board
+	 */
+	public void store(String firmware, Collection<FirmataPin> pins) {
+		Properties properties = new Properties();
+		properties.setProperty(FIRMWARE_KEY, firmware);
+		for (FirmataPin pin : pins) {
+			properties.setProperty(PIN_KEY_PREFIX + pin.index(),
+					pin.getSupportedMode().stream().map(Mode::name).collect(joining(",")));
+		}
+		Path file = file(firmware);
+		try {
+			Files.createDirectories(directory);
+			Path tmp = Files.createTempFile(directory, null, null);
+			try {
+				try (Writer writer = Files.newBufferedWriter(tmp)) {
+					properties.store(writer, null);
+				}
+				Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+			} finally {
+				// does only exist if writing or moving failed
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException e) {
+			logger.warn("Cannot write capabilities of {} to {}", firmware, file, e);
+		}
+	}
+
+	/**
+	 * Removes the entry of the passed firmware so its capabilities get queried
+	 * again on the next connect.
+	 * 
+	 * @param firmware the firmware's name and version
+	 * @throws IOException if the entry exists but cannot be deleted
+	 */
+	public void invalidate(String firmware) throws IOException {
+		Files.deleteIfExists(file(firmware));
+	}
+
+	/**
+	 * Removes all entries.
+	 * 
+	 * @throws IOException if the entries cannot be deleted
+	 */
+	public void invalidateAll() throws IOException {
+		if (Files.isDirectory(directory)) {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+				for (Path file : files) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	private Path file(String firmware) {
+		return directory.resolve(firmware.replaceAll("[^A-Za-z0-9._-]", "_") + SUFFIX);
+	}
+
+	@Override
+	public String toString() {
+		return "CapabilityCache [directory=" + directory + "]";
+	}
+
+}
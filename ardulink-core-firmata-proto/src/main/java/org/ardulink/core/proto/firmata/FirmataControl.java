@@ -0,0 +1,186 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.proto.firmata;
+
+import static java.util.Arrays.asList;
+import static org.ardulink.util.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.ardulink.core.ConnectionBasedLink;
+import org.ardulink.core.EncodedMessageSender;
+import org.ardulink.core.Link;
+import org.ardulink.core.Pin;
+import org.ardulink.core.convenience.LinkDelegate;
+import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataByteStreamProcessor;
+import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin;
+import org.ardulink.core.qos.QosLink;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Firmata specific control of a {@link Link} using the {@link FirmataProtocol}
+ * (or one of its variants): Sets the sampling interval, switches reporting of
+ * many pins in one frame and gives access to the capabilities reported by the
+ * board. Less reports mean less bandwidth used, more reports less latency.
+ *
+ */
+public class FirmataControl {
+
+	private final EncodedMessageSender sender;
+	private final FirmataByteStreamProcessor byteStreamProcessor;
+
+	private FirmataControl(EncodedMessageSender sender, FirmataByteStreamProcessor byteStreamProcessor) {
+		this.sender = sender;
+		this.byteStreamProcessor = byteStreamProcessor;
+	}
+
+	/**
+	 * Creates a control for the passed link, {@link LinkDelegate}s and
+	 * {@link QosLink}s are unwrapped.
+	 * 
+	 * @param link the link to control
+	 * @return the control
+	 * @throws IllegalArgumentException if the link does not use the Firmata
+	 *                                  protocol
+	 */
+	public static FirmataControl firmataControl(Link link) {
+		Link root = root(link);
+		checkArgument(root instanceof ConnectionBasedLink
+				&& ((ConnectionBasedLink) root).getByteStreamProcessor() instanceof FirmataByteStreamProcessor,
+				"%s does not use the %s protocol", link, FirmataProtocol.NAME);
+		ConnectionBasedLink connectionBasedLink = (ConnectionBasedLink) root;
+		return new FirmataControl(connectionBasedLink,
+				(FirmataByteStreamProcessor) connectionBasedLink.getByteStreamProcessor());
+	}
+
+	@SuppressWarnings("deprecation") // QosLink offers no other way to reach the link it wraps
+	private static Link root(Link link) {
+		while (true) {
+			if (link instanceof LinkDelegate) {
+				link = ((LinkDelegate) link).getDelegate();
+			} else if (link instanceof QosLink) {
+				link = ((QosLink) link).getDelegate();
+			} else {
+				return link;
+			}
+		}
+	}
+
+	/**
+	 * Sets the interval the board samples and reports analog values in.
+	 * 
+	 * @param interval the interval
+	 * @param timeUnit the unit of the interval, the board's resolution is
+	 *                 milliseconds
+	 * @return this control
+	 * @throws IOException if the message could not be sent
+	 */
+	public FirmataControl samplingInterval(long interval, TimeUnit timeUnit) throws IOException {
+		long millis = timeUnit.toMillis(interval);
+		checkArgument(millis <= Integer.MAX_VALUE, "Sampling interval %s %s too long", interval, timeUnit);
+		sender.sendEncoded(() -> byteStreamProcessor.samplingInterval((int) millis));
+		return this;
+	}
+
+	/**
+	 * Enables reporting of the passed pins sending one frame.
+	 * 
+	 * @param pins the pins to report
+	 * @return this control
+	 * @throws IOException if the message could not be sent
+	 * @see #startReporting(Collection)
+	 */
+	public FirmataControl startReporting(Pin... pins) throws IOException {
+		return startReporting(asList(pins));
+	}
+
+	/**
+	 * Enables reporting of the passed pins sending one frame: The digital pins
+	 * are switched to input, then reporting is enabled for each of their ports
+	 * and each of the analog pins. Other than {@link Link#startListening(Pin)}
+	 * this does not register any listener.
+	 * 
+	 * @param pins the pins to report
+	 * @return this control
+	 * @throws IOException if the message could not be sent
+	 */
+	public FirmataControl startReporting(Collection<? extends Pin> pins) throws IOException {
+		sender.sendEncoded(() -> byteStreamProcessor.reporting(pins, true));
+		return this;
+	}
+
+	/**
+	 * Disables reporting of the passed pins sending one frame.
+	 * 
+	 * @param pins the pins to no longer report
+	 * @return this control
+	 * @throws IOException if the message could not be sent
+	 * @see #stopReporting(Collection)
+	 */
+	public FirmataControl stopReporting(Pin... pins) throws IOException {
+		return stopReporting(asList(pins));
+	}
+
+	/**
+	 * Disables reporting of the passed pins sending one frame. Since digital pins
+	 * are reported per port, this disables the reporting of all pins sharing a
+	 * port with one of the passed digital pins.
+	 * 
+	 * @param pins the pins to no longer report
+	 * @return this control
+	 * @throws IOException if the message could not be sent
+	 */
+	public FirmataControl stopReporting(Collection<? extends Pin> pins) throws IOException {
+		sender.sendEncoded(() -> byteStreamProcessor.reporting(pins, false));
+		return this;
+	}
+
+	/**
+	 * The pins and their supported modes as reported by the board. The board is
+	 * queried once after it reported its firmware, unless the capabilities of its
+	 * firmware are found in the {@link CapabilityCache}.
+	 * 
+	 * @return the pins by their index, empty if the board did not respond (yet)
+	 */
+	public Map<Integer, FirmataPin> capabilities() {
+		return byteStreamProcessor.capabilities();
+	}
+
+	/**
+	 * Drops the known capabilities, including the {@link CapabilityCache} entry of
+	 * the board's firmware, and queries them again, e.g. after the board has been
+	 * flashed with a changed firmware of the same name and version.
+	 * 
+	 * @return this control
+	 * @throws IOException if the cache entry could not be deleted or the query
+	 *                     could not be sent
+	 */
+	public FirmataControl invalidateCapabilities() throws IOException {
+		sender.sendEncoded(byteStreamProcessor::invalidateCapabilities);
+		return this;
+	}
+
+}
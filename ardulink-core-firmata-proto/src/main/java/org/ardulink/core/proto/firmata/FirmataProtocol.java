@@ -18,9 +18,9 @@ package org.ardulink.core.proto.firmata;
 
 import static java.lang.Boolean.TRUE;
 import static java.lang.String.format;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
-import static java.util.stream.IntStream.range;
 import static org.ardulink.core.Pin.analogPin;
 import static org.ardulink.core.Pin.digitalPin;
 import static org.ardulink.core.Pin.Type.ANALOG;
@@ -28,48 +28,67 @@ import static org.ardulink.core.Pin.Type.DIGITAL;
 import static org.ardulink.core.messages.impl.DefaultFromDeviceChangeListeningState.fromDeviceChangeListeningState;
 import static org.ardulink.core.messages.impl.DefaultFromDeviceMessageCustom.fromDeviceMessageCustom;
 import static org.ardulink.core.messages.impl.DefaultFromDeviceMessageInfo.fromDeviceMessageInfo;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceMessagePinStateChanged.fromDeviceMessagePinStateChanged;
 import static org.ardulink.core.messages.impl.DefaultFromDeviceMessageReply.fromDeviceMessageReply;
+import static org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode.DIGITAL_INPUT;
 import static org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode.PWM;
 import static org.ardulink.util.Bytes.concat;
 import static org.ardulink.util.Maps.stringToMap;
+import static org.ardulink.util.Preconditions.checkArgument;
+import static org.ardulink.util.Preconditions.checkNotNull;
 import static org.ardulink.util.Primitives.tryParseAs;
 import static org.firmata4j.firmata.FirmataMessageFactory.setMode;
 import static org.firmata4j.firmata.parser.FirmataEventType.ANALOG_MESSAGE_RESPONSE;
 import static org.firmata4j.firmata.parser.FirmataEventType.DIGITAL_MESSAGE_RESPONSE;
+import static org.firmata4j.firmata.parser.FirmataEventType.FIRMWARE_MAJOR;
 import static org.firmata4j.firmata.parser.FirmataEventType.FIRMWARE_MESSAGE;
+import static org.firmata4j.firmata.parser.FirmataEventType.FIRMWARE_MINOR;
+import static org.firmata4j.firmata.parser.FirmataEventType.FIRMWARE_NAME;
+import static org.firmata4j.firmata.parser.FirmataEventType.PIN_CAPABILITIES_FINISHED;
 import static org.firmata4j.firmata.parser.FirmataEventType.PIN_CAPABILITIES_MESSAGE;
 import static org.firmata4j.firmata.parser.FirmataEventType.PIN_ID;
 import static org.firmata4j.firmata.parser.FirmataEventType.PIN_SUPPORTED_MODES;
 import static org.firmata4j.firmata.parser.FirmataEventType.PIN_VALUE;
 import static org.firmata4j.firmata.parser.FirmataEventType.STRING_MESSAGE;
 import static org.firmata4j.firmata.parser.FirmataEventType.SYSEX_CUSTOM_MESSAGE;
+import static org.firmata4j.firmata.parser.FirmataToken.ANALOG_MESSAGE;
 import static org.firmata4j.firmata.parser.FirmataToken.CAPABILITY_QUERY;
+import static org.firmata4j.firmata.parser.FirmataToken.DIGITAL_MESSAGE;
 import static org.firmata4j.firmata.parser.FirmataToken.END_SYSEX;
+import static org.firmata4j.firmata.parser.FirmataToken.EXTENDED_ANALOG;
 import static org.firmata4j.firmata.parser.FirmataToken.PIN_MODE_IGNORE;
 import static org.firmata4j.firmata.parser.FirmataToken.REPORT_ANALOG;
 import static org.firmata4j.firmata.parser.FirmataToken.REPORT_DIGITAL;
 import static org.firmata4j.firmata.parser.FirmataToken.REPORT_VERSION;
+import static org.firmata4j.firmata.parser.FirmataToken.SAMPLING_INTERVAL;
+import static org.firmata4j.firmata.parser.FirmataToken.SET_PIN_MODE;
 import static org.firmata4j.firmata.parser.FirmataToken.START_SYSEX;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.ardulink.core.Pin;
-import org.ardulink.core.Pin.Type;
 import org.ardulink.core.Tone;
 import org.ardulink.core.messages.api.FromDeviceChangeListeningState;
 import org.ardulink.core.messages.api.ToDeviceMessageCustom;
 import org.ardulink.core.messages.api.ToDeviceMessageKeyPress;
 import org.ardulink.core.messages.api.ToDeviceMessageNoTone;
 import org.ardulink.core.messages.api.ToDeviceMessagePinStateChange;
+import org.ardulink.core.messages.api.ToDeviceMessagePinWriteBatch;
 import org.ardulink.core.messages.api.ToDeviceMessagePing;
 import org.ardulink.core.messages.api.ToDeviceMessageStartListening;
 import org.ardulink.core.messages.api.ToDeviceMessageStopListening;
 import org.ardulink.core.messages.api.ToDeviceMessageTone;
-import org.ardulink.core.messages.impl.DefaultFromDeviceMessagePinStateChanged;
 import org.ardulink.core.proto.api.MessageIdHolder;
 import org.ardulink.core.proto.api.Protocol;
 import org.ardulink.core.proto.api.bytestreamproccesors.AbstractByteStreamProcessor;
@@ -98,10 +117,8 @@ public class FirmataProtocol implements Protocol {
 	public static class FirmataPin {
 
 		private int index;
-		private int value;
 		private final Set<Mode> supportedModes = new CopyOnWriteArraySet<Mode>();
 		private final Set<Mode> supportedModes_ = unmodifiableSet(supportedModes);
-		private Mode currentMode;
 
 		public enum Mode {
 			DIGITAL_INPUT, DIGITAL_OUTPUT, ANALOG_INPUT, PWM, SERVO, SHIFT, I2C, ONEWIRE, STEPPER, ENCODER, SERIAL,
@@ -135,10 +152,6 @@ public class FirmataProtocol implements Protocol {
 			return new FirmataPin(index);
 		}
 
-		public int getValue() {
-			return value;
-		}
-
 		public void addSupportedMode(Mode mode) {
 			if (mode != null) {
 				this.supportedModes.add(mode);
@@ -149,18 +162,36 @@ public class FirmataProtocol implements Protocol {
 			return this.supportedModes_;
 		}
 
-		public boolean modeIs(Mode other) {
-			return currentMode == other;
-		}
-
 		@Override
 		public String toString() {
-			return "FirmataPin [index=" + index + ", value=" + value + ", supportedModes=" + supportedModes
-					+ ", supportedModes_=" + supportedModes_ + ", currentMode=" + currentMode + "]";
+			return "FirmataPin [index=" + index + ", supportedModes=" + supportedModes + "]";
 		}
 
 	}
 
+	private final CapabilityCache capabilityCache;
+
+	/**
+	 * Creates the protocol using the {@link CapabilityCache} configured by the
+	 * system property {@value CapabilityCache#CACHE_DIRECTORY_PROPERTY}, if any.
+	 */
+	public FirmataProtocol() {
+		this.capabilityCache = null;
+	}
+
+	/**
+	 * Creates the protocol using the passed {@link CapabilityCache}.
+	 * 
+	 * @param capabilityCache the cache for the capabilities of the boards
+	 */
+	public FirmataProtocol(CapabilityCache capabilityCache) {
+		this.capabilityCache = checkNotNull(capabilityCache, "capabilityCache must not be null");
+	}
+
+	CapabilityCache capabilityCache() {
+		return capabilityCache == null ? CapabilityCache.fromSystemProperty().orElse(null) : capabilityCache;
+	}
+
 	@Override
 	public String getName() {
 		return NAME;
@@ -171,42 +202,39 @@ public class FirmataProtocol implements Protocol {
 		return true;
 	}
 
-	private static class FirmataByteStreamProcessor extends AbstractByteStreamProcessor {
+	/**
+	 * Encodes messages and handles the decoded ones, decoding itself is up to the
+	 * subclasses.
+	 */
+	abstract static class FirmataByteStreamProcessor extends AbstractByteStreamProcessor {
 
 		private static final byte TONE = (byte) 0x5F;
 		private static final byte TONE_ON = (byte) 0x00;
 		private static final byte TONE_OFF = (byte) 0x01;
 
+		/**
+		 * Large enough for a pin mode message followed by an extended analog message.
+		 */
+		private static final int ENCODE_BUFFER_LEN = 16;
+
 		private static final String REPLY_PREFIX = "rply|";
 		private static final String LISTEN_PREFIX = "listen|";
+		private static final byte[] CAPABILITIES_QUERY = { START_SYSEX, CAPABILITY_QUERY, END_SYSEX };
+
 		private final AtomicBoolean capabilitiesRequested = new AtomicBoolean(false);
+		private final CapabilityCache capabilityCache;
+		private volatile String firmware;
+		private final PortStateRegister register = new PortStateRegister();
+		private final byte[] encodeBuffer = new byte[ENCODE_BUFFER_LEN];
+		private int encoded;
 		private volatile OutboundListener outboundListener;
 
-		private abstract class PinStateChangedConsumer extends Consumer<Event> {
-
-			@Override
-			public void accept(Event event) {
-				String pinString = String.valueOf(event.getBodyItem(PIN_ID));
-				Integer pinInt = tryParseAs(Integer.class, pinString).orElseThrow(
-						() -> new IllegalStateException(format("Cannot parse %s as pin number", pinString)));
-				fireEvent(new DefaultFromDeviceMessagePinStateChanged(createPin(pinInt),
-						convertValue(event.getBodyItem(PIN_VALUE))));
-			}
-
-			protected abstract Object convertValue(Object value);
-
-			protected abstract Pin createPin(Integer pin);
-		}
-
-		private final FiniteStateMachine delegate = new FiniteStateMachine(WaitingForMessageState.class);
-
-		public FirmataByteStreamProcessor() {
-			delegate.addHandler(FIRMWARE_MESSAGE, firmwareConsumer());
-			delegate.addHandler(PIN_CAPABILITIES_MESSAGE, capabilitiesConsumer());
-			delegate.addHandler(ANALOG_MESSAGE_RESPONSE, analogPinStateChangedConsumer());
-			delegate.addHandler(DIGITAL_MESSAGE_RESPONSE, digitalPinStateChangedConsumer());
-			delegate.addHandler(STRING_MESSAGE, stringMessageConsumer());
-			delegate.addHandler(SYSEX_CUSTOM_MESSAGE, sysexCustomMessageConsumer());
+		/**
+		 * @param capabilityCache the cache to load the capabilities from and store
+		 *                        them to, may be <code>null</code>
+		 */
+		FirmataByteStreamProcessor(CapabilityCache capabilityCache) {
+			this.capabilityCache = capabilityCache;
 		}
 
 		@Override
@@ -214,6 +242,15 @@ public class FirmataProtocol implements Protocol {
 			this.outboundListener = listener;
 		}
 
+		/**
+		 * Digital messages carry the state of the whole port kept in the
+		 * {@link PortStateRegister}.
+		 */
+		@Override
+		public boolean isStatefulEncoder() {
+			return true;
+		}
+
 		private void sendOutbound(byte[] bytes) {
 			OutboundListener listener = this.outboundListener;
 			if (listener != null) {
@@ -221,88 +258,85 @@ public class FirmataProtocol implements Protocol {
 			}
 		}
 
-		private PinStateChangedConsumer analogPinStateChangedConsumer() {
-			return new PinStateChangedConsumer() {
-
-				@Override
-				protected Object convertValue(Object value) {
-					return value;
-				}
-
-				@Override
-				protected Pin createPin(Integer pin) {
-					return analogPin(pin);
-				}
-
-			};
+		static String firmware(String name, int major, int minor) {
+			return name + "-" + major + "." + minor;
 		}
 
-		private PinStateChangedConsumer digitalPinStateChangedConsumer() {
-			return new PinStateChangedConsumer() {
-
-				@Override
-				protected Object convertValue(Object value) {
-					return value.equals(1);
-				}
+		/**
+		 * Called when the board reported its firmware: Fires an info message and
+		 * requests the capabilities once, unless they are found in the
+		 * {@link CapabilityCache}.
+		 * 
+		 * @param firmware the firmware's name and version, see
+		 *                 {@link #firmware(String, int, int)}
+		 */
+		void firmwareReceived(String firmware) {
+			boolean query = false;
+			if (capabilitiesRequested.compareAndSet(false, true)) {
+				this.firmware = firmware;
+				query = !loadCapabilities(firmware);
+			}
+			fireEvent(fromDeviceMessageInfo());
+			if (query) {
+				sendOutbound(CAPABILITIES_QUERY.clone());
+			}
+		}
 
-				@Override
-				protected Pin createPin(Integer pin) {
-					return digitalPin(pin);
-				}
+		private boolean loadCapabilities(String firmware) {
+			Optional<Map<Integer, Set<Mode>>> cached = capabilityCache == null ? Optional.empty()
+					: capabilityCache.load(firmware);
+			cached.ifPresent(c -> c.forEach((index, modes) -> {
+				FirmataPin pin = FirmataPin.fromIndex(index);
+				modes.forEach(pin::addSupportedMode);
+				pins.put(index, pin);
+			}));
+			return cached.isPresent();
+		}
 
-			};
+		/**
+		 * Called after the last pin of the capabilities response has been passed to
+		 * {@link #capabilitiesReceived(int, byte[])}.
+		 */
+		void capabilitiesFinished() {
+			String firmware = this.firmware;
+			if (capabilityCache != null && firmware != null && !pins.isEmpty()) {
+				capabilityCache.store(firmware, new TreeMap<>(pins).values());
+			}
 		}
 
-		private Consumer<Event> firmwareConsumer() {
-			return new Consumer<Event>() {
-				@Override
-				public void accept(Event t) {
-					fireEvent(fromDeviceMessageInfo());
-					if (capabilitiesRequested.compareAndSet(false, true)) {
-						sendOutbound(new byte[] { START_SYSEX, CAPABILITY_QUERY, END_SYSEX });
-					}
-				}
-			};
+		/**
+		 * Drops the capabilities known for the board, including its
+		 * {@link CapabilityCache} entry.
+		 * 
+		 * @return the capabilities query to send to the board
+		 * @throws IOException if the cache entry cannot be deleted
+		 */
+		byte[] invalidateCapabilities() throws IOException {
+			String firmware = this.firmware;
+			if (capabilityCache != null && firmware != null) {
+				capabilityCache.invalidate(firmware);
+			}
+			pins.clear();
+			return CAPABILITIES_QUERY.clone();
 		}
 
-		private Consumer<Event> capabilitiesConsumer() {
-			return new Consumer<Event>() {
-				@Override
-				public void accept(Event event) {
-					byte index = (Byte) event.getBodyItem(PIN_ID);
-					FirmataPin pin = FirmataPin.fromIndex(index);
-					byte[] modes = (byte[]) event.getBodyItem(PIN_SUPPORTED_MODES);
-					range(0, modes.length).forEach(i -> pin.addSupportedMode(Mode.fromByteValue(modes[i])));
-					pins.put(pin.index(), pin);
-				}
-			};
+		void capabilitiesReceived(int index, byte[] modes) {
+			FirmataPin pin = FirmataPin.fromIndex(index);
+			for (byte mode : modes) {
+				pin.addSupportedMode(Mode.fromByteValue(mode));
+			}
+			pins.put(pin.index(), pin);
 		}
 
-		private Consumer<Event> stringMessageConsumer() {
-			return new Consumer<Event>() {
-				@Override
-				public void accept(Event event) {
-					String message = (String) event.getBodyItem("stringMessage");
-					if (message != null) {
-						handleStringMessage(message);
-					}
-				}
-			};
+		void pinStateChanged(Pin pin, Object value) {
+			fireEvent(fromDeviceMessagePinStateChanged(pin, value));
 		}
 
-		private Consumer<Event> sysexCustomMessageConsumer() {
-			return new Consumer<Event>() {
-				@Override
-				public void accept(Event event) {
-					byte[] data = (byte[]) event.getBodyItem("sysexCustomMessage");
-					if (data != null) {
-						fireEvent(fromDeviceMessageCustom(bytesToString(data)));
-					}
-				}
-			};
+		void sysexCustomMessageReceived(byte[] data, int offset, int length) {
+			fireEvent(fromDeviceMessageCustom(bytesToString(data, offset, length)));
 		}
 
-		private void handleStringMessage(String message) {
+		void stringMessageReceived(String message) {
 			if (message.startsWith(REPLY_PREFIX)) {
 				handleReplyMessage(message);
 			} else if (message.startsWith(LISTEN_PREFIX)) {
@@ -339,25 +373,15 @@ public class FirmataProtocol implements Protocol {
 			}
 		}
 
-		private static String bytesToString(byte[] data) {
+		static String bytesToString(byte[] data, int offset, int length) {
 			StringBuilder sb = new StringBuilder();
-			int count = data.length / 2;
+			int count = length / 2;
 			for (int i = 0; i < count; i++) {
-				sb.append((char) ((data[i * 2] & 0xff) | ((data[i * 2 + 1] & 0xff) << 7)));
+				sb.append((char) ((data[offset + i * 2] & 0xff) | ((data[offset + i * 2 + 1] & 0xff) << 7)));
 			}
 			return sb.toString();
 		}
 
-		@Override
-		public void process(byte[] bytes) {
-			delegate.process(bytes);
-		}
-
-		@Override
-		public void process(byte b) {
-			delegate.process(b);
-		}
-
 		@Override
 		public byte[] toDevice(ToDeviceMessagePing ping) {
 			return new byte[] { REPORT_VERSION };
@@ -365,8 +389,14 @@ public class FirmataProtocol implements Protocol {
 
 		@Override
 		public byte[] toDevice(ToDeviceMessageStartListening startListening) {
+			int pinNum = startListening.getPin().pinNum();
 			byte[] msg1 = reportingMessage(startListening.getPin(), true);
-			byte[] msg2 = setMode((byte) startListening.getPin().pinNum(), org.firmata4j.Pin.Mode.INPUT);
+			byte[] msg2 = setMode((byte) pinNum, org.firmata4j.Pin.Mode.INPUT);
+			if (pinNum < PortStateRegister.PINS) {
+				synchronized (register) {
+					register.mode(pinNum, DIGITAL_INPUT);
+				}
+			}
 			return concat(msg2, msg1);
 		}
 
@@ -375,67 +405,175 @@ public class FirmataProtocol implements Protocol {
 			return reportingMessage(stopListening.getPin(), false);
 		}
 
-		private byte[] reportingMessage(Pin pin, boolean on) {
-			byte portId = getPin(pin).portId();
+		/**
+		 * Analog reporting is switched per analog pin, digital reporting per port.
+		 */
+		private static byte[] reportingMessage(Pin pin, boolean on) {
 			byte state = booleanToByte(on);
 			if (pin.is(ANALOG)) {
-				return new byte[] { (byte) (REPORT_ANALOG | portId), state };
+				return new byte[] { (byte) (REPORT_ANALOG | pin.pinNum()), state };
 			} else if (pin.is(DIGITAL)) {
-				return new byte[] { (byte) (REPORT_DIGITAL | portId), state };
+				return new byte[] { (byte) (REPORT_DIGITAL | (pin.pinNum() >>> 3)), state };
 			}
 			throw new UnsupportedOperationException("Unsupported pin type: " + pin.getType());
 		}
 
-		private final Map<Integer, FirmataPin> pins = new ConcurrentHashMap<Integer, FirmataPin>();
+		/**
+		 * Encodes the reporting messages of all passed pins into one frame: When
+		 * enabling, the digital pins are switched to input first. Each digital port
+		 * and analog pin is reported only once, even if several of the passed pins
+		 * map to it.
+		 * 
+		 * @param pins    the pins to enable or disable reporting for
+		 * @param enabled whether to enable or disable reporting
+		 * @return the encoded frame
+		 */
+		byte[] reporting(Collection<? extends Pin> pins, boolean enabled) {
+			ByteArray message = new ByteArray(pins.size() * 5);
+			for (Pin pin : pins) {
+				checkArgument(pin.pinNum() >= 0 && pin.pinNum() < (pin.is(ANALOG) ? 0x10 : PortStateRegister.PINS),
+						"Pin %s out of range", pin);
+				if (enabled && pin.is(DIGITAL)) {
+					message.append(setMode((byte) pin.pinNum(), org.firmata4j.Pin.Mode.INPUT));
+					synchronized (register) {
+						register.mode(pin.pinNum(), DIGITAL_INPUT);
+					}
+				}
+			}
+			int analogPinsReported = 0;
+			int digitalPortsReported = 0;
+			for (Pin pin : pins) {
+				if (pin.is(ANALOG)) {
+					int bit = 1 << pin.pinNum();
+					if ((analogPinsReported & bit) == 0) {
+						analogPinsReported |= bit;
+						message.append(reportingMessage(pin, enabled));
+					}
+				} else {
+					int bit = 1 << (pin.pinNum() >>> 3);
+					if ((digitalPortsReported & bit) == 0) {
+						digitalPortsReported |= bit;
+						message.append(reportingMessage(pin, enabled));
+					}
+				}
+			}
+			return message.copy();
+		}
 
-		private FirmataPin getPin(int index) {
-			return pins.computeIfAbsent(index, FirmataPin::fromIndex);
+		/**
+		 * Encodes the sysex message setting the interval the board samples and
+		 * reports analog values in.
+		 * 
+		 * @param millis the interval in milliseconds
+		 * @return the encoded message
+		 */
+		byte[] samplingInterval(int millis) {
+			checkArgument(millis > 0 && millis <= 0x3FFF, "Sampling interval must be 1..%s ms but was %s", 0x3FFF,
+					millis);
+			return sysex(SAMPLING_INTERVAL, lsb(millis), msb(millis));
 		}
 
-		private FirmataPin getPin(Pin pin) {
-			return getPin(pin.is(ANALOG) ? 2 * 8 + pin.pinNum() : pin.pinNum());
+		/**
+		 * The pins and their supported modes as reported by the board after the
+		 * capabilities query.
+		 * 
+		 * @return the pins by their index, empty if the board did not respond (yet)
+		 */
+		Map<Integer, FirmataPin> capabilities() {
+			return unmodifiableMap(new TreeMap<>(pins));
 		}
 
+		private final Map<Integer, FirmataPin> pins = new ConcurrentHashMap<Integer, FirmataPin>();
+
+		/**
+		 * Digital writes update the pin's bit in the {@link PortStateRegister} and
+		 * send the whole port, analog writes switch the pin to {@link Mode#PWM} if the
+		 * register does not know it is already.
+		 */
 		@Override
 		public byte[] toDevice(ToDeviceMessagePinStateChange pinStateChange) {
-			ByteArray message = new ByteArray();
-			FirmataPin firmataPin = getPin(switchPinType(pinStateChange.getPin(), DIGITAL));
-			if (pinStateChange.getPin().is(ANALOG)) {
-				if (!firmataPin.modeIs(PWM)) {
-					message.append(setMode((byte) firmataPin.index(), org.firmata4j.Pin.Mode.PWM));
-					firmataPin.currentMode = PWM;
-				}
-				int value = (Integer) pinStateChange.getValue();
-				message.append(FirmataMessageFactory.setAnalogPinValue((byte) firmataPin.index(), value));
-			} else if (pinStateChange.getPin().is(DIGITAL)) {
-				message.append(digitalMessage(firmataPin, TRUE.equals(pinStateChange.getValue())));
-			} else {
-				throw new UnsupportedOperationException("Unsupported pin type: " + pinStateChange.getPin().getType());
+			Pin pin = pinStateChange.getPin();
+			int pinNum = pin.pinNum();
+			if (pin.is(DIGITAL)) {
+				return digitalMessage(pinNum, TRUE.equals(pinStateChange.getValue()));
+			} else if (pin.is(ANALOG)) {
+				return analogMessage(pinNum, (Integer) pinStateChange.getValue());
 			}
-			return message.copy();
+			throw new UnsupportedOperationException("Unsupported pin type: " + pin.getType());
 		}
 
-		private static Pin switchPinType(Pin pin, Type type) {
-			return type == ANALOG ? analogPin(pin.pinNum()) : digitalPin(pin.pinNum());
+		private byte[] digitalMessage(int pinNum, boolean value) {
+			int portValue;
+			synchronized (register) {
+				portValue = register.write(pinNum, value);
+			}
+			return portMessage(pinNum >>> 3, portValue);
 		}
 
-		private byte[] digitalMessage(FirmataPin pin, boolean value) {
-			byte portId = pin.portId();
-			byte pinInPort = pin.pinId();
-			byte portValue = 0;
-			for (int i = 0; i < 8; i++) {
-				FirmataPin p = getPin(portId * 8 + i);
-				if (p.modeIs(FirmataPin.Mode.DIGITAL_OUTPUT) && p.getValue() > 0) {
-					portValue |= 1 << i;
+		private static byte[] portMessage(int port, int portValue) {
+			return new byte[] { (byte) (DIGITAL_MESSAGE | port), lsb(portValue), msb(portValue) };
+		}
+
+		/**
+		 * Encodes the analog writes of the batch in their order followed by one
+		 * DIGITAL_MESSAGE per port instead of one per digital pin, so switching all
+		 * eight pins of a port is one 3 byte message. Firmata has no replies for
+		 * pin writes so the message id is not sent.
+		 */
+		@Override
+		public byte[] toDevice(ToDeviceMessagePinWriteBatch pinWriteBatch) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			synchronized (register) {
+				int ports = 0;
+				for (Entry<Pin, Object> write : pinWriteBatch.getBatch().getValues().entrySet()) {
+					Pin pin = write.getKey();
+					int pinNum = pin.pinNum();
+					if (pin.is(DIGITAL)) {
+						register.write(pinNum, TRUE.equals(write.getValue()));
+						ports |= 1 << (pinNum >>> 3);
+					} else if (pin.is(ANALOG)) {
+						bytes.writeBytes(analogMessage(pinNum, (Integer) write.getValue()));
+					} else {
+						throw new UnsupportedOperationException("Unsupported pin type: " + pin.getType());
+					}
+				}
+				for (int port = 0; ports != 0; port++, ports >>>= 1) {
+					if ((ports & 1) != 0) {
+						bytes.writeBytes(portMessage(port, register.port(port)));
+					}
 				}
 			}
-			byte bitmask = (byte) (1 << pinInPort);
-			if (value) {
-				portValue |= bitmask;
-			} else {
-				portValue &= ((byte) ~bitmask);
+			return bytes.toByteArray();
+		}
+
+		private byte[] analogMessage(int pinNum, int value) {
+			synchronized (register) {
+				encoded = 0;
+				if (!register.modeIs(pinNum, PWM)) {
+					encode(SET_PIN_MODE);
+					encode((byte) pinNum);
+					encode((byte) PWM.ordinal());
+					register.mode(pinNum, PWM);
+				}
+				if (pinNum <= 0x0F && value <= 0x3FFF) {
+					encode((byte) (ANALOG_MESSAGE | pinNum));
+					encode(lsb(value));
+					encode(msb(value));
+				} else {
+					encode(START_SYSEX);
+					encode(EXTENDED_ANALOG);
+					encode((byte) pinNum);
+					for (int i = 0; i < 4; i++) {
+						encode(mask(shiftBy(value, i)));
+					}
+					encode(END_SYSEX);
+				}
+				return Arrays.copyOf(encodeBuffer, encoded);
 			}
-			return FirmataMessageFactory.setDigitalPinValue(portId, portValue);
+		}
+
+		private void encode(byte b) {
+			encodeBuffer[encoded++] = b;
 		}
 
 		private static byte booleanToByte(boolean state) {
@@ -518,9 +656,139 @@ public class FirmataProtocol implements Protocol {
 
 	}
 
+	/**
+	 * Decodes using firmata4j's {@link FiniteStateMachine}.
+	 */
+	private static class Firmata4jByteStreamProcessor extends FirmataByteStreamProcessor {
+
+		private abstract class PinStateChangedConsumer extends Consumer<Event> {
+
+			@Override
+			public void accept(Event event) {
+				String pinString = String.valueOf(event.getBodyItem(PIN_ID));
+				Integer pinInt = tryParseAs(Integer.class, pinString).orElseThrow(
+						() -> new IllegalStateException(format("Cannot parse %s as pin number", pinString)));
+				pinStateChanged(createPin(pinInt), convertValue(event.getBodyItem(PIN_VALUE)));
+			}
+
+			protected abstract Object convertValue(Object value);
+
+			protected abstract Pin createPin(Integer pin);
+		}
+
+		private final FiniteStateMachine delegate = new FiniteStateMachine(WaitingForMessageState.class);
+
+		private Firmata4jByteStreamProcessor(CapabilityCache capabilityCache) {
+			super(capabilityCache);
+			delegate.addHandler(FIRMWARE_MESSAGE, firmwareConsumer());
+			delegate.addHandler(PIN_CAPABILITIES_MESSAGE, capabilitiesConsumer());
+			delegate.addHandler(PIN_CAPABILITIES_FINISHED, capabilitiesFinishedConsumer());
+			delegate.addHandler(ANALOG_MESSAGE_RESPONSE, analogPinStateChangedConsumer());
+			delegate.addHandler(DIGITAL_MESSAGE_RESPONSE, digitalPinStateChangedConsumer());
+			delegate.addHandler(STRING_MESSAGE, stringMessageConsumer());
+			delegate.addHandler(SYSEX_CUSTOM_MESSAGE, sysexCustomMessageConsumer());
+		}
+
+		private PinStateChangedConsumer analogPinStateChangedConsumer() {
+			return new PinStateChangedConsumer() {
+
+				@Override
+				protected Object convertValue(Object value) {
+					return value;
+				}
+
+				@Override
+				protected Pin createPin(Integer pin) {
+					return analogPin(pin);
+				}
+
+			};
+		}
+
+		private PinStateChangedConsumer digitalPinStateChangedConsumer() {
+			return new PinStateChangedConsumer() {
+
+				@Override
+				protected Object convertValue(Object value) {
+					return value.equals(1);
+				}
+
+				@Override
+				protected Pin createPin(Integer pin) {
+					return digitalPin(pin);
+				}
+
+			};
+		}
+
+		private Consumer<Event> firmwareConsumer() {
+			return new Consumer<Event>() {
+				@Override
+				public void accept(Event event) {
+					firmwareReceived(firmware((String) event.getBodyItem(FIRMWARE_NAME),
+							(Integer) event.getBodyItem(FIRMWARE_MAJOR), (Integer) event.getBodyItem(FIRMWARE_MINOR)));
+				}
+			};
+		}
+
+		private Consumer<Event> capabilitiesFinishedConsumer() {
+			return new Consumer<Event>() {
+				@Override
+				public void accept(Event event) {
+					capabilitiesFinished();
+				}
+			};
+		}
+
+		private Consumer<Event> capabilitiesConsumer() {
+			return new Consumer<Event>() {
+				@Override
+				public void accept(Event event) {
+					byte index = (Byte) event.getBodyItem(PIN_ID);
+					capabilitiesReceived(index, (byte[]) event.getBodyItem(PIN_SUPPORTED_MODES));
+				}
+			};
+		}
+
+		private Consumer<Event> stringMessageConsumer() {
+			return new Consumer<Event>() {
+				@Override
+				public void accept(Event event) {
+					String message = (String) event.getBodyItem("stringMessage");
+					if (message != null) {
+						stringMessageReceived(message);
+					}
+				}
+			};
+		}
+
+		private Consumer<Event> sysexCustomMessageConsumer() {
+			return new Consumer<Event>() {
+				@Override
+				public void accept(Event event) {
+					byte[] data = (byte[]) event.getBodyItem("sysexCustomMessage");
+					if (data != null) {
+						sysexCustomMessageReceived(data, 0, data.length);
+					}
+				}
+			};
+		}
+
+		@Override
+		public void process(byte[] bytes) {
+			delegate.process(bytes);
+		}
+
+		@Override
+		public void process(byte b) {
+			delegate.process(b);
+		}
+
+	}
+
 	@Override
 	public ByteStreamProcessor newByteStreamProcessor() {
-		return new FirmataByteStreamProcessor();
+		return new Firmata4jByteStreamProcessor(capabilityCache());
 	}
 
 }
\ No newline at end of file
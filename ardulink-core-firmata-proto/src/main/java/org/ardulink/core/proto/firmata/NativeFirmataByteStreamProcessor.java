@@ -0,0 +1,246 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.proto.firmata;
+
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.firmata4j.firmata.parser.FirmataToken.ANALOG_MESSAGE;
+import static org.firmata4j.firmata.parser.FirmataToken.CAPABILITY_RESPONSE;
+import static org.firmata4j.firmata.parser.FirmataToken.DIGITAL_MESSAGE;
+import static org.firmata4j.firmata.parser.FirmataToken.END_SYSEX;
+import static org.firmata4j.firmata.parser.FirmataToken.EXTENDED_ANALOG;
+import static org.firmata4j.firmata.parser.FirmataToken.REPORT_FIRMWARE;
+import static org.firmata4j.firmata.parser.FirmataToken.REPORT_VERSION;
+import static org.firmata4j.firmata.parser.FirmataToken.START_SYSEX;
+import static org.firmata4j.firmata.parser.FirmataToken.STRING_DATA;
+
+import java.util.Arrays;
+
+import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataByteStreamProcessor;
+import org.firmata4j.firmata.parser.FirmataToken;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Decodes the Firmata messages handled by {@link FirmataProtocol} without
+ * firmata4j's state machine: The command byte selects the state, the data
+ * bytes are collected into fields (analog, digital and version messages) or a
+ * reused buffer (sysex) and the pin state changes are fired directly without
+ * intermediate events. A status byte always starts a new message, so the
+ * decoder resyncs after a corrupt or truncated message.<br>
+ * Sysex messages ignored by Ardulink ({@link FirmataToken#ANALOG_MAPPING_RESPONSE},
+ * {@link FirmataToken#PIN_STATE_RESPONSE} and {@link FirmataToken#I2C_REPLY})
+ * are dropped, all other unknown sysex commands are fired as custom messages.
+ * <br>
+ * Encoding is inherited from {@link FirmataByteStreamProcessor}.<br>
+ * This class is <b>not</b> threadsafe.
+ *
+ */
+class NativeFirmataByteStreamProcessor extends FirmataByteStreamProcessor {
+
+	private static final int MAX_SYSEX_LEN = 4096;
+
+	private static final byte ANALOG_MAPPING_RESPONSE = FirmataToken.ANALOG_MAPPING_RESPONSE;
+	private static final byte PIN_STATE_RESPONSE = FirmataToken.PIN_STATE_RESPONSE;
+	private static final byte I2C_REPLY = FirmataToken.I2C_REPLY;
+	private static final byte CAPABILITY_END = 0x7F;
+
+	private static final int WAITING_FOR_COMMAND = 0;
+	private static final int WAITING_FOR_ANALOG = 1;
+	private static final int WAITING_FOR_DIGITAL = 2;
+	private static final int WAITING_FOR_VERSION = 3;
+	private static final int WAITING_FOR_SYSEX = 4;
+
+	/**
+	 * Analog values up to 10 bit (the ADC resolution of most boards) are boxed
+	 * once.
+	 */
+	private static final Integer[] ANALOG_VALUES = analogValues(1 << 10);
+
+	private byte[] sysex = new byte[64];
+
+	private int state = WAITING_FOR_COMMAND;
+	private int channel;
+	private int dataBytes;
+	private int lsb;
+	private int length;
+	private boolean overflow;
+
+	NativeFirmataByteStreamProcessor(CapabilityCache capabilityCache) {
+		super(capabilityCache);
+	}
+
+	private static Integer[] analogValues(int count) {
+		Integer[] values = new Integer[count];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i;
+		}
+		return values;
+	}
+
+	@Override
+	public void process(byte b) {
+		if ((b & 0x80) != 0) {
+			statusByte(b);
+		} else {
+			dataByte(b);
+		}
+	}
+
+	private void statusByte(byte b) {
+		if (b == END_SYSEX && state == WAITING_FOR_SYSEX) {
+			state = WAITING_FOR_COMMAND;
+			if (!overflow) {
+				sysexReceived();
+			}
+			return;
+		}
+		byte command = (b & 0xF0) == 0xF0 ? b : (byte) (b & 0xF0);
+		channel = b & 0x0F;
+		dataBytes = 0;
+		if (command == ANALOG_MESSAGE) {
+			state = WAITING_FOR_ANALOG;
+		} else if (command == DIGITAL_MESSAGE) {
+			state = WAITING_FOR_DIGITAL;
+		} else if (command == REPORT_VERSION) {
+			state = WAITING_FOR_VERSION;
+		} else if (command == START_SYSEX) {
+			state = WAITING_FOR_SYSEX;
+			length = 0;
+			overflow = false;
+		} else {
+			state = WAITING_FOR_COMMAND;
+		}
+	}
+
+	private void dataByte(byte b) {
+		switch (state) {
+		case WAITING_FOR_COMMAND:
+			break;
+		case WAITING_FOR_ANALOG:
+			if (twoBytesRead(b)) {
+				pinStateChanged(analogPin(channel), analogValue(lsb | (b << 7)));
+			}
+			break;
+		case WAITING_FOR_DIGITAL:
+			if (twoBytesRead(b)) {
+				digitalPortChanged(channel, lsb | (b << 7));
+			}
+			break;
+		case WAITING_FOR_VERSION:
+			twoBytesRead(b);
+			break;
+		case WAITING_FOR_SYSEX:
+			sysexAppend(b);
+			break;
+		default:
+			throw new IllegalStateException("Unknown state " + state);
+		}
+	}
+
+	private boolean twoBytesRead(byte b) {
+		if (dataBytes++ == 0) {
+			lsb = b;
+			return false;
+		}
+		state = WAITING_FOR_COMMAND;
+		return true;
+	}
+
+	private void digitalPortChanged(int port, int value) {
+		int first = port * 8;
+		for (int i = 0; i < 8; i++) {
+			pinStateChanged(digitalPin(first + i), ((value >>> i) & 1) != 0);
+		}
+	}
+
+	private void sysexAppend(byte b) {
+		if (overflow) {
+			return;
+		}
+		if (length == sysex.length) {
+			if (length == MAX_SYSEX_LEN) {
+				overflow = true;
+				return;
+			}
+			sysex = Arrays.copyOf(sysex, Math.min(length * 2, MAX_SYSEX_LEN));
+		}
+		sysex[length++] = b;
+	}
+
+	private void sysexReceived() {
+		if (length == 0) {
+			return;
+		}
+		byte command = sysex[0];
+		if (command == REPORT_FIRMWARE) {
+			firmwareReportReceived();
+		} else if (command == CAPABILITY_RESPONSE) {
+			capabilitiesReceived();
+		} else if (command == STRING_DATA) {
+			stringMessageReceived(bytesToString(sysex, 1, length - 1));
+		} else if (command == EXTENDED_ANALOG) {
+			extendedAnalogReceived();
+		} else if (command != ANALOG_MAPPING_RESPONSE && command != PIN_STATE_RESPONSE && command != I2C_REPLY) {
+			sysexCustomMessageReceived(sysex, 0, length);
+		}
+	}
+
+	private void firmwareReportReceived() {
+		int major = length > 1 ? sysex[1] : 0;
+		int minor = length > 2 ? sysex[2] : 0;
+		String name = length > 3 ? bytesToString(sysex, 3, length - 3) : "";
+		firmwareReceived(firmware(name, major, minor));
+	}
+
+	private void capabilitiesReceived() {
+		int pin = 0;
+		int start = 1;
+		for (int i = start; i < length; i++) {
+			if (sysex[i] == CAPABILITY_END) {
+				byte[] modes = new byte[(i - start + 1) / 2];
+				for (int m = 0; m < modes.length; m++) {
+					modes[m] = sysex[start + m * 2];
+				}
+				capabilitiesReceived(pin++, modes);
+				start = i + 1;
+			}
+		}
+		capabilitiesFinished();
+	}
+
+	private void extendedAnalogReceived() {
+		if (length < 3) {
+			return;
+		}
+		int value = 0;
+		for (int i = 2; i < length && i < 6; i++) {
+			value |= sysex[i] << (7 * (i - 2));
+		}
+		pinStateChanged(analogPin(sysex[1]), analogValue(value));
+	}
+
+	private static Integer analogValue(int value) {
+		return value < ANALOG_VALUES.length ? ANALOG_VALUES[value] : Integer.valueOf(value);
+	}
+
+}
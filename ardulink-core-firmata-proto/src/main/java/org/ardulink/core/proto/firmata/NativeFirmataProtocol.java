@@ -0,0 +1,56 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.proto.firmata;
+
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * The {@link FirmataProtocol} (same messages, same encoding) but decoding with
+ * the {@link NativeFirmataByteStreamProcessor} instead of firmata4j's state
+ * machine.
+ *
+ */
+public class NativeFirmataProtocol extends FirmataProtocol {
+
+	public static final String NAME = "FirmataNative";
+
+	public NativeFirmataProtocol() {
+		super();
+	}
+
+	public NativeFirmataProtocol(CapabilityCache capabilityCache) {
+		super(capabilityCache);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public ByteStreamProcessor newByteStreamProcessor() {
+		return new NativeFirmataByteStreamProcessor(capabilityCache());
+	}
+
+}
@@ -0,0 +1,101 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.core.proto.firmata;
+
+import static org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode.ANALOG_INPUT;
+import static org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode.DIGITAL_INPUT;
+import static org.ardulink.util.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ *
+ * project Ardulink http://www.ardulink.org/
+ *
+ * [adsense]
+ *
+ * Shadow of a board's digital output ports and pin modes. Firmata writes
+ * digital outputs a whole port (8 pins) at a time, so the last written value of
+ * each port is kept and a write of a single pin is a bit operation on it. Pins
+ * are addressed by their (digital) pin number, Firmata addresses pins with 7
+ * bits so there are at most {@value #PINS} pins.<br>
+ * This class is <b>not</b> threadsafe.
+ *
+ */
+final class PortStateRegister {
+
+	static final int PINS = 128;
+
+	private static final byte UNKNOWN = -1;
+
+	private final byte[] ports = new byte[PINS / 8];
+	private final byte[] modes = new byte[PINS];
+
+	PortStateRegister() {
+		Arrays.fill(modes, UNKNOWN);
+	}
+
+	/**
+	 * Sets the bit of the passed pin in its port.
+	 * 
+	 * @param pin   the pin number
+	 * @param value the new state of the pin
+	 * @return the new value of the pin's port
+	 */
+	int write(int pin, boolean value) {
+		checkPin(pin);
+		int port = pin >>> 3;
+		int bitmask = 1 << (pin & 7);
+		int portValue = value ? ports[port] | bitmask : ports[port] & ~bitmask;
+		ports[port] = (byte) portValue;
+		return portValue & 0xFF;
+	}
+
+	int port(int port) {
+		return ports[port] & 0xFF;
+	}
+
+	boolean modeIs(int pin, Mode mode) {
+		checkPin(pin);
+		return modes[pin] == mode.ordinal();
+	}
+
+	/**
+	 * Records the mode of the passed pin. If the pin becomes an input its bit is
+	 * cleared, otherwise the next write of its port would send the bit as 1 which
+	 * Firmata (2.5+) interprets as "enable the pull-up resistor".
+	 * 
+	 * @param pin  the pin number
+	 * @param mode the pin's new mode
+	 */
+	void mode(int pin, Mode mode) {
+		checkPin(pin);
+		modes[pin] = (byte) mode.ordinal();
+		if (mode == DIGITAL_INPUT || mode == ANALOG_INPUT) {
+			write(pin, false);
+		}
+	}
+
+	private static void checkPin(int pin) {
+		checkArgument(pin >= 0 && pin < PINS, "Pin %s out of range [0, %s)", pin, PINS);
+	}
+
+}
@@ -0,0 +1,112 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.core.proto.firmata;
+
+import static java.util.Arrays.asList;
+import static org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode.ANALOG_INPUT;
+import static org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode.DIGITAL_OUTPUT;
+import static org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode.PWM;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin;
+import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class CapabilityCacheTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void canStoreAndLoadCapabilities() {
+		CapabilityCache sut = new CapabilityCache(directory.resolve("not-yet-existing"));
+		sut.store("StandardFirmata.ino-2.5", asList(pin(0), pin(1, DIGITAL_OUTPUT, PWM), pin(2, ANALOG_INPUT)));
+		assertThat(sut.load("StandardFirmata.ino-2.5")).hasValueSatisfying(pins -> {
+			assertThat(pins).containsOnlyKeys(0, 1, 2);
+			assertThat(pins.get(0)).isEmpty();
+			assertThat(pins.get(1)).containsExactly(DIGITAL_OUTPUT, PWM);
+			assertThat(pins.get(2)).containsExactly(ANALOG_INPUT);
+		});
+	}
+
+	@Test
+	void doesNotLoadCapabilitiesOfOtherFirmware() {
+		CapabilityCache sut = new CapabilityCache(directory);
+		sut.store("a b-1.0", asList(pin(0, PWM)));
+		assertThat(sut.load("a b-1.1")).isEmpty();
+		assertThat(sut.load("a_b-1.0")).isEmpty();
+	}
+
+	@Test
+	void ignoresCorruptEntries() throws IOException {
+		CapabilityCache sut = new CapabilityCache(directory);
+		sut.store("any-1.0", asList(pin(0, PWM)));
+		try (var files = Files.list(directory)) {
+			Path file = files.findFirst().orElseThrow();
+			Files.writeString(file, Files.readString(file).replace("PWM", "NO_SUCH_MODE"));
+		}
+		assertThat(sut.load("any-1.0")).isEmpty();
+	}
+
+	@Test
+	void canInvalidateEntries() throws IOException {
+		CapabilityCache sut = new CapabilityCache(directory);
+		sut.store("a-1.0", asList(pin(0, PWM)));
+		sut.store("b-1.0", asList(pin(0, PWM)));
+		sut.store("c-1.0", asList(pin(0, PWM)));
+
+		sut.invalidate("a-1.0");
+		assertThat(sut.load("a-1.0")).isEmpty();
+		assertThat(sut.load("b-1.0")).isPresent();
+
+		sut.invalidateAll();
+		assertThat(sut.load("b-1.0")).isEmpty();
+		assertThat(sut.load("c-1.0")).isEmpty();
+	}
+
+	@Test
+	void doesNotLeaveTemporaryFilesIfEntryCannotBeReplaced() throws IOException {
+		CapabilityCache sut = new CapabilityCache(directory);
+		Files.createFile(Files.createDirectory(directory.resolve("a-1.0.capabilities")).resolve("blocking"));
+		sut.store("a-1.0", asList(pin(0, PWM)));
+		try (var files = Files.list(directory)) {
+			assertThat(files).containsExactly(directory.resolve("a-1.0.capabilities"));
+		}
+	}
+
+	private static FirmataPin pin(int index, Mode... modes) {
+		FirmataPin pin = FirmataPin.fromIndex(index);
+		for (Mode mode : modes) {
+			pin.addSupportedMode(mode);
+		}
+		return pin;
+	}
+
+}
@@ -0,0 +1,176 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.core.proto.firmata;
+
+import static java.io.InputStream.nullInputStream;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.proto.firmata.FirmataControl.firmataControl;
+import static org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode.ANALOG_INPUT;
+import static org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode.DIGITAL_OUTPUT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.ardulink.core.ConnectionBasedLink;
+import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.StreamConnection;
+import org.ardulink.core.convenience.LinkDelegate;
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class FirmataControlTest {
+
+	private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+	private final ByteStreamProcessor byteStreamProcessor = new FirmataProtocol().newByteStreamProcessor();
+	private final ConnectionBasedLink link = new ConnectionBasedLink(
+			new StreamConnection(nullInputStream(), written, byteStreamProcessor), byteStreamProcessor);
+
+	@AfterEach
+	void tearDown() throws IOException {
+		link.close();
+	}
+
+	@Test
+	void canSetSamplingInterval() throws IOException {
+		firmataControl(link).samplingInterval(1, SECONDS);
+		assertThat(written.toByteArray()).containsExactly(0xF0, 0x7A, 0x68, 0x07, 0xF7);
+	}
+
+	@Test
+	void rejectsSamplingIntervalsOutOfRange() {
+		FirmataControl firmataControl = firmataControl(link);
+		assertThatIllegalArgumentException().isThrownBy(() -> firmataControl.samplingInterval(0, MILLISECONDS));
+		assertThatIllegalArgumentException().isThrownBy(() -> firmataControl.samplingInterval(0x4000, MILLISECONDS));
+	}
+
+	@Test
+	void startsReportingOfAllPinsInOneFrame() throws IOException {
+		firmataControl(link).startReporting(digitalPin(2), digitalPin(3), digitalPin(12), analogPin(0), analogPin(5));
+		assertThat(written.toByteArray()).containsExactly( //
+				0xF4, 2, 0, /**/ 0xF4, 3, 0, /**/ 0xF4, 12, 0, //
+				0xD0, 1, /**/ 0xD1, 1, /**/ 0xC0, 1, /**/ 0xC5, 1);
+	}
+
+	@Test
+	void stopsReportingOfAllPinsInOneFrame() throws IOException {
+		firmataControl(link).stopReporting(digitalPin(2), digitalPin(3), analogPin(5));
+		assertThat(written.toByteArray()).containsExactly(0xD0, 0, /**/ 0xC5, 0);
+	}
+
+	@Test
+	void rejectsAnalogPinsFirmataCannotReport() {
+		FirmataControl firmataControl = firmataControl(link);
+		assertThatIllegalArgumentException().isThrownBy(() -> firmataControl.startReporting(analogPin(16)));
+	}
+
+	@Test
+	void exposesCapabilities() {
+		FirmataControl firmataControl = firmataControl(new LinkDelegate(link));
+		assertThat(firmataControl.capabilities()).isEmpty();
+
+		byteStreamProcessor.process(new byte[] { (byte) 0xF0, 0x6C, 0x7F, 0x01, 0x01, 0x7F, 0x01, 0x01, 0x02, 0x0A,
+				0x7F, (byte) 0xF7 });
+
+		assertThat(firmataControl.capabilities()).hasSize(3).hasEntrySatisfying(1,
+				p -> assertThat(p.getSupportedMode()).containsExactly(DIGITAL_OUTPUT)).hasEntrySatisfying(2,
+						p -> assertThat(p.getSupportedMode()).containsExactly(DIGITAL_OUTPUT, ANALOG_INPUT));
+	}
+
+	@Test
+	void canInvalidateCapabilities(@TempDir Path directory) throws IOException {
+		CapabilityCache capabilityCache = new CapabilityCache(directory);
+		ByteStreamProcessor cachingProcessor = new FirmataProtocol(capabilityCache).newByteStreamProcessor();
+		try (ConnectionBasedLink cachingLink = new ConnectionBasedLink(
+				new StreamConnection(nullInputStream(), written, cachingProcessor), cachingProcessor)) {
+			cachingProcessor.process(new byte[] { (byte) 0xF0, 0x79, 0x01, 0x02, 0x41, 0x0, (byte) 0xF7 });
+			cachingProcessor.process(new byte[] { (byte) 0xF0, 0x6C, 0x01, 0x01, 0x7F, (byte) 0xF7 });
+			assertThat(capabilityCache.load("A-1.2")).isPresent();
+			written.reset();
+
+			FirmataControl firmataControl = firmataControl(cachingLink).invalidateCapabilities();
+			assertThat(firmataControl.capabilities()).isEmpty();
+			assertThat(capabilityCache.load("A-1.2")).isEmpty();
+			assertThat(written.toByteArray()).containsExactly(0xF0, 0x6B, 0xF7);
+		}
+	}
+
+	@Test
+	void lastPortMessageWrittenMatchesRegisterWhenPinsOfOnePortAreSwitchedConcurrently() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (Future<Void> future : executor.invokeAll(List.of(toggle(digitalPin(2)), toggle(digitalPin(3))))) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		byte[] bytes = written.toByteArray();
+		// each switch changes one pin, so each port message differs from the one
+		// written before in exactly one pin
+		int port = 0;
+		for (int i = 0; i < bytes.length; i += 3) {
+			if (bytes[i] == (byte) 0x90) {
+				int next = bytes[i + 1] | bytes[i + 2] << 7;
+				assertThat(Integer.bitCount(port ^ next)).isEqualTo(1);
+				port = next;
+			}
+		}
+		// pins 2 and 3 of port 0 are both HIGH
+		assertThat(bytes).endsWith(0x90, 0x0C, 0x00);
+	}
+
+	private Callable<Void> toggle(DigitalPin pin) {
+		return () -> {
+			for (int i = 0; i <= 5000; i++) {
+				link.switchDigitalPin(pin, i % 2 == 0);
+			}
+			return null;
+		};
+	}
+
+	@Test
+	void rejectsLinksNotUsingFirmata() throws IOException {
+		ByteStreamProcessor alp = new ArdulinkProtocol2().newByteStreamProcessor();
+		try (ConnectionBasedLink alpLink = new ConnectionBasedLink(new StreamConnection(nullInputStream(), written, alp), alp)) {
+			assertThatIllegalArgumentException().isThrownBy(() -> firmataControl(alpLink))
+					.withMessageContaining("Firmata");
+		}
+	}
+
+}
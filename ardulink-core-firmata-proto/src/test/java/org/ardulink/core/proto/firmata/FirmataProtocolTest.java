@@ -10,6 +10,7 @@ import static org.ardulink.core.messages.impl.DefaultToDeviceMessageCustom.toDev
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessageNoTone.toDeviceMessageNoTone;
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePing.toDeviceMessageNoTone;
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinStateChange.toDeviceMessagePinStateChange;
+import static org.ardulink.core.messages.impl.DefaultToDeviceMessagePinWriteBatch.toDeviceMessagePinWriteBatch;
 import static org.ardulink.core.messages.impl.DefaultToDeviceMessageTone.toDeviceMessageTone;
 import static org.ardulink.core.proto.api.Protocols.tryProtoByName;
 import static org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessors.parse;
@@ -29,6 +30,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -41,6 +43,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.ardulink.core.Pin;
 import org.ardulink.core.Pin.AnalogPin;
 import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.PinWriteBatch;
 import org.ardulink.core.Tone;
 import org.ardulink.core.messages.api.FromDeviceMessage;
 import org.ardulink.core.messages.api.FromDeviceChangeListeningState;
@@ -56,16 +59,28 @@ import org.ardulink.core.proto.api.MessageIdHolder;
 import org.ardulink.core.proto.api.MessageIdHolders;
 import org.ardulink.core.proto.api.Protocol;
 import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataByteStreamProcessor;
 import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin;
 import org.ardulink.core.proto.firmata.FirmataProtocol.FirmataPin.Mode;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class FirmataProtocolTest {
 
-	private final ByteStreamProcessor sut = new FirmataProtocol().newByteStreamProcessor();
+	private static final byte[] FIRMWARE_REPORT = toBytes(0xF0, 0x79, 0x01, 0x02, 0x41, 0x0, 0xF7);
+
+	private final ByteStreamProcessor sut = newByteStreamProcessor();
 
 	private byte[] bytes;
-	private List<FromDeviceMessage> messages = new ArrayList<>();
+	List<FromDeviceMessage> messages = new ArrayList<>();
+
+	ByteStreamProcessor newByteStreamProcessor() {
+		return new FirmataProtocol().newByteStreamProcessor();
+	}
+
+	ByteStreamProcessor newByteStreamProcessor(CapabilityCache capabilityCache) {
+		return new FirmataProtocol(capabilityCache).newByteStreamProcessor();
+	}
 
 	@Test
 	void canReadFirmwareStartupResponseAndRequestsCapabilities() throws IOException {
@@ -100,7 +115,7 @@ class FirmataProtocolTest {
 		givenMessage(capabilitiesQuery());
 		whenMessageIsProcessed();
 
-		Field declaredField = sut.getClass().getDeclaredField("pins");
+		Field declaredField = FirmataProtocol.FirmataByteStreamProcessor.class.getDeclaredField("pins");
 		declaredField.setAccessible(true);
 
 		@SuppressWarnings("unchecked")
@@ -132,6 +147,44 @@ class FirmataProtocolTest {
 		assertSupportedModes(cnt++, pins, DIGITAL_INPUT, INPUT_PULLUP, DIGITAL_OUTPUT, ANALOG_INPUT, SERVO, I2C);
 	}
 
+	@Test
+	void doesNotQueryCapabilitiesCachedForTheFirmware(@TempDir Path directory) {
+		CapabilityCache capabilityCache = new CapabilityCache(directory);
+		AtomicReference<byte[]> outboundBytes = new AtomicReference<>();
+
+		ByteStreamProcessor first = newByteStreamProcessor(capabilityCache);
+		first.setOutboundListener(outboundBytes::set);
+		first.process(FIRMWARE_REPORT);
+		assertThat(outboundBytes.get()).containsExactly(0xF0, 0x6B, 0xF7);
+		first.process(capabilitiesQuery());
+		assertThat(capabilityCache.load("A-1.2")).hasValueSatisfying(p -> assertThat(p).hasSize(20));
+
+		outboundBytes.set(null);
+		ByteStreamProcessor second = newByteStreamProcessor(capabilityCache);
+		second.setOutboundListener(outboundBytes::set);
+		second.process(FIRMWARE_REPORT);
+		assertThat(outboundBytes.get()).isNull();
+		Map<Integer, FirmataPin> pins = ((FirmataByteStreamProcessor) second).capabilities();
+		assertThat(pins).hasSize(20);
+		assertSupportedModes(0, pins);
+		assertSupportedModes(3, pins, DIGITAL_INPUT, INPUT_PULLUP, DIGITAL_OUTPUT, PWM, SERVO);
+		assertSupportedModes(19, pins, DIGITAL_INPUT, INPUT_PULLUP, DIGITAL_OUTPUT, ANALOG_INPUT, SERVO, I2C);
+	}
+
+	@Test
+	void queriesCapabilitiesOfOtherFirmware(@TempDir Path directory) {
+		CapabilityCache capabilityCache = new CapabilityCache(directory);
+		ByteStreamProcessor first = newByteStreamProcessor(capabilityCache);
+		first.process(FIRMWARE_REPORT);
+		first.process(capabilitiesQuery());
+
+		AtomicReference<byte[]> outboundBytes = new AtomicReference<>();
+		ByteStreamProcessor second = newByteStreamProcessor(capabilityCache);
+		second.setOutboundListener(outboundBytes::set);
+		second.process(toBytes(0xF0, 0x79, 0x01, 0x03, 0x41, 0x0, 0xF7));
+		assertThat(outboundBytes.get()).containsExactly(0xF0, 0x6B, 0xF7);
+	}
+
 	private static byte[] capabilitiesQuery() {
 		return toBytes(0xF0, 0x6C, 0x7F, 0x7F, 0x00, 0x01, 0x0B, 0x01, 0x01, 0x01, 0x04, 0x0E, 0x7F, 0x00, 0x01, 0x0B,
 				0x01, 0x01, 0x01, 0x03, 0x08, 0x04, 0x0E, 0x7F, 0x00, 0x01, 0x0B, 0x01, 0x01, 0x01, 0x04, 0x0E, 0x7F,
@@ -196,6 +249,54 @@ class FirmataProtocolTest {
 		});
 	}
 
+	@Test
+	void keepsStateOfOtherPinsOfTheSamePort() {
+		assertSoftly(s -> {
+			s.assertThat(sut.toDevice(toDeviceMessagePinStateChange(digitalPin(13), true))).containsExactly(0x91,
+					0x20, 0x00);
+			s.assertThat(sut.toDevice(toDeviceMessagePinStateChange(digitalPin(15), true))).containsExactly(0x91,
+					0x20, 0x01);
+			s.assertThat(sut.toDevice(toDeviceMessagePinStateChange(digitalPin(7), true))).containsExactly(0x90,
+					0x00, 0x01);
+			s.assertThat(sut.toDevice(toDeviceMessagePinStateChange(digitalPin(13), false))).containsExactly(0x91,
+					0x00, 0x01);
+		});
+	}
+
+	@Test
+	void encodesPinWriteBatchWithOneMessagePerPort() {
+		PinWriteBatch batch = PinWriteBatch.builder() //
+				.switchDigitalPin(digitalPin(9), true) //
+				.switchDigitalPin(digitalPin(2), true) //
+				.switchAnalogPin(analogPin(10), 42) //
+				.switchDigitalPin(digitalPin(3), true) //
+				.switchDigitalPin(digitalPin(3), false) //
+				.build();
+		assertThat(sut.toDevice(toDeviceMessagePinWriteBatch(batch))).containsExactly(0xF4, 0x0A, 0x03, /**/ 0xEA,
+				0x2A, 0x00, /**/ 0x90, 0x04, 0x00, /**/ 0x91, 0x02, 0x00);
+		assertThat(sut.toDevice(toDeviceMessagePinStateChange(digitalPin(8), true))).containsExactly(0x91, 0x03,
+				0x00);
+	}
+
+	@Test
+	void clearsBitOfPinSwitchedToInput() {
+		assertThat(sut.toDevice(toDeviceMessagePinStateChange(digitalPin(13), true))).containsExactly(0x91, 0x20,
+				0x00);
+		sut.toDevice(new DefaultToDeviceMessageStartListening(digitalPin(13)));
+		assertThat(sut.toDevice(toDeviceMessagePinStateChange(digitalPin(12), true))).containsExactly(0x91, 0x10,
+				0x00);
+	}
+
+	@Test
+	void resendsPwmModeAfterPinWasSwitchedToInput() {
+		AnalogPin pin = analogPin(9);
+		assertThat(sut.toDevice(toDeviceMessagePinStateChange(pin, 42))).containsExactly(0xF4, 0x09, 0x03, /**/ 0xE9,
+				0x2A, 0x00);
+		sut.toDevice(new DefaultToDeviceMessageStartListening(digitalPin(9)));
+		assertThat(sut.toDevice(toDeviceMessagePinStateChange(pin, 42))).containsExactly(0xF4, 0x09, 0x03, /**/ 0xE9,
+				0x2A, 0x00);
+	}
+
 	@Test
 	void canSetPwmPin() throws IOException {
 		givenMessage(capabilitiesQuery());
@@ -252,6 +353,12 @@ class FirmataProtocolTest {
 		});
 	}
 
+	@Test
+	void reportsAnalogPinsByTheirPinNumber() {
+		Pin pin = analogPin(5);
+		assertThat(sut.toDevice(new DefaultToDeviceMessageStopListening(pin))).containsExactly(0xC5, 0x00);
+	}
+
 	@Test
 	void canEnableDisableDigitalListening() {
 		byte pinNumber = 12;
@@ -391,7 +498,7 @@ class FirmataProtocolTest {
 
 	// -------------------------------------------------------------------------
 
-	private void givenMessage(int... ints) {
+	void givenMessage(int... ints) {
 		givenMessage(toBytes(ints));
 	}
 
@@ -407,7 +514,7 @@ class FirmataProtocolTest {
 		this.bytes = bytes;
 	}
 
-	private void thenMessageIs(Pin pin, Object value) {
+	void thenMessageIs(Pin pin, Object value) {
 		assertThat(messages).singleElement().isInstanceOfSatisfying(FromDeviceMessagePinStateChanged.class, e -> {
 			assertSoftly(s -> {
 				s.assertThat(e.getPin()).isEqualTo(pin);
@@ -430,7 +537,7 @@ class FirmataProtocolTest {
 		}
 	}
 
-	private void whenMessageIsProcessed() throws IOException {
+	void whenMessageIsProcessed() throws IOException {
 		// read in "random" (two) junks
 		messages = new ArrayList<>();
 		InputStream stream = new ByteArrayInputStream(bytes);
@@ -0,0 +1,96 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.core.proto.firmata;
+
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.proto.api.Protocols.protoByName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.ardulink.core.messages.api.FromDeviceMessageCustom;
+import org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessor;
+import org.junit.jupiter.api.Test;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class NativeFirmataProtocolTest extends FirmataProtocolTest {
+
+	@Override
+	ByteStreamProcessor newByteStreamProcessor() {
+		return new NativeFirmataProtocol().newByteStreamProcessor();
+	}
+
+	@Override
+	ByteStreamProcessor newByteStreamProcessor(CapabilityCache capabilityCache) {
+		return new NativeFirmataProtocol(capabilityCache).newByteStreamProcessor();
+	}
+
+	@Test
+	void isRegisteredAsProtocol() {
+		assertThat(protoByName(NativeFirmataProtocol.NAME)).isInstanceOf(NativeFirmataProtocol.class);
+	}
+
+	@Test
+	void canReadExtendedAnalogMessage() throws IOException {
+		givenMessage(0xF0, 0x6F, 0x09, 0x00, 0x00, 0x01, 0xF7);
+		whenMessageIsProcessed();
+		thenMessageIs(analogPin(9), 16 * 1024);
+	}
+
+	@Test
+	void resyncsOnStatusByteAfterTruncatedMessage() throws IOException {
+		givenMessage(0xE3, 0x7F, /* truncated */ 0xE5, 0x2A, 0x00);
+		whenMessageIsProcessed();
+		thenMessageIs(analogPin(5), 42);
+	}
+
+	@Test
+	void ignoresDataBytesOutsideOfMessages() throws IOException {
+		givenMessage(0x01, 0x02, 0xFF, 0x03, 0xE5, 0x2A, 0x00, 0x04);
+		whenMessageIsProcessed();
+		thenMessageIs(analogPin(5), 42);
+	}
+
+	@Test
+	void discardsOversizedSysexMessage() throws IOException {
+		int[] message = new int[2 + 8 * 1024 + 1 + 3];
+		message[0] = 0xF0;
+		message[1] = 0x71;
+		message[message.length - 4] = 0xF7;
+		message[message.length - 3] = 0xE5;
+		message[message.length - 2] = 0x2A;
+		message[message.length - 1] = 0x00;
+		givenMessage(message);
+		whenMessageIsProcessed();
+		thenMessageIs(analogPin(5), 42);
+	}
+
+	@Test
+	void dropsSysexMessagesIgnoredByArdulink() throws IOException {
+		givenMessage(0xF0, 0x6E, 0x03, 0x01, 0x01, 0xF7, /**/ 0xF0, 0x7E, 0x41, 0x00, 0xF7);
+		whenMessageIsProcessed();
+		assertThat(messages).singleElement().isInstanceOf(FromDeviceMessageCustom.class);
+	}
+
+}
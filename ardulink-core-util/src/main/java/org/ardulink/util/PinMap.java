@@ -0,0 +1,174 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.util;
+
+import static org.ardulink.util.Preconditions.checkArgument;
+import static org.ardulink.util.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Map for pin keys (a type and a number) without hashing: Keys with a type
+ * index between 0 and <code>types</code> (exclusive) and a number between 0 and
+ * {@value #INDEXED_NUMBERS} (exclusive) are looked up in an array per type, all
+ * other keys are kept in a {@link ConcurrentHashMap}.<br>
+ * Reads are lock-free, writes of indexed keys are serialized. Neither keys nor
+ * values may be <code>null</code>.
+ *
+ * @param <K> the pin type
+ * @param <V> the value type
+ */
+public class PinMap<K, V> {
+
+	public static final int INDEXED_NUMBERS = 256;
+
+	private static final class Entry<K, V> {
+
+		private final K key;
+		private final V value;
+
+		private Entry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+	}
+
+	private final ToIntFunction<? super K> typeIndex;
+	private final ToIntFunction<? super K> number;
+	private final AtomicReferenceArray<Entry<K, V>> entries;
+	private final Map<K, V> overflow = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new PinMap.
+	 * 
+	 * @param types     the number of pin types to index
+	 * @param typeIndex the type index of a key, e.g. the ordinal of the pin type
+	 * @param number    the number of a key, e.g. the pin number
+	 */
+	public PinMap(int types, ToIntFunction<? super K> typeIndex, ToIntFunction<? super K> number) {
+		checkArgument(types > 0, "types must be greater than 0 but was %s", types);
+		this.typeIndex = checkNotNull(typeIndex, "typeIndex must not be null");
+		this.number = checkNotNull(number, "number must not be null");
+		this.entries = new AtomicReferenceArray<>(types * INDEXED_NUMBERS);
+	}
+
+	private int indexOf(K key) {
+		int type = typeIndex.applyAsInt(key);
+		int num = number.applyAsInt(key);
+		return type >= 0 && num >= 0 && num < INDEXED_NUMBERS && type * INDEXED_NUMBERS < entries.length()
+				? type * INDEXED_NUMBERS + num
+				: -1;
+	}
+
+	private static <V> V valueOf(Entry<?, V> entry) {
+		return entry == null ? null : entry.value;
+	}
+
+	public V get(K key) {
+		int index = indexOf(key);
+		return index < 0 ? overflow.get(key) : valueOf(entries.get(index));
+	}
+
+	public V getOrDefault(K key, V defaultValue) {
+		V value = get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	public boolean containsKey(K key) {
+		return get(key) != null;
+	}
+
+	public V put(K key, V value) {
+		checkNotNull(value, "value must not be null");
+		int index = indexOf(key);
+		if (index < 0) {
+			return overflow.put(key, value);
+		}
+		synchronized (entries) {
+			return valueOf(entries.getAndSet(index, new Entry<>(key, value)));
+		}
+	}
+
+	public V remove(K key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return overflow.remove(key);
+		}
+		synchronized (entries) {
+			return valueOf(entries.getAndSet(index, null));
+		}
+	}
+
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		V value = get(key);
+		return value == null ? compute(key, (k, v) -> v == null ? mappingFunction.apply(k) : v) : value;
+	}
+
+	/**
+	 * Same as {@link Map#compute(Object, BiFunction)}: The passed function is
+	 * called atomically, returning <code>null</code> removes the key.
+	 * 
+	 * @param key               the key
+	 * @param remappingFunction function computing the new value
+	 * @return the new value or <code>null</code> if the key was removed
+	 */
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return overflow.compute(key, remappingFunction);
+		}
+		synchronized (entries) {
+			V newValue = remappingFunction.apply(key, valueOf(entries.get(index)));
+			entries.set(index, newValue == null ? null : new Entry<>(key, newValue));
+			return newValue;
+		}
+	}
+
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		for (int i = 0; i < entries.length(); i++) {
+			Entry<K, V> entry = entries.get(i);
+			if (entry != null) {
+				action.accept(entry.key, entry.value);
+			}
+		}
+		overflow.forEach(action);
+	}
+
+	public boolean isEmpty() {
+		for (int i = 0; i < entries.length(); i++) {
+			if (entries.get(i) != null) {
+				return false;
+			}
+		}
+		return overflow.isEmpty();
+	}
+
+}
@@ -0,0 +1,308 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.util;
+
+import static org.ardulink.util.Preconditions.checkArgument;
+import static org.ardulink.util.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Resolves topics of the form <code>prefix + number + suffix</code> to the
+ * target of the matching route and the (pin) number without using regular
+ * expressions: The prefixes are kept in a path compressed trie so a topic is
+ * resolved in one pass over its characters, the number is parsed while walking
+ * and the suffix is compared in place. If several routes match, the one added
+ * first wins.<br>
+ * Routers are immutable and threadsafe, they are created using a
+ * {@link Builder}.
+ *
+ * @param <T> the route target type
+ */
+public final class TopicRouter<T> {
+
+	private static final String NUMBER_GROUP_WORD = "(\\w+)";
+	private static final String NUMBER_GROUP_DIGIT = "(\\d+)";
+
+	private static final String META_CHARS = "\\.[]{}()*+?^$|";
+
+	/**
+	 * Called with the target of the route matched and the number parsed from the
+	 * topic.
+	 *
+	 * @param <T> the route target type
+	 * @param <R> the result type
+	 */
+	public interface Handler<T, R> {
+		R routed(T target, int number);
+	}
+
+	private static final class Route<T> {
+
+		private final int order;
+		private final String suffix;
+		private final T target;
+
+		private Route(int order, String suffix, T target) {
+			this.order = order;
+			this.suffix = suffix;
+			this.target = target;
+		}
+
+	}
+
+	/**
+	 * Node of the (path compressed) trie: <code>label</code> are the characters
+	 * leading from the parent to this node, the children are indexed by the first
+	 * character of their label.
+	 */
+	private static final class Node<T> {
+
+		private final String label;
+		private final char[] keys;
+		private final Node<T>[] children;
+		private final Route<T>[] routes;
+
+		private Node(String label, char[] keys, Node<T>[] children, Route<T>[] routes) {
+			this.label = label;
+			this.keys = keys;
+			this.children = children;
+			this.routes = routes;
+		}
+
+		private Node<T> child(char c) {
+			int index = Arrays.binarySearch(keys, c);
+			return index < 0 ? null : children[index];
+		}
+
+	}
+
+	private static final class PrefixNode<T> {
+
+		private final SortedMap<Character, PrefixNode<T>> children = new TreeMap<>();
+		private final List<Route<T>> routes = new ArrayList<>();
+
+	}
+
+	public static class Builder<T> {
+
+		private final PrefixNode<T> root = new PrefixNode<>();
+		private int routes;
+
+		/**
+		 * Adds a route for topics made of <code>prefix</code>, a decimal number and
+		 * <code>suffix</code>.
+		 * 
+		 * @param prefix the literal text before the number
+		 * @param suffix the literal text after the number
+		 * @param target the target of this route
+		 * @return this builder
+		 */
+		public Builder<T> route(String prefix, String suffix, T target) {
+			checkNotNull(prefix, "prefix must not be null");
+			checkNotNull(suffix, "suffix must not be null");
+			checkNotNull(target, "target must not be null");
+			PrefixNode<T> node = root;
+			for (int i = 0; i < prefix.length(); i++) {
+				node = node.children.computeIfAbsent(prefix.charAt(i), c -> new PrefixNode<>());
+			}
+			node.routes.add(new Route<>(routes++, suffix, target));
+			return this;
+		}
+
+		/**
+		 * Adds a route for a pattern consisting of literal text and exactly one
+		 * number group (<code>(\w+)</code> or <code>(\d+)</code>).
+		 * 
+		 * @param pattern the pattern to route
+		 * @param target  the target of this route
+		 * @return this builder
+		 * @see TopicRouter#isRoutable(Pattern)
+		 */
+		public Builder<T> route(Pattern pattern, T target) {
+			String[] prefixAndSuffix = prefixAndSuffix(pattern);
+			checkArgument(prefixAndSuffix != null, "%s cannot be routed", pattern);
+			return route(prefixAndSuffix[0], prefixAndSuffix[1], target);
+		}
+
+		public TopicRouter<T> build() {
+			return new TopicRouter<>(compress("", root));
+		}
+
+		/**
+		 * Collapses chains of nodes having one child and no routes into one node.
+		 */
+		@SuppressWarnings("unchecked")
+		private static <T> Node<T> compress(String label, PrefixNode<T> node) {
+			StringBuilder sb = new StringBuilder(label);
+			while (node.routes.isEmpty() && node.children.size() == 1) {
+				Character key = node.children.firstKey();
+				sb.append(key.charValue());
+				node = node.children.get(key);
+			}
+			char[] keys = new char[node.children.size()];
+			Node<T>[] children = new Node[keys.length];
+			int i = 0;
+			for (Entry<Character, PrefixNode<T>> entry : node.children.entrySet()) {
+				keys[i] = entry.getKey();
+				children[i++] = compress(String.valueOf(entry.getKey()), entry.getValue());
+			}
+			return new Node<>(sb.toString(), keys, children, node.routes.toArray(new Route[0]));
+		}
+
+	}
+
+	private final Node<T> root;
+
+	public static <T> Builder<T> builder() {
+		return new Builder<>();
+	}
+
+	private TopicRouter(Node<T> root) {
+		this.root = root;
+	}
+
+	/**
+	 * Returns <code>true</code> if the passed pattern can be added via
+	 * {@link Builder#route(Pattern, Object)}, this is if it has no flags and
+	 * consists of literal text (escaped characters and <code>\Q...\E</code>
+	 * quotes are allowed) and exactly one number group.
+	 * 
+	 * @param pattern the pattern to check
+	 * @return <code>true</code> if the pattern can be routed
+	 */
+	public static boolean isRoutable(Pattern pattern) {
+		return prefixAndSuffix(pattern) != null;
+	}
+
+	private static String[] prefixAndSuffix(Pattern pattern) {
+		if (pattern == null || pattern.flags() != 0) {
+			return null;
+		}
+		String regex = pattern.pattern();
+		int index = groupIndex(regex);
+		if (index < 0) {
+			return null;
+		}
+		String prefix = literal(regex.substring(0, index));
+		String suffix = literal(regex.substring(index + NUMBER_GROUP_WORD.length()));
+		return prefix == null || suffix == null ? null : new String[] { prefix, suffix };
+	}
+
+	private static int groupIndex(String regex) {
+		int word = regex.indexOf(NUMBER_GROUP_WORD);
+		return word < 0 ? regex.indexOf(NUMBER_GROUP_DIGIT) : word;
+	}
+
+	private static String literal(String regex) {
+		StringBuilder sb = new StringBuilder(regex.length());
+		int i = 0;
+		while (i < regex.length()) {
+			char c = regex.charAt(i);
+			if (regex.startsWith("\\Q", i)) {
+				int end = regex.indexOf("\\E", i + 2);
+				int stop = end < 0 ? regex.length() : end;
+				sb.append(regex, i + 2, stop);
+				i = end < 0 ? stop : stop + 2;
+			} else if (c == '\\') {
+				if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+					return null;
+				}
+				sb.append(regex.charAt(i + 1));
+				i += 2;
+			} else if (META_CHARS.indexOf(c) >= 0) {
+				return null;
+			} else {
+				sb.append(c);
+				i++;
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Resolves the passed topic.
+	 * 
+	 * @param <R>     the result type
+	 * @param topic   the topic to resolve
+	 * @param handler the handler to call if a route matched
+	 * @return the result of the handler or <code>null</code> if no route matched
+	 */
+	public <R> R route(String topic, Handler<? super T, R> handler) {
+		Route<T> match = null;
+		int matchNumber = 0;
+		int i = 0;
+		for (Node<T> node = root; node != null && topic.startsWith(node.label, i);) {
+			i += node.label.length();
+			if (node.routes.length > 0) {
+				long number = parseNumber(topic, i);
+				if (number >= 0) {
+					int suffixStart = i + (int) (number >>> 32);
+					for (Route<T> route : node.routes) {
+						if ((match == null || route.order < match.order) && endsWith(topic, suffixStart, route.suffix)) {
+							match = route;
+							matchNumber = (int) number;
+						}
+					}
+				}
+			}
+			node = i < topic.length() ? node.child(topic.charAt(i)) : null;
+		}
+		return match == null ? null : handler.routed(match.target, matchNumber);
+	}
+
+	/**
+	 * Parses the digits starting at <code>start</code>.
+	 * 
+	 * @return the count of digits in the upper and the value in the lower 32 bits
+	 *         or -1 if there is no number at <code>start</code> or if it does not
+	 *         fit into an int
+	 */
+	private static long parseNumber(String topic, int start) {
+		long value = 0;
+		int i = start;
+		for (; i < topic.length(); i++) {
+			char c = topic.charAt(i);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			value = value * 10 + (c - '0');
+			if (value > Integer.MAX_VALUE) {
+				return -1;
+			}
+		}
+		int digits = i - start;
+		return digits == 0 ? -1 : ((long) digits << 32) | value;
+	}
+
+	private static boolean endsWith(String topic, int start, String suffix) {
+		return topic.length() - start == suffix.length() && topic.startsWith(suffix, start);
+	}
+
+}
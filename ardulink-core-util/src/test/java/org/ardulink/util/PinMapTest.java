@@ -0,0 +1,94 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class PinMapTest {
+
+	private static final class Key {
+
+		private final int type;
+		private final int number;
+
+		private Key(int type, int number) {
+			this.type = type;
+			this.number = number;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * type + number;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).type == type && ((Key) obj).number == number;
+		}
+
+	}
+
+	private final PinMap<Key, String> sut = new PinMap<>(2, k -> k.type, k -> k.number);
+
+	@Test
+	void indexedAndNonIndexedKeys() {
+		Key[] keys = { new Key(0, 0), new Key(1, 0), new Key(1, PinMap.INDEXED_NUMBERS - 1),
+				new Key(1, PinMap.INDEXED_NUMBERS), new Key(0, -1), new Key(2, 3) };
+		for (Key key : keys) {
+			assertThat(sut.get(key)).isNull();
+			assertThat(sut.put(key, "a")).isNull();
+			assertThat(sut.put(new Key(key.type, key.number), "b")).isEqualTo("a");
+			assertThat(sut.get(key)).isEqualTo("b");
+			assertThat(sut.containsKey(key)).isTrue();
+		}
+		Map<Key, String> all = new HashMap<>();
+		sut.forEach(all::put);
+		assertThat(all).hasSize(keys.length).containsOnlyKeys(keys);
+
+		for (Key key : keys) {
+			assertThat(sut.remove(key)).isEqualTo("b");
+			assertThat(sut.containsKey(key)).isFalse();
+		}
+		assertThat(sut.isEmpty()).isTrue();
+	}
+
+	@Test
+	void computeRemovesKeyIfFunctionReturnsNull() {
+		Key key = new Key(0, 1);
+		assertThat(sut.computeIfAbsent(key, k -> "a")).isEqualTo("a");
+		assertThat(sut.computeIfAbsent(key, k -> "b")).isEqualTo("a");
+		assertThat(sut.compute(key, (k, v) -> v + "c")).isEqualTo("ac");
+		assertThat(sut.compute(key, (k, v) -> null)).isNull();
+		assertThat(sut.getOrDefault(key, "d")).isEqualTo("d");
+		assertThat(sut.isEmpty()).isTrue();
+	}
+
+}
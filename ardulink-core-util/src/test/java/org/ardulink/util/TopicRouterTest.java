@@ -0,0 +1,113 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.util;
+
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+import static java.util.regex.Pattern.compile;
+import static java.util.regex.Pattern.quote;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class TopicRouterTest {
+
+	private static String resolve(TopicRouter<String> router, String topic) {
+		return router.route(topic, (target, number) -> target + number);
+	}
+
+	@Test
+	void resolvesTargetAndNumber() {
+		TopicRouter<String> sut = TopicRouter.<String>builder() //
+				.route("home/D", "", "D") //
+				.route("home/A", "/value/set", "A") //
+				.route("home/system/listening/D", "", "CD") //
+				.build();
+		assertThat(resolve(sut, "home/D13")).isEqualTo("D13");
+		assertThat(resolve(sut, "home/D007")).isEqualTo("D7");
+		assertThat(resolve(sut, "home/A2/value/set")).isEqualTo("A2");
+		assertThat(resolve(sut, "home/system/listening/D4")).isEqualTo("CD4");
+
+		assertThat(resolve(sut, "home/A2")).isNull();
+		assertThat(resolve(sut, "home/A2/value/setX")).isNull();
+		assertThat(resolve(sut, "home/D")).isNull();
+		assertThat(resolve(sut, "home/Dx")).isNull();
+		assertThat(resolve(sut, "home/D1x")).isNull();
+		assertThat(resolve(sut, "home/D" + (Integer.MAX_VALUE + 1L))).isNull();
+		assertThat(resolve(sut, "home/D" + Integer.MAX_VALUE)).isEqualTo("D" + Integer.MAX_VALUE);
+		assertThat(resolve(sut, "")).isNull();
+	}
+
+	@Test
+	void firstAddedRouteWinsIfSeveralMatch() {
+		TopicRouter<String> sut = TopicRouter.<String>builder() //
+				.route("a/", "/x", "long") //
+				.route("a/1", "/x", "short") //
+				.route("a/", "/x", "duplicate") //
+				.build();
+		assertThat(resolve(sut, "a/12/x")).isEqualTo("long12");
+	}
+
+	@Test
+	void routesLiteralPatternsLikeTheirRegex() {
+		Pattern[] patterns = { compile("home/D(\\w+)"), compile("home/A(\\d+)" + quote("/value/set")),
+				compile("home\\/system\\/listening\\/D(\\w+)") };
+		TopicRouter.Builder<Pattern> builder = TopicRouter.builder();
+		for (Pattern pattern : patterns) {
+			assertThat(TopicRouter.isRoutable(pattern)).isTrue();
+			builder.route(pattern, pattern);
+		}
+		TopicRouter<Pattern> sut = builder.build();
+		for (String topic : new String[] { "home/D1", "home/D42", "home/A3/value/set", "home/A3/value/get",
+				"home/system/listening/D9", "home/X1", "home/D-1" }) {
+			String routed = sut.route(topic, (p, n) -> p + "#" + n);
+			assertThat(routed).isEqualTo(regexResult(patterns, topic));
+		}
+	}
+
+	private static String regexResult(Pattern[] patterns, String topic) {
+		for (Pattern pattern : patterns) {
+			Matcher matcher = pattern.matcher(topic);
+			if (matcher.matches()) {
+				return pattern + "#" + Integer.parseInt(matcher.group(1));
+			}
+		}
+		return null;
+	}
+
+	@Test
+	void doesNotRoutePatternsWithRegexFeatures() {
+		for (Pattern pattern : new Pattern[] { compile("home/.(\\w+)"), compile("home/D(\\w+)/(\\w+)"),
+				compile("home/D"), compile("home/[AD](\\w+)"), compile("home/D(\\w+)", CASE_INSENSITIVE),
+				compile("home/\\w(\\w+)") }) {
+			assertThat(TopicRouter.isRoutable(pattern)).isFalse();
+			assertThatIllegalArgumentException().isThrownBy(() -> TopicRouter.builder().route(pattern, "x"));
+		}
+	}
+
+}
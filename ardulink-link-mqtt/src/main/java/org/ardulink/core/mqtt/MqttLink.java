@@ -24,7 +24,6 @@ import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.function.Predicate.not;
-import static java.util.regex.Pattern.quote;
 import static org.ardulink.core.Pin.analogPin;
 import static org.ardulink.core.Pin.digitalPin;
 import static org.ardulink.core.events.DefaultAnalogPinValueChangedEvent.analogPinValueChanged;
@@ -34,15 +33,15 @@ import static org.ardulink.core.mqtt.MqttLinkConfig.Connection.TCP;
 import static org.ardulink.core.mqtt.MqttLinkConfig.Connection.TLS;
 import static org.ardulink.util.Preconditions.checkArgument;
 import static org.ardulink.util.Preconditions.checkNotNull;
-import static org.ardulink.util.Regex.regex;
 import static org.ardulink.util.Throwables.propagate;
+import static org.eclipse.paho.client.mqttv3.MqttException.REASON_CODE_MAX_INFLIGHT;
 
 import java.io.IOException;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.ardulink.core.AbstractListenerLink;
 import org.ardulink.core.Pin;
@@ -52,14 +51,20 @@ import org.ardulink.core.Pin.Type;
 import org.ardulink.core.Tone;
 import org.ardulink.core.mqtt.MqttLinkConfig.Connection;
 import org.ardulink.core.proto.api.MessageIdHolders;
+import org.ardulink.util.TopicRouter;
+import org.eclipse.paho.client.mqttv3.DisconnectedBufferOptions;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
 import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
-import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * [ardulinktitle] [ardulinkversion]
@@ -68,9 +73,19 @@ import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
  * 
  * [adsense]
  *
+ * Publishes asynchronously: The switch and listening methods hand the message
+ * over to an {@link MqttAsyncClient} and return without waiting for the broker.
+ * While the client reconnects, messages are kept in a bounded buffer (see
+ * {@link MqttLinkConfig#bufferSize}) and are sent once the connection is back.
+ * If the buffer is exhausted the methods fail with an {@link IOException}.
+ * While the in-flight window (see {@link MqttLinkConfig#maxInflight}) is
+ * exhausted the methods block until the client has delivered a message.
+ *
  */
 public class MqttLink extends AbstractListenerLink {
 
+	private static final Logger logger = LoggerFactory.getLogger(MqttLink.class);
+
 	private static final String ANALOG = "A";
 	private static final String DIGITAL = "D";
 
@@ -89,10 +104,23 @@ public class MqttLink extends AbstractListenerLink {
 
 	private final int qos;
 	private final String topic;
-	private final Pattern mqttReceivePattern;
-	private final MqttClient mqttClient;
+	private final TopicRouter<Type> receiveRouter;
+	private final MqttAsyncClient mqttClient;
 	private final boolean hasAppendix;
 
+	private static final long INFLIGHT_RETRY_MILLIS = 10;
+	private static final int MAX_RESUBSCRIBE_ATTEMPTS = 3;
+
+	private static final byte[] TRUE_PAYLOAD = encode(TRUE);
+	private static final byte[] FALSE_PAYLOAD = encode(FALSE);
+	private static final byte[][] VALUE_PAYLOADS = valuePayloads(256);
+
+	private final ConcurrentMap<Pin, String> switchTopics = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Pin, String> controlTopics = new ConcurrentHashMap<>();
+
+	private final Object delivered = new Object();
+	private volatile boolean closed;
+
 	public MqttLink(MqttLinkConfig config) throws MqttException {
 		checkArgument(config.getHost() != null, "host must not be null");
 		checkArgument(config.getClientId() != null, "clientId must not be null");
@@ -100,16 +128,17 @@ public class MqttLink extends AbstractListenerLink {
 		this.qos = config.getQos().intValue();
 		this.hasAppendix = config.separateTopics;
 		this.topic = config.getTopic();
-		this.mqttReceivePattern = regex(MqttLink.this.topic + "([aAdD])(\\d+)" + quote(appendixSub()));
+		this.receiveRouter = receiveRouter();
 		this.mqttClient = newClient(config);
 		this.mqttClient.setCallback(callback());
-		this.mqttClient.connect(options(config));
-		subscribe();
+		this.mqttClient.setBufferOpts(bufferOptions(config));
+		this.mqttClient.connect(options(config)).waitForCompletion();
+		subscribe(null).waitForCompletion();
 		fireReconnected();
 	}
 
-	private void subscribe() throws MqttException {
-		this.mqttClient.subscribe(topic + "#", qos, (t, m) -> messageReceived(t, m));
+	private IMqttToken subscribe(IMqttActionListener callback) throws MqttException {
+		return this.mqttClient.subscribe(topic + "#", qos, null, callback, (t, m) -> messageReceived(t, m));
 	}
 
 	private MqttCallback callback() {
@@ -122,7 +151,9 @@ public class MqttLink extends AbstractListenerLink {
 
 			@Override
 			public void deliveryComplete(IMqttDeliveryToken token) {
-				// noop
+				synchronized (delivered) {
+					delivered.notifyAll();
+				}
 			}
 
 			@Override
@@ -132,25 +163,75 @@ public class MqttLink extends AbstractListenerLink {
 
 			@Override
 			public void connectComplete(boolean reconnect, String serverURI) {
+				resubscribe(1);
+			}
+		};
+	}
+
+	private void resubscribe(int attempt) {
+		try {
+			subscribe(fireReconnectedOnSuccess(attempt));
+		} catch (MqttException e) {
+			resubscribeFailed(attempt, e);
+		}
+	}
+
+	/**
+	 * Reports the reconnect not until the subscription is active again, so
+	 * messages published after the reconnect was reported do not get lost.
+	 */
+	private IMqttActionListener fireReconnectedOnSuccess(int attempt) {
+		return new IMqttActionListener() {
+
+			@Override
+			public void onSuccess(IMqttToken asyncActionToken) {
 				fireReconnected();
-				try {
-					subscribe();
-				} catch (MqttException e) {
-					throw propagate(e);
-				}
+			}
+
+			@Override
+			public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+				resubscribeFailed(attempt, exception);
 			}
 		};
 	}
 
+	/**
+	 * Retries the subscription, if all attempts failed the listeners are informed
+	 * that the connection is lost (the next reconnect of the client subscribes
+	 * again).
+	 */
+	private void resubscribeFailed(int attempt, Throwable exception) {
+		if (closed) {
+			return;
+		}
+		if (attempt < MAX_RESUBSCRIBE_ATTEMPTS) {
+			logger.warn("Subscribing to {} after reconnect failed (attempt {}), retrying", topic, attempt, exception);
+			resubscribe(attempt + 1);
+		} else {
+			logger.error("Subscribing to {} after reconnect failed {} times", topic, attempt, exception);
+			fireConnectionLost();
+		}
+	}
+
 	private static MqttConnectOptions options(MqttLinkConfig config) {
 		MqttConnectOptions options = new MqttConnectOptions();
 		options.setConnectionTimeout(10);
 		options.setAutomaticReconnect(true);
+		options.setMaxInflight(config.maxInflight);
 		nonEmpty(config.user).ifPresent(options::setUserName);
 		nonEmpty(config.password).map(String::toCharArray).ifPresent(options::setPassword);
 		return options;
 	}
 
+	private static DisconnectedBufferOptions bufferOptions(MqttLinkConfig config) {
+		DisconnectedBufferOptions options = new DisconnectedBufferOptions();
+		options.setBufferEnabled(true);
+		options.setBufferSize(config.bufferSize);
+		options.setPersistBuffer(false);
+		options.setDeleteOldestMessages(false);
+		return options;
+	}
+
 	private static Optional<String> nonEmpty(String user) {
 		return Optional.ofNullable(user).filter(not(String::isEmpty));
 	}
@@ -163,26 +244,55 @@ public class MqttLink extends AbstractListenerLink {
 		return hasAppendix ? "/value/set" : "";
 	}
 
+	private TopicRouter<Type> receiveRouter() {
+		String suffix = appendixSub();
+		return TopicRouter.<Type>builder() //
+				.route(topic + ANALOG, suffix, Type.ANALOG) //
+				.route(topic + ANALOG.toLowerCase(), suffix, Type.ANALOG) //
+				.route(topic + DIGITAL, suffix, Type.DIGITAL) //
+				.route(topic + DIGITAL.toLowerCase(), suffix, Type.DIGITAL) //
+				.build();
+	}
+
 	private void messageReceived(String topic, MqttMessage message) {
-		Matcher matcher = mqttReceivePattern.matcher(topic);
-		if (matcher.matches() && matcher.groupCount() == 2) {
-			String pinType = matcher.group(1);
-			int pinNumber = parseInt(matcher.group(2));
-			String payload = payload(message);
-			if (DIGITAL.equalsIgnoreCase(pinType)) {
-				fireStateChanged(digitalPinValueChanged(digitalPin(pinNumber), parseBoolean(payload)));
-			} else if (ANALOG.equalsIgnoreCase(pinType)) {
-				fireStateChanged(analogPinValueChanged(analogPin(pinNumber), parseInt(payload)));
-			}
+		receiveRouter.route(topic, (type, pinNumber) -> pinValueChanged(type, pinNumber, payload(message)));
+	}
+
+	private Type pinValueChanged(Type type, int pinNumber, String payload) {
+		if (type == Type.DIGITAL) {
+			fireStateChanged(digitalPinValueChanged(digitalPin(pinNumber), parseBoolean(payload)));
+		} else {
+			fireStateChanged(analogPinValueChanged(analogPin(pinNumber), parseInt(payload)));
 		}
+		return type;
 	}
 
 	private String payload(MqttMessage message) {
 		return new String(message.getPayload(), UTF_8);
 	}
 
-	private MqttClient newClient(MqttLinkConfig config) throws MqttException {
-		return new MqttClient(serverUrl(config), config.getClientId(), new MemoryPersistence());
+	private static byte[] encode(Object value) {
+		return String.valueOf(value).getBytes(UTF_8);
+	}
+
+	private static byte[][] valuePayloads(int count) {
+		byte[][] payloads = new byte[count][];
+		for (int i = 0; i < payloads.length; i++) {
+			payloads[i] = encode(i);
+		}
+		return payloads;
+	}
+
+	private static byte[] payload(int value) {
+		return value >= 0 && value < VALUE_PAYLOADS.length ? VALUE_PAYLOADS[value] : encode(value);
+	}
+
+	private static byte[] payload(boolean value) {
+		return value ? TRUE_PAYLOAD : FALSE_PAYLOAD;
+	}
+
+	private MqttAsyncClient newClient(MqttLinkConfig config) throws MqttException {
+		return new MqttAsyncClient(serverUrl(config), config.getClientId(), new MemoryPersistence());
 	}
 
 	private String serverUrl(MqttLinkConfig config) {
@@ -196,18 +306,23 @@ public class MqttLink extends AbstractListenerLink {
 
 	@Override
 	public long startListening(Pin pin) throws IOException {
-		publish(controlTopic(pin), TRUE);
+		publish(controlTopic(pin), TRUE_PAYLOAD);
 		return MessageIdHolders.NO_ID.getId();
 	}
 
 	@Override
 	public long stopListening(Pin pin) throws IOException {
-		publish(controlTopic(pin), FALSE);
+		publish(controlTopic(pin), FALSE_PAYLOAD);
 		return MessageIdHolders.NO_ID.getId();
 	}
 
 	private String controlTopic(Pin pin) {
-		return topic + "system/listening/" + getType(pin) + pin.pinNum() + appendixPub();
+		return controlTopics.computeIfAbsent(pin,
+				p -> topic + "system/listening/" + getType(p) + p.pinNum() + appendixPub());
+	}
+
+	private String switchTopic(Pin pin) {
+		return switchTopics.computeIfAbsent(pin, p -> topic + getType(p) + p.pinNum() + appendixPub());
 	}
 
 	private String getType(Pin pin) {
@@ -216,28 +331,53 @@ public class MqttLink extends AbstractListenerLink {
 
 	@Override
 	public long switchAnalogPin(AnalogPin analogPin, int value) throws IOException {
-		switchPin(ANALOG, analogPin, value);
+		publish(switchTopic(analogPin), payload(value));
 		return MessageIdHolders.NO_ID.getId();
 	}
 
 	@Override
 	public long switchDigitalPin(DigitalPin digitalPin, boolean value) throws IOException {
-		switchPin(DIGITAL, digitalPin, value);
+		publish(switchTopic(digitalPin), payload(value));
 		return MessageIdHolders.NO_ID.getId();
 	}
 
-	private void switchPin(String type, Pin pin, Object value) throws IOException {
-		publish(topic + type + pin.pinNum() + appendixPub(), value);
-	}
-
-	private void publish(String topic, Object value) throws IOException {
+	/**
+	 * Hands the message over to the client. The client rejects messages of any
+	 * qos while its in-flight window is full, so the calling thread waits for a
+	 * delivery and retries (backpressure) instead of failing.
+	 */
+	private void publish(String topic, byte[] payload) throws IOException {
 		try {
-			this.mqttClient.publish(topic, String.valueOf(value).getBytes(), qos, false);
+			while (!tryPublish(topic, payload)) {
+				awaitDelivery();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
 		} catch (Exception e) {
 			throw new IOException(e);
 		}
 	}
 
+	private boolean tryPublish(String topic, byte[] payload) throws MqttException {
+		try {
+			this.mqttClient.publish(topic, payload, qos, false);
+			return true;
+		} catch (MqttException e) {
+			if (e.getReasonCode() != REASON_CODE_MAX_INFLIGHT || closed) {
+				throw e;
+			}
+			return false;
+		}
+	}
+
+	private void awaitDelivery() throws InterruptedException {
+		synchronized (delivered) {
+			// qos 0 messages do not call deliveryComplete, so do not wait forever
+			delivered.wait(INFLIGHT_RETRY_MILLIS);
+		}
+	}
+
 	@Override
 	public long sendKeyPressEvent(char keychar, int keycode, int keylocation, int keymodifiers, int keymodifiersex)
 			throws IOException {
@@ -262,9 +402,10 @@ public class MqttLink extends AbstractListenerLink {
 	@Override
 	public void close() {
 		try {
+			closed = true;
 			deregisterAllEventListeners();
 			if (this.mqttClient.isConnected()) {
-				this.mqttClient.disconnect();
+				this.mqttClient.disconnect().waitForCompletion();
 				this.mqttClient.close();
 			}
 			super.close();
@@ -43,6 +43,10 @@ public class MqttLinkConfig implements LinkConfig {
 
 	private static final Qos DEFAULT_QOS = Qos.DEFAULT;
 
+	public static final int DEFAULT_MAX_INFLIGHT = 100;
+
+	public static final int DEFAULT_BUFFER_SIZE = 5000;
+
 	public enum Connection {
 		TCP, SSL, TLS
 	}
@@ -74,6 +78,14 @@ public class MqttLinkConfig implements LinkConfig {
 	@Named("separatedTopics")
 	public boolean separateTopics;
 
+	@Named("maxInflight")
+	@Positive
+	public int maxInflight = DEFAULT_MAX_INFLIGHT;
+
+	@Named("bufferSize")
+	@Positive
+	public int bufferSize = DEFAULT_BUFFER_SIZE;
+
 	@Named("host")
 	public String getHost() {
 		return host;
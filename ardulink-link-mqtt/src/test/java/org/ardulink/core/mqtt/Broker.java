@@ -22,6 +22,7 @@ import static io.moquette.broker.config.IConfig.HOST_PROPERTY_NAME;
 import static io.moquette.broker.config.IConfig.PERSISTENCE_ENABLED_PROPERTY_NAME;
 import static io.moquette.broker.config.IConfig.PORT_PROPERTY_NAME;
 import static io.moquette.broker.config.IConfig.WEB_SOCKET_PORT_PROPERTY_NAME;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.toMap;
 import static org.ardulink.util.Maps.toProperties;
@@ -135,7 +136,7 @@ public class Broker implements BeforeEachCallback, AfterEachCallback {
 
 			@Override
 			public void onPublish(InterceptPublishMessage message) {
-				messages.add(new Message(message.getTopicName(), new String(message.getPayload().array())));
+				messages.add(new Message(message.getTopicName(), message.getPayload().toString(UTF_8)));
 			}
 
 			@Override
@@ -97,7 +97,7 @@ class MqttLinkIntegrationTest {
 	static final String TOPIC = "myTopic" + System.currentTimeMillis();
 
 	@RegisterExtension
-	Broker broker = newBroker().port(freePort());
+	Broker broker = newBroker().port(freePort()).recordMessages();
 
 	@RegisterExtension
 	AnotherMqttClient mqttClient = newClient(TOPIC, broker.port());
@@ -134,6 +134,38 @@ class MqttLinkIntegrationTest {
 		}
 	}
 
+	@ParameterizedTest(name = "{index} {0}")
+	@MethodSource("data")
+	void buffersMessagesWhileReconnecting(TestConfig testConfig) throws Exception {
+		try (Link link = makeLink(testConfig)) {
+			TrackStateConnectionListener connectionListener = new TrackStateConnectionListener();
+			((AbstractListenerLink) extractDelegated(link)).addConnectionListener(connectionListener);
+			this.broker.stop();
+			awaitConnectionIs(connectionListener, false);
+
+			link.switchAnalogPin(analogPin(8), 9);
+			link.switchDigitalPin(digitalPin(3), true);
+
+			this.broker.start();
+			awaitConnectionIs(connectionListener, true);
+			await("broker received buffered messages").until(broker::getMessages,
+					m -> m.containsAll(List.of(new Message(topic("A8"), "9"), new Message(topic("D3"), "true"))));
+		}
+	}
+
+	@ParameterizedTest(name = "{index} {0}")
+	@MethodSource("data")
+	void blocksInsteadOfFailingWhileInflightWindowIsFull(TestConfig testConfig) throws Exception {
+		int messages = 500;
+		try (Link link = makeLink(testConfig, "&maxInflight=1&qos=AT_LEAST_ONCE")) {
+			for (int i = 0; i < messages; i++) {
+				link.switchAnalogPin(analogPin(8), i);
+			}
+			await("broker received all messages").until(() -> broker.getMessages().size() >= messages);
+			assertThat(broker.getMessages()).contains(new Message(topic("A8"), String.valueOf(messages - 1)));
+		}
+	}
+
 	String topic(String pin) {
 		return String.format(messageFormat, pin);
 	}
@@ -163,11 +195,16 @@ class MqttLinkIntegrationTest {
 	}
 
 	private Link makeLink(TestConfig config) throws IOException {
+		return makeLink(config, "");
+	}
+
+	private Link makeLink(TestConfig config, String additionalParams) throws IOException {
 		this.separatedTopics = config.separateTopics;
 		this.messageFormat = config.messageFormat;
 		this.mqttClient.appendValueSet(config.separateTopics);
 		Link link = Links.getLink(
-				"ardulink://mqtt?port=" + broker.port() + "&topic=" + TOPIC + "&separatedTopics=" + separatedTopics);
+				"ardulink://mqtt?port=" + broker.port() + "&topic=" + TOPIC + "&separatedTopics=" + separatedTopics
+						+ additionalParams);
 		link.addListener(eventCollector);
 		return link;
 	}
@@ -21,6 +21,8 @@ import static java.lang.String.format;
 import static java.util.regex.Pattern.quote;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.IntStream.range;
+import static org.ardulink.core.proxy.ProxyConnectionToRemote.Command.CONNECT_CMD;
+import static org.ardulink.core.proxy.ProxyConnectionToRemote.Command.FRAMING_CMD;
 import static org.ardulink.core.proxy.ProxyConnectionToRemote.Command.GET_PORT_LIST_CMD;
 import static org.ardulink.util.Closeables.closeQuietly;
 import static org.ardulink.util.Preconditions.checkNotNull;
@@ -33,6 +35,8 @@ import java.net.Socket;
 import java.util.List;
 import java.util.Scanner;
 
+import org.ardulink.core.framing.ProxyFraming;
+
 /**
  * [ardulinktitle] [ardulinkversion]
  * 
@@ -48,6 +52,7 @@ public class ProxyConnectionToRemote implements Closeable {
 	public enum Command {
 
 		CONNECT_CMD("connect"), //
+		FRAMING_CMD("framing"), //
 		GET_PORT_LIST_CMD("get_port_list");
 
 		private final String command;
@@ -68,6 +73,7 @@ public class ProxyConnectionToRemote implements Closeable {
 	}
 
 	private static final String NUMBER_OF_PORTS = "NUMBER_OF_PORTS=";
+	private static final String FRAMING = "FRAMING=";
 
 	private final String host;
 	private final Socket socket;
@@ -93,6 +99,35 @@ public class ProxyConnectionToRemote implements Closeable {
 		return parseInt(string.substring(NUMBER_OF_PORTS.length()));
 	}
 
+	/**
+	 * Connects to the passed port. If a binary framing is requested, the request
+	 * is sent in front of the connect command. Servers not knowing the request do
+	 * ignore it, so they do not answer it and the connection stays
+	 * {@link ProxyFraming#RAW}.
+	 * 
+	 * @param port    the port on the remote side
+	 * @param speed   the baudrate of the port
+	 * @param framing the requested framing
+	 * @return the framing to use
+	 */
+	public ProxyFraming connect(String port, int speed, ProxyFraming framing) {
+		if (framing != ProxyFraming.RAW) {
+			send(FRAMING_CMD.getCommand() + "=" + framing.name());
+		}
+		send(CONNECT_CMD);
+		send(port);
+		send(String.valueOf(speed));
+		String response = read();
+		ProxyFraming negotiated = ProxyFraming.RAW;
+		if (response.startsWith(FRAMING)) {
+			negotiated = ProxyFraming.framingWithName(response.substring(FRAMING.length()));
+			response = read();
+		}
+		checkState(ProxyLinkFactory.OK.equals(response), "Did not receive %s from remote, got %s",
+				ProxyLinkFactory.OK, response);
+		return negotiated;
+	}
+
 	public Socket getSocket() {
 		return socket;
 	}
@@ -21,7 +21,9 @@ import java.util.List;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
+import org.ardulink.core.framing.ProxyFraming;
 import org.ardulink.core.linkmanager.LinkConfig;
 import org.ardulink.core.linkmanager.LinkConfig.I18n;
 
@@ -61,6 +63,13 @@ public class ProxyLinkConfig implements LinkConfig {
 	@Positive
 	public int speed = DEFAULT_SPEED;
 
+	@Named("framing")
+	public ProxyFraming framing = ProxyFraming.RAW;
+
+	@PositiveOrZero
+	@Named("coalesceMicros")
+	public long coalesceMicros;
+
 	private ProxyConnectionToRemote remote;
 
 	@ChoiceFor(value = NAMED_PORT, dependsOn = { NAMED_TCPHOST, NAMED_TCPPORT })
@@ -17,15 +17,18 @@ limitations under the License.
 package org.ardulink.core.proxy;
 
 import static org.ardulink.core.proto.api.Protocols.protoByName;
-import static org.ardulink.core.proxy.ProxyConnectionToRemote.Command.CONNECT_CMD;
 import static org.ardulink.util.Preconditions.checkNotNull;
-import static org.ardulink.util.Preconditions.checkState;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 
 import org.ardulink.core.ConnectionBasedLink;
 import org.ardulink.core.StreamConnection;
+import org.ardulink.core.framing.FramedInputStream;
+import org.ardulink.core.framing.FramedOutputStream;
+import org.ardulink.core.framing.ProxyFraming;
 import org.ardulink.core.linkmanager.LinkFactory;
 import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
 
@@ -50,14 +53,17 @@ public class ProxyLinkFactory implements LinkFactory<ProxyLinkConfig> {
 	public ConnectionBasedLink newLink(ProxyLinkConfig config) throws IOException {
 		ProxyConnectionToRemote remote = config.getRemote();
 
-		remote.send(CONNECT_CMD);
-		remote.send(checkNotNull(config.port, "port must not be null"));
-		remote.send(String.valueOf(config.speed));
-		String response = remote.read();
-		checkState(OK.equals(response), "Did not receive %s from remote, got %s", OK, response);
+		ProxyFraming framing = remote.connect(checkNotNull(config.port, "port must not be null"), config.speed,
+				config.framing);
 		Socket socket = remote.getSocket();
-		return new ConnectionBasedLink(new StreamConnection(socket.getInputStream(), socket.getOutputStream(),
-				protoByName(ArdulinkProtocol2.NAME).newByteStreamProcessor())) {
+		InputStream inputStream = socket.getInputStream();
+		OutputStream outputStream = socket.getOutputStream();
+		if (framing.isBinary()) {
+			inputStream = new FramedInputStream(inputStream);
+			outputStream = new FramedOutputStream(outputStream, framing.isCompressed());
+		}
+		return new ConnectionBasedLink(new StreamConnection(inputStream, outputStream,
+				protoByName(ArdulinkProtocol2.NAME).newByteStreamProcessor(), config.coalesceMicros)) {
 			@Override
 			public void close() throws IOException {
 				super.close();
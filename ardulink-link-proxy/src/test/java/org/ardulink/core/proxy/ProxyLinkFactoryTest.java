@@ -27,6 +27,7 @@ import static org.awaitility.Awaitility.await;
 import java.io.IOException;
 
 import org.ardulink.core.Link;
+import org.ardulink.core.framing.ProxyFraming;
 import org.ardulink.core.linkmanager.LinkManager;
 import org.ardulink.core.linkmanager.LinkManager.ConfigAttribute;
 import org.ardulink.core.linkmanager.LinkManager.Configurer;
@@ -101,6 +102,25 @@ class ProxyLinkFactoryTest {
 		}
 	}
 
+	@Test
+	void fallsBackToRawIfServerDoesNotSupportFraming() throws IOException {
+		proxyServerDouble.setNumberOfPorts(1);
+		Configurer configurer = configurerForProxy();
+		configurer.getAttribute("port").setValue(portName(0));
+		configurer.getAttribute("framing").setValue(ProxyFraming.BINARY);
+		try (Link newLink = configurer.newLink()) {
+			newLink.switchAnalogPin(analogPin(1), 123);
+			assertThatProxyServerReceived( //
+					proxyMessage("get_port_list"), //
+					proxyMessage("framing=BINARY"), //
+					proxyMessage("connect"), //
+					portName(0), //
+					"115200", //
+					"alp://ppin/1/123" //
+			);
+		}
+	}
+
 	private Configurer configurerForProxy() {
 		return configurerForProxy("localhost", proxyServerDouble.getLocalPort());
 	}
@@ -71,6 +71,10 @@ public class SerialLinkConfig implements LinkConfig {
 	@Named("pingprobe")
 	public boolean pingprobe = true;
 
+	@PositiveOrZero
+	@Named("coalesceMicros")
+	public long coalesceMicros;
+
 	private Protocol useProtoOrFallback(String prefered) {
 		return tryProtoByNameWithFallback(prefered).orElse(null);
 	}
@@ -54,7 +54,8 @@ public class SerialLinkFactory implements LinkFactory<SerialLinkConfig> {
 	public LinkDelegate newLink(SerialLinkConfig config) throws IOException {
 		SerialPort serialPort = serialPort(config);
 		ConnectionBasedLink connectionBasedLink = new ConnectionBasedLink(new StreamConnection(
-				serialPort.getInputStream(), serialPort.getOutputStream(), config.protocol().newByteStreamProcessor()));
+				serialPort.getInputStream(), serialPort.getOutputStream(), config.protocol().newByteStreamProcessor(),
+				config.coalesceMicros));
 
 		Link link = config.qos ? new QosLink(connectionBasedLink) : connectionBasedLink;
 
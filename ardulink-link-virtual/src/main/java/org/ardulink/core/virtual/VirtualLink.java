@@ -16,6 +16,7 @@ limitations under the License.
 package org.ardulink.core.virtual;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.ardulink.core.Pin.newPinMap;
 import static org.ardulink.core.Pin.Type.ANALOG;
 import static org.ardulink.core.Pin.Type.DIGITAL;
 import static org.ardulink.core.events.DefaultAnalogPinValueChangedEvent.analogPinValueChanged;
@@ -24,11 +25,8 @@ import static org.ardulink.core.events.DefaultDigitalPinValueChangedEvent.digita
 import java.io.IOException;
 import java.security.SecureRandom;
 import java.util.Arrays;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.ardulink.core.AbstractListenerLink;
 import org.ardulink.core.Pin;
@@ -36,6 +34,7 @@ import org.ardulink.core.Pin.AnalogPin;
 import org.ardulink.core.Pin.DigitalPin;
 import org.ardulink.core.Tone;
 import org.ardulink.core.proto.api.MessageIdHolders;
+import org.ardulink.util.PinMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,7 +52,7 @@ public class VirtualLink extends AbstractListenerLink {
 
 	private final SecureRandom secureRandom = new SecureRandom();
 
-	private final Map<Pin, Object> listeningPins = new ConcurrentHashMap<>();
+	private final PinMap<Pin, Object> listeningPins = newPinMap();
 
 	private final Timer timer = new Timer();
 
@@ -71,14 +70,13 @@ public class VirtualLink extends AbstractListenerLink {
 	}
 
 	private void sendRandomPinStates() {
-		for (Entry<Pin, Object> entry : listeningPins.entrySet()) {
-			Pin pin = entry.getKey();
+		listeningPins.forEach((pin, value) -> {
 			if (pin.is(ANALOG)) {
 				fireStateChanged(analogPinValueChanged((AnalogPin) pin, getRandomAnalog()));
 			} else if (pin.is(DIGITAL)) {
 				fireStateChanged(digitalPinValueChanged((DigitalPin) pin, getRandomDigital()));
 			}
-		}
+		});
 	}
 
 	@Override
@@ -112,7 +112,8 @@ public class MqttCamelRouteBuilder {
 				public void configure() {
 					from(mqtt) //
 							.transform(body().convertToString()) //
-							.process(toArdulinkProtocol(topics).topicFrom(header(SUBSCRIBE_HEADER))) //
+							.process(toArdulinkProtocol(topics).typedBodies(typedBodies)
+									.topicFrom(header(SUBSCRIBE_HEADER))) //
 							.to(something) //
 							.shutdownRunningTask(CompleteAllTasks);
 				}
@@ -129,6 +130,7 @@ public class MqttCamelRouteBuilder {
 
 	private CompactStrategy compactStrategy;
 	private long compactMillis;
+	private boolean typedBodies;
 
 	public MqttCamelRouteBuilder(CamelContext context, Topics topics) {
 		this.context = context;
@@ -142,6 +144,19 @@ public class MqttCamelRouteBuilder {
 		return this;
 	}
 
+	/**
+	 * If enabled the reverse route sends typed messages instead of ALP strings to
+	 * <i>something</i>, this requires <i>something</i> to be an ardulink camel
+	 * endpoint.
+	 * 
+	 * @param typedBodies <code>true</code> to send typed messages
+	 * @return this {@link MqttCamelRouteBuilder}
+	 */
+	public MqttCamelRouteBuilder typedBodies(boolean typedBodies) {
+		this.typedBodies = typedBodies;
+		return this;
+	}
+
 	public ConfiguredMqttCamelRouteBuilder fromSomethingToMqtt(String something, MqttConnectionProperties properties)
 			throws Exception {
 		return fromSomethingToMqtt(something, properties.buildCamelURI(topics));
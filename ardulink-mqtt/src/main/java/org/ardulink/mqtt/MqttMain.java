@@ -64,11 +64,11 @@ public class MqttMain {
 		if (args.throttleMillis > 0 && args.compactStrategy != null) {
 			rb = rb.compact(args.compactStrategy, args.throttleMillis, MILLISECONDS);
 		}
-		String ardulink = appendListenTo(args.connection);
+		String ardulink = appendTypedBody(appendListenTo(args.connection));
 		MqttConnectionProperties mqtt = appendAuth(
 				new MqttConnectionProperties().name("mqttMain").brokerHost(args.brokerHost).ssl(args.ssl))
 				.brokerPort(args.brokerPort);
-		rb.fromSomethingToMqtt(ardulink, mqtt).andReverse();
+		rb.typedBodies(true).fromSomethingToMqtt(ardulink, mqtt).andReverse();
 		return context;
 	}
 
@@ -77,6 +77,10 @@ public class MqttMain {
 		return listenTo.isEmpty() ? connection : connection + separator(connection) + "listenTo=" + listenTo;
 	}
 
+	private String appendTypedBody(String connection) {
+		return connection + separator(connection) + "typedBody=true";
+	}
+
 	private String separator(String connection) {
 		return connection.contains("?") ? "&" : "?";
 	}
@@ -18,7 +18,9 @@ import org.ardulink.mqtt.Topics;
 
 /**
  * Translates from protocol into the topic using the patterns from
- * {@link Topics}.
+ * {@link Topics}. Bodies can be ALP strings or already typed
+ * {@link FromDeviceMessagePinStateChanged}s (see the <code>typedBody</code>
+ * option of the ardulink camel component) which are used without parsing.
  */
 public final class FromArdulinkProtocol implements Processor {
 
@@ -42,9 +44,11 @@ public final class FromArdulinkProtocol implements Processor {
 	@Override
 	public void process(Exchange exchange) throws Exception {
 		Message in = exchange.getIn();
-		FromDeviceMessage deviceMessage = getFirst(
-				parse(byteStreamProcessor, byteStreamProcessor.toBytes(in.getBody(String.class))))
-				.orElseThrow(() -> new IllegalStateException("Cannot handle " + in));
+		Object body = in.getBody();
+		FromDeviceMessage deviceMessage = body instanceof FromDeviceMessage //
+				? (FromDeviceMessage) body //
+				: getFirst(parse(byteStreamProcessor, byteStreamProcessor.toBytes(in.getBody(String.class))))
+						.orElseThrow(() -> new IllegalStateException("Cannot handle " + in));
 		checkState(deviceMessage instanceof FromDeviceMessagePinStateChanged, "Cannot handle %s", in);
 		handle(in, (FromDeviceMessagePinStateChanged) deviceMessage);
 	}
@@ -4,6 +4,12 @@ import static java.lang.Boolean.parseBoolean;
 import static java.lang.Integer.parseInt;
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.messages.api.FromDeviceChangeListeningState.Mode.START;
+import static org.ardulink.core.messages.api.FromDeviceChangeListeningState.Mode.STOP;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceChangeListeningState.fromDeviceChangeListeningState;
+import static org.ardulink.core.messages.impl.DefaultFromDeviceMessagePinStateChanged.fromDeviceMessagePinStateChanged;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.alpProtocolMessage;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.ANALOG_PIN_READ;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.DIGITAL_PIN_READ;
@@ -25,15 +31,13 @@ import org.apache.camel.Message;
 import org.apache.camel.Processor;
 import org.apache.camel.builder.ValueBuilder;
 import org.apache.camel.model.language.HeaderExpression;
+import org.ardulink.core.messages.api.FromDeviceMessage;
 import org.ardulink.mqtt.Topics;
+import org.ardulink.util.TopicRouter;
 
 public final class ToArdulinkProtocol implements Processor {
 
-	private interface MessageCreator {
-		Optional<String> createMessage(String topic, String value);
-	}
-
-	private abstract static class AbstractMessageCreator implements MessageCreator {
+	private abstract static class AbstractMessageCreator {
 
 		private final Pattern pattern;
 
@@ -41,16 +45,21 @@ public final class ToArdulinkProtocol implements Processor {
 			this.pattern = checkNotNull(pattern, "Pattern must not be null");
 		}
 
-		@Override
-		public Optional<String> createMessage(String topic, String message) {
+		public Optional<Object> createMessage(String topic, String message, boolean typed) {
 			return Optional.of(this.pattern.matcher(topic)) //
 					.filter(m -> m.matches() && m.groupCount() > 0) //
 					.flatMap(m -> tryParseAs(Integer.class, m.group(1))) //
-					.map(pin -> createMessage(pin, message));
+					.map(pin -> createMessage(pin, message, typed));
+		}
+
+		public Object createMessage(int pin, String message, boolean typed) {
+			return typed ? createTypedMessage(pin, message) : createMessage(pin, message);
 		}
 
 		protected abstract String createMessage(int pin, String message);
 
+		protected abstract FromDeviceMessage createTypedMessage(int pin, String message);
+
 	}
 
 	/**
@@ -67,6 +76,11 @@ public final class ToArdulinkProtocol implements Processor {
 			return alpProtocolMessage(DIGITAL_PIN_READ).forPin(pin).withState(parseBoolean(value));
 		}
 
+		@Override
+		protected FromDeviceMessage createTypedMessage(int pin, String value) {
+			return fromDeviceMessagePinStateChanged(digitalPin(pin), parseBoolean(value));
+		}
+
 	}
 
 	/**
@@ -82,6 +96,11 @@ public final class ToArdulinkProtocol implements Processor {
 		protected String createMessage(int pin, String value) {
 			return alpProtocolMessage(ANALOG_PIN_READ).forPin(pin).withValue(parseInt(value));
 		}
+
+		@Override
+		protected FromDeviceMessage createTypedMessage(int pin, String value) {
+			return fromDeviceMessagePinStateChanged(analogPin(pin), parseInt(value));
+		}
 	}
 
 	/**
@@ -117,6 +136,11 @@ public final class ToArdulinkProtocol implements Processor {
 			return (parseBoolean(message) ? alpProtocolMessage(START_LISTENING_ANALOG)
 					: alpProtocolMessage(STOP_LISTENING_ANALOG)).forPin(pin).withoutValue();
 		}
+
+		@Override
+		protected FromDeviceMessage createTypedMessage(int pin, String message) {
+			return fromDeviceChangeListeningState(analogPin(pin), parseBoolean(message) ? START : STOP);
+		}
 	}
 
 	/**
@@ -153,10 +177,17 @@ public final class ToArdulinkProtocol implements Processor {
 					: alpProtocolMessage(STOP_LISTENING_DIGITAL)).forPin(pin).withoutValue();
 		}
 
+		@Override
+		protected FromDeviceMessage createTypedMessage(int pin, String message) {
+			return fromDeviceChangeListeningState(digitalPin(pin), parseBoolean(message) ? START : STOP);
+		}
+
 	}
 
-	private final List<MessageCreator> creators;
+	private final List<AbstractMessageCreator> creators;
+	private final TopicRouter<AbstractMessageCreator> router;
 	private ValueBuilder topicFrom = new ValueBuilder(new HeaderExpression("topic"));
+	private boolean typedBodies;
 
 	public static ToArdulinkProtocol toArdulinkProtocol(Topics topics) {
 		return new ToArdulinkProtocol(topics);
@@ -164,6 +195,22 @@ public final class ToArdulinkProtocol implements Processor {
 
 	public ToArdulinkProtocol(Topics topics) {
 		this.creators = unmodifiableList(newArrayList(creators(topics)));
+		this.router = router(this.creators);
+	}
+
+	/**
+	 * Returns a {@link TopicRouter} for the passed creators if all their patterns
+	 * are literal topics with one pin group (which is the case for all
+	 * {@link Topics} created without custom patterns), otherwise
+	 * <code>null</code> so that the topics get matched using the patterns.
+	 */
+	private static TopicRouter<AbstractMessageCreator> router(List<AbstractMessageCreator> creators) {
+		if (!creators.stream().map(c -> c.pattern).allMatch(TopicRouter::isRoutable)) {
+			return null;
+		}
+		TopicRouter.Builder<AbstractMessageCreator> builder = TopicRouter.builder();
+		creators.forEach(c -> builder.route(c.pattern, c));
+		return builder.build();
 	}
 
 	public ToArdulinkProtocol topicFrom(ValueBuilder topicFrom) {
@@ -171,13 +218,25 @@ public final class ToArdulinkProtocol implements Processor {
 		return this;
 	}
 
+	/**
+	 * If enabled the created bodies are typed {@link FromDeviceMessage}s instead
+	 * of ALP strings so the ardulink camel producer has not to parse them.
+	 * 
+	 * @param typedBodies <code>true</code> to create typed bodies
+	 * @return this {@link ToArdulinkProtocol}
+	 */
+	public ToArdulinkProtocol typedBodies(boolean typedBodies) {
+		this.typedBodies = typedBodies;
+		return this;
+	}
+
 	@Override
 	public void process(Exchange exchange) {
 		extractedForAnnotation(createMessage(topic(exchange), body(exchange.getIn())), exchange);
 	}
 
-	private void extractedForAnnotation(Optional<String> message, Exchange exchange) {
-		message.ifPresentOrElse(b -> exchange.getIn().setBody(b, String.class), () -> exchange.setRouteStop(true));
+	private void extractedForAnnotation(Optional<Object> message, Exchange exchange) {
+		message.ifPresentOrElse(b -> exchange.getIn().setBody(b), () -> exchange.setRouteStop(true));
 	}
 
 	private String topic(Exchange exchange) {
@@ -188,14 +247,17 @@ public final class ToArdulinkProtocol implements Processor {
 		return checkNotNull(message.getBody(String.class), "body must not be null");
 	}
 
-	private Optional<String> createMessage(String topic, String value) {
+	private Optional<Object> createMessage(String topic, String value) {
+		if (router != null) {
+			return Optional.ofNullable(router.route(topic, (c, pin) -> c.createMessage(pin, value, typedBodies)));
+		}
 		return this.creators.stream() //
-				.flatMap(c -> c.createMessage(topic, value).stream()) //
+				.flatMap(c -> c.createMessage(topic, value, typedBodies).stream()) //
 				.findFirst();
 	}
 
-	private static List<MessageCreator> creators(Topics topics) {
-		List<MessageCreator> creators = new ArrayList<>(
+	private static List<AbstractMessageCreator> creators(Topics topics) {
+		List<AbstractMessageCreator> creators = new ArrayList<>(
 				asList(new DigitalMessageCreator(topics), new AnalogMessageCreator(topics)));
 		ControlHandlerAnalog.Builder ab = new ControlHandlerAnalog.Builder(topics);
 		if (ab.patternIsValid()) {
@@ -12,6 +12,7 @@ import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.STA
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.STOP_LISTENING_ANALOG;
 import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.STOP_LISTENING_DIGITAL;
 import static org.ardulink.util.ServerSockets.freePort;
+import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +27,7 @@ import org.apache.camel.model.RouteDefinition;
 import org.apache.camel.util.function.ThrowingConsumer;
 import org.ardulink.core.Pin.AnalogPin;
 import org.ardulink.core.Pin.DigitalPin;
+import org.ardulink.core.messages.api.FromDeviceMessagePinStateChanged;
 import org.ardulink.mqtt.MqttBroker;
 import org.ardulink.mqtt.MqttCamelRouteBuilder;
 import org.ardulink.mqtt.MqttCamelRouteBuilder.MqttConnectionProperties;
@@ -103,6 +105,23 @@ class MqttOnCamelMqttToLinkIntegrationTest {
 		testDigital(digitalPin(3), true);
 	}
 
+	@ParameterizedTest(name = "{index} {0}")
+	@MethodSource("data")
+	void canSwitchPinsUsingTypedBodies(TestConfig config) throws Exception {
+		init(config);
+		context = camelContext(topics, true);
+		MockEndpoint out = getMockEndpoint();
+		out.expectedMessageCount(2);
+		mqttClient.switchPin(analogPin(2), 123);
+		mqttClient.switchPin(digitalPin(3), true);
+		out.assertIsSatisfied();
+		List<FromDeviceMessagePinStateChanged> bodies = out.getExchanges().stream()
+				.map(e -> e.getIn().getBody(FromDeviceMessagePinStateChanged.class)).collect(toList());
+		assertThat(bodies).extracting(FromDeviceMessagePinStateChanged::getPin).containsExactly(analogPin(2),
+				digitalPin(3));
+		assertThat(bodies).extracting(FromDeviceMessagePinStateChanged::getValue).containsExactly(123, true);
+	}
+
 	@ParameterizedTest(name = "{index} {0}")
 	@MethodSource("data")
 	void canEnableAnalogListening(TestConfig config) throws Exception {
@@ -195,10 +214,15 @@ class MqttOnCamelMqttToLinkIntegrationTest {
 	}
 
 	private CamelContext camelContext(Topics topics) throws Exception {
+		return camelContext(topics, false);
+	}
+
+	private CamelContext camelContext(Topics topics, boolean typedBodies) throws Exception {
 		ModelCamelContext context = new DefaultCamelContext();
 		MqttConnectionProperties mqtt = new MqttConnectionProperties().name("foo").brokerHost(brokerHost())
 				.brokerPort(brokerPort());
-		new MqttCamelRouteBuilder(context, topics).fromSomethingToMqtt(MOCK, mqtt).andReverse();
+		new MqttCamelRouteBuilder(context, topics).typedBodies(typedBodies).fromSomethingToMqtt(MOCK, mqtt)
+				.andReverse();
 		adviceAll(context, d -> d.getInput().getEndpointUri().equals(MOCK), a -> a.replaceFromWith("direct:noop"));
 		// CamelContext#start is async so it does not guarantee that routes are ready,
 		// so we call #startRouteDefinitions
@@ -0,0 +1,342 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.connection.proxy;
+
+import static org.ardulink.util.Preconditions.checkArgument;
+import static org.ardulink.util.Preconditions.checkNotNull;
+import static org.ardulink.util.Preconditions.checkState;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.ardulink.core.Connection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Broadcasts everything received from one board's {@link Connection} to all
+ * proxy clients connected to it. There is exactly one
+ * {@link Connection.Listener} per board which publishes the received lines to a
+ * lock-free ring buffer. Each entry of the ring holds one or more complete
+ * lines (bytes not terminated by a newline are kept until the line gets
+ * completed), so dropping entries never splices lines. Each
+ * {@link Subscription} drains the ring at its own pace, so a stalled client
+ * never slows down the board's reader thread. If a client falls behind more
+ * than the capacity of the ring its {@link SlowConsumerPolicy} is applied.<br>
+ * Bytes written by the clients are forwarded to the board as complete
+ * newline-separated frames, so frames of different clients never interleave.
+ *
+ */
+public final class BoardHub {
+
+	private static final Logger logger = LoggerFactory.getLogger(BoardHub.class);
+
+	public static final int DEFAULT_CAPACITY = 1024;
+	public static final int MAX_FRAME_LENGTH = 4096;
+
+	private static final byte FRAME_SEPARATOR = '\n';
+
+	private static final ConcurrentMap<Connection, BoardHub> hubs = new ConcurrentHashMap<>();
+
+	public enum SlowConsumerPolicy {
+		/**
+		 * The subscription fails, the client gets disconnected.
+		 */
+		DISCONNECT,
+		/**
+		 * The subscription continues with the oldest lines still available, so the
+		 * client loses the lines it did not read in time.
+		 */
+		DROP_OLDEST;
+	}
+
+	private static final class Entry {
+
+		private final long sequence;
+		private final byte[] bytes;
+		private final long firstLine;
+		private final int lines;
+
+		private Entry(long sequence, byte[] bytes, long firstLine, int lines) {
+			this.sequence = sequence;
+			this.bytes = bytes;
+			this.firstLine = firstLine;
+			this.lines = lines;
+		}
+
+		private long nextSequence() {
+			return sequence + 1;
+		}
+
+		private long nextLine() {
+			return firstLine + lines;
+		}
+
+	}
+
+	private final Connection connection;
+	private final AtomicReferenceArray<Entry> ring;
+	private final int mask;
+	private final ByteArrayOutputStream pendingLine = new ByteArrayOutputStream();
+	private volatile Entry last = new Entry(-1, new byte[0], 0, 0);
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final Object writeLock = new Object();
+	private final Connection.Listener listener = new Connection.ListenerAdapter() {
+		@Override
+		public void received(byte[] bytes) {
+			publish(bytes);
+		}
+	};
+
+	private BoardHub(Connection connection, int capacity) {
+		checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of 2 but was %s",
+				capacity);
+		this.connection = connection;
+		this.ring = new AtomicReferenceArray<>(capacity);
+		this.mask = capacity - 1;
+		this.connection.addListener(listener);
+	}
+
+	/**
+	 * Subscribes to the hub of the passed board's connection, creating the hub if
+	 * this is the first subscription. The hub is removed when its last
+	 * subscription gets closed.
+	 * 
+	 * @param connection    the board's connection
+	 * @param policy        what to do if the subscriber falls behind
+	 * @param dataAvailable called (by the board's reader thread) each time new
+	 *                      bytes are available, must not block
+	 * @return the new subscription
+	 */
+	public static Subscription subscribe(Connection connection, SlowConsumerPolicy policy, Runnable dataAvailable) {
+		return subscribe(connection, DEFAULT_CAPACITY, policy, dataAvailable);
+	}
+
+	static Subscription subscribe(Connection connection, int capacity, SlowConsumerPolicy policy,
+			Runnable dataAvailable) {
+		checkNotNull(policy, "policy must not be null");
+		checkNotNull(dataAvailable, "dataAvailable must not be null");
+		Subscription[] subscription = new Subscription[1];
+		hubs.compute(connection, (c, hub) -> {
+			BoardHub boardHub = hub == null ? new BoardHub(c, capacity) : hub;
+			subscription[0] = boardHub.newSubscription(policy, dataAvailable);
+			return boardHub;
+		});
+		return subscription[0];
+	}
+
+	private Subscription newSubscription(SlowConsumerPolicy policy, Runnable dataAvailable) {
+		Subscription subscription = new Subscription(policy, dataAvailable, last);
+		subscriptions.add(subscription);
+		return subscription;
+	}
+
+	private void unsubscribe(Subscription subscription) {
+		hubs.computeIfPresent(connection, (c, hub) -> {
+			if (hub != this) {
+				return hub;
+			}
+			subscriptions.remove(subscription);
+			if (subscriptions.isEmpty()) {
+				connection.removeListener(listener);
+				return null;
+			}
+			return hub;
+		});
+	}
+
+	/**
+	 * Publishes the complete lines of the passed bytes (together with the bytes
+	 * of previous calls). Only called by the board's reader thread.
+	 */
+	private void publish(byte[] bytes) {
+		int end = lastIndexOf(bytes, FRAME_SEPARATOR) + 1;
+		if (end == 0) {
+			pendingLine.write(bytes, 0, bytes.length);
+			if (pendingLine.size() <= MAX_FRAME_LENGTH) {
+				return;
+			}
+			// a line this long is no line, publish it as if it was one
+			publish(pendingLine.toByteArray(), 1);
+			pendingLine.reset();
+		} else {
+			int lines = count(bytes, end, FRAME_SEPARATOR);
+			if (pendingLine.size() == 0) {
+				publish(end == bytes.length ? bytes : Arrays.copyOf(bytes, end), lines);
+			} else {
+				pendingLine.write(bytes, 0, end);
+				publish(pendingLine.toByteArray(), lines);
+				pendingLine.reset();
+			}
+			pendingLine.write(bytes, end, bytes.length - end);
+		}
+	}
+
+	private void publish(byte[] lines, int count) {
+		Entry entry = new Entry(last.nextSequence(), lines, last.nextLine(), count);
+		ring.set(index(entry.sequence), entry);
+		last = entry;
+		for (Subscription subscription : subscriptions) {
+			try {
+				subscription.dataAvailable.run();
+			} catch (RuntimeException e) {
+				logger.error("Error signaling {}", subscription, e);
+			}
+		}
+	}
+
+	private static int lastIndexOf(byte[] bytes, byte b) {
+		for (int i = bytes.length - 1; i >= 0; i--) {
+			if (bytes[i] == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int count(byte[] bytes, int end, byte b) {
+		int count = 0;
+		for (int i = 0; i < end; i++) {
+			if (bytes[i] == b) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private int index(long sequence) {
+		return (int) sequence & mask;
+	}
+
+	private void writeFrames(byte[] frames) throws IOException {
+		synchronized (writeLock) {
+			connection.write(frames);
+		}
+	}
+
+	/**
+	 * One client's view on the hub. {@link #poll()} and {@link #write(byte[])}
+	 * may be called by different threads, but each of them by one thread at a
+	 * time.
+	 */
+	public final class Subscription implements Closeable {
+
+		private final SlowConsumerPolicy policy;
+		private final Runnable dataAvailable;
+		private final ByteArrayOutputStream pendingFrame = new ByteArrayOutputStream();
+		private volatile long cursor;
+		private volatile boolean closed;
+		private long nextLine;
+		private long dropped;
+
+		private Subscription(SlowConsumerPolicy policy, Runnable dataAvailable, Entry last) {
+			this.policy = policy;
+			this.dataAvailable = dataAvailable;
+			this.cursor = last.nextSequence();
+			this.nextLine = last.nextLine();
+		}
+
+		/**
+		 * Returns the next complete lines received from the board.
+		 * 
+		 * @return the next lines or <code>null</code> if there are none (yet)
+		 * @throws IllegalStateException if this subscription fell behind and its
+		 *                               policy is {@link SlowConsumerPolicy#DISCONNECT}
+		 */
+		public byte[] poll() {
+			checkState(!closed, "Subscription already closed");
+			for (;;) {
+				long current = cursor;
+				Entry entry = ring.get(index(current));
+				if (entry == null || entry.sequence < current) {
+					return null;
+				}
+				if (entry.sequence == current) {
+					cursor = current + 1;
+					dropped += entry.firstLine - nextLine;
+					nextLine = entry.nextLine();
+					return entry.bytes;
+				}
+				checkState(policy == SlowConsumerPolicy.DROP_OLDEST,
+						"Subscriber fell more than %s messages behind", ring.length());
+				cursor = last.nextSequence() - ring.length();
+			}
+		}
+
+		/**
+		 * Returns the number of lines dropped because of
+		 * {@link SlowConsumerPolicy#DROP_OLDEST}.
+		 * 
+		 * @return number of dropped lines
+		 */
+		public long dropped() {
+			return dropped;
+		}
+
+		/**
+		 * Writes the complete frames contained in the passed bytes (together with
+		 * bytes of previous calls) to the board. Incomplete frames are kept until
+		 * they get completed by one of the next writes.
+		 * 
+		 * @param bytes the bytes received from the client
+		 * @throws IOException if writing to the board fails
+		 */
+		public void write(byte[] bytes) throws IOException {
+			checkState(!closed, "Subscription already closed");
+			int end = lastIndexOf(bytes, FRAME_SEPARATOR) + 1;
+			if (end == 0) {
+				pendingFrame.write(bytes);
+			} else {
+				byte[] frames;
+				if (pendingFrame.size() == 0) {
+					frames = end == bytes.length ? bytes : Arrays.copyOf(bytes, end);
+				} else {
+					pendingFrame.write(bytes, 0, end);
+					frames = pendingFrame.toByteArray();
+					pendingFrame.reset();
+				}
+				writeFrames(frames);
+				pendingFrame.write(bytes, end, bytes.length - end);
+			}
+			checkState(pendingFrame.size() <= MAX_FRAME_LENGTH, "Frame exceeds %s bytes", MAX_FRAME_LENGTH);
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				unsubscribe(this);
+			}
+		}
+
+	}
+
+}
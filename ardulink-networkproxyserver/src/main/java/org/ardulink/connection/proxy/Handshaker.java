@@ -17,11 +17,14 @@ limitations under the License.
 package org.ardulink.connection.proxy;
 
 import static org.ardulink.connection.proxy.NetworkProxyMessages.CONNECT_CMD;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.FRAMING;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.FRAMING_CMD;
 import static org.ardulink.connection.proxy.NetworkProxyMessages.GET_PORT_LIST_CMD;
 import static org.ardulink.connection.proxy.NetworkProxyMessages.KO;
 import static org.ardulink.connection.proxy.NetworkProxyMessages.NUMBER_OF_PORTS;
 import static org.ardulink.connection.proxy.NetworkProxyMessages.OK;
 import static org.ardulink.connection.proxy.NetworkProxyMessages.STOP_SERVER_CMD;
+import static org.ardulink.core.framing.ProxyFraming.framingWithName;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,6 +35,7 @@ import java.util.regex.Pattern;
 
 import org.ardulink.core.Link;
 import org.ardulink.core.convenience.Links;
+import org.ardulink.core.framing.ProxyFraming;
 import org.ardulink.core.linkmanager.LinkManager.Configurer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +56,7 @@ public class Handshaker {
 	private final Scanner scanner;
 	private final PrintWriter printWriter;
 	private final Configurer configurer;
+	private ProxyFraming framing = ProxyFraming.RAW;
 
 	public Handshaker(InputStream inputStream, OutputStream outputStream) {
 		this(inputStream, outputStream, Links.getDefaultConfigurer());
@@ -80,6 +85,9 @@ public class Handshaker {
 				currentThread.interrupt();
 			} else if (GET_PORT_LIST_CMD.equals(input)) {
 				handleGetPortList();
+			} else if (input.startsWith(FRAMING_CMD)) {
+				framing = framingWithName(input.substring(FRAMING_CMD.length()));
+				write(FRAMING + framing.name());
 			} else if (CONNECT_CMD.equals(input)) {
 				try {
 					// Ardulink-1 only did support Proxy to connect to serial links. So the
@@ -103,6 +111,15 @@ public class Handshaker {
 		throw new IllegalStateException("No more data but no " + CONNECT_CMD + " received");
 	}
 
+	/**
+	 * Returns the framing requested by the client during the handshake.
+	 * 
+	 * @return the framing to use after connecting
+	 */
+	public ProxyFraming getFraming() {
+		return framing;
+	}
+
 	private void handleGetPortList() throws IOException {
 		Object[] portList = getPortList();
 		if (portList == null) {
@@ -32,10 +32,16 @@ public final class NetworkProxyMessages {
 	public static final String NUMBER_OF_PORTS = "NUMBER_OF_PORTS=";
 	public static final String OK = "OK";
 	public static final String KO = "KO";
+	public static final String FRAMING = "FRAMING=";
 
 	private static final String PREFIX = "ardulink:networkproxyserver:";
 	public static final String STOP_SERVER_CMD = PREFIX + "stop_server";
 	public static final String GET_PORT_LIST_CMD = PREFIX + "get_port_list";
 	public static final String CONNECT_CMD = PREFIX + "connect";
+	/**
+	 * Requests the framing (followed by the name of the
+	 * {@link org.ardulink.core.framing.ProxyFraming}) to use after connecting.
+	 */
+	public static final String FRAMING_CMD = PREFIX + "framing=";
 
 }
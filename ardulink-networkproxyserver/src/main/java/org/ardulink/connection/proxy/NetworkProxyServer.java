@@ -77,6 +77,24 @@ public class NetworkProxyServer {
 
 	}
 
+	public static class StartNioCommand implements Command {
+
+		@Option(name = "-s", aliases = "--selectors", usage = "Number of selector threads serving the clients")
+		private int selectorThreads = 2;
+
+		@Override
+		public void execute(int portNumber) throws IOException, InterruptedException {
+			try (NioNetworkProxyServer server = new NioNetworkProxyServer(portNumber, selectorThreads)) {
+				logger.info("{} listening on port {} using {} selector threads", NAME, server.getPort(),
+						selectorThreads);
+				server.awaitClose();
+			} finally {
+				logger.info("{} stops", NAME);
+			}
+		}
+
+	}
+
 	public static class StopCommand implements Command {
 
 		@Override
@@ -98,6 +116,7 @@ public class NetworkProxyServer {
 	@Argument(required = true, usage = "command", handler = SubCommandHandler.class)
 	@SubCommands({ //
 			@SubCommand(name = "start", impl = StartCommand.class), //
+			@SubCommand(name = "start-nio", impl = StartNioCommand.class), //
 			@SubCommand(name = "stop", impl = StopCommand.class) //
 	})
 	private Command command;
@@ -21,12 +21,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
+import java.util.concurrent.locks.LockSupport;
 
-import org.ardulink.core.Connection;
+import org.ardulink.connection.proxy.BoardHub.SlowConsumerPolicy;
+import org.ardulink.connection.proxy.BoardHub.Subscription;
 import org.ardulink.core.ConnectionBasedLink;
 import org.ardulink.core.Link;
 import org.ardulink.core.StreamReader;
 import org.ardulink.core.convenience.LinkDelegate;
+import org.ardulink.core.framing.FramedInputStream;
+import org.ardulink.core.framing.FramedOutputStream;
+import org.ardulink.core.framing.ProxyFraming;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +42,10 @@ import org.slf4j.LoggerFactory;
  * 
  * [adsense]
  *
+ * Serves one proxy client. Bytes received from the board are taken from the
+ * board's {@link BoardHub} and written to the client by a separate drainer
+ * thread, so a client that does not read does not slow down the board.
+ *
  */
 public class NetworkProxyServerConnection implements Runnable {
 
@@ -56,28 +65,33 @@ public class NetworkProxyServerConnection implements Runnable {
 			OutputStream osRemote = socket.getOutputStream();
 			InputStream isRemote = socket.getInputStream();
 
-			Link link = getRoot(handshaker(isRemote, osRemote).doHandshake());
+			Handshaker handshaker = handshaker(isRemote, osRemote);
+			Link link = getRoot(handshaker.doHandshake());
+			ProxyFraming framing = handshaker.getFraming();
+			if (framing.isBinary()) {
+				isRemote = new FramedInputStream(isRemote);
+				osRemote = new FramedOutputStream(osRemote, framing.isCompressed());
+			}
 			checkState(link instanceof ConnectionBasedLink, "Only %s links supported for now (got %s)",
 					ConnectionBasedLink.class.getName(), link.getClass());
 
 			ConnectionBasedLink cbl = (ConnectionBasedLink) link;
-			cbl.getConnection().addListener(new Connection.ListenerAdapter() {
-				@Override
-				public void received(byte[] bytes) throws IOException {
-					osRemote.write(bytes);
-				}
-			});
-
-			StreamReader streamReader = new StreamReader(isRemote) {
-				@Override
-				protected void received(byte[] bytes) throws Exception {
-					cbl.getConnection().write(bytes);
+			Drainer drainer = new Drainer(osRemote);
+			try (Subscription subscription = BoardHub.subscribe(cbl.getConnection(), slowConsumerPolicy(),
+					drainer::dataAvailable)) {
+				drainer.start(subscription);
+				StreamReader streamReader = new StreamReader(isRemote) {
+					@Override
+					protected void received(byte[] bytes) throws Exception {
+						subscription.write(bytes);
+					}
+				};
+				try {
+					streamReader.readUntilClosed();
+				} finally {
+					drainer.stop();
+					streamReader.close();
 				}
-			};
-			try {
-				streamReader.readUntilClosed();
-			} finally {
-				streamReader.close();
 			}
 		} catch (Exception e) {
 			logger.error("Error while doing proxy", e);
@@ -92,7 +106,72 @@ public class NetworkProxyServerConnection implements Runnable {
 		return new Handshaker(isRemote, osRemote);
 	}
 
-	private Link getRoot(Link link) {
+	protected SlowConsumerPolicy slowConsumerPolicy() {
+		return SlowConsumerPolicy.DISCONNECT;
+	}
+
+	private final class Drainer implements Runnable {
+
+		private final OutputStream osRemote;
+		private final Thread thread;
+		private volatile boolean stopped;
+		private Subscription subscription;
+		private long dropped;
+
+		private Drainer(OutputStream osRemote) {
+			this.osRemote = osRemote;
+			this.thread = new Thread(this, "proxy-drainer-" + socket.getRemoteSocketAddress());
+			this.thread.setDaemon(true);
+		}
+
+		private void start(Subscription subscription) {
+			this.subscription = subscription;
+			thread.start();
+		}
+
+		private void dataAvailable() {
+			LockSupport.unpark(thread);
+		}
+
+		private void stop() {
+			stopped = true;
+			LockSupport.unpark(thread);
+		}
+
+		/**
+		 * Lets binary framed clients see the messages they did miss.
+		 */
+		private void skipDropped() {
+			long nowDropped = subscription.dropped();
+			if (nowDropped > dropped && osRemote instanceof FramedOutputStream) {
+				((FramedOutputStream) osRemote).skip(nowDropped - dropped);
+			}
+			dropped = nowDropped;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (!stopped) {
+					byte[] bytes;
+					while ((bytes = subscription.poll()) != null) {
+						skipDropped();
+						osRemote.write(bytes);
+					}
+					osRemote.flush();
+					LockSupport.park(this);
+				}
+			} catch (Exception e) {
+				if (!stopped) {
+					logger.error("Error while writing to {}", socket.getRemoteSocketAddress(), e);
+					NetworkProxyServerConnection.this.close(socket);
+				}
+			}
+		}
+
+	}
+
+	static Link getRoot(Link link) {
 		while (link instanceof LinkDelegate) {
 			link = ((LinkDelegate) link).getDelegate();
 		}
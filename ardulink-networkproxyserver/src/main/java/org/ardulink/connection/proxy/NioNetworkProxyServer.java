@@ -0,0 +1,635 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.ardulink.connection.proxy;
+
+import static java.nio.channels.SelectionKey.OP_ACCEPT;
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.nio.channels.SelectionKey.OP_WRITE;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.CONNECT_CMD;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.FRAMING;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.FRAMING_CMD;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.GET_PORT_LIST_CMD;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.KO;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.NUMBER_OF_PORTS;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.OK;
+import static org.ardulink.connection.proxy.NetworkProxyMessages.STOP_SERVER_CMD;
+import static org.ardulink.connection.proxy.NetworkProxyServerConnection.getRoot;
+import static org.ardulink.core.framing.ProxyFraming.framingWithName;
+import static org.ardulink.util.Preconditions.checkArgument;
+import static org.ardulink.util.Preconditions.checkState;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ardulink.connection.proxy.BoardHub.SlowConsumerPolicy;
+import org.ardulink.connection.proxy.BoardHub.Subscription;
+import org.ardulink.core.ConnectionBasedLink;
+import org.ardulink.core.Link;
+import org.ardulink.core.convenience.Links;
+import org.ardulink.core.framing.FrameReader;
+import org.ardulink.core.framing.FramedOutputStream;
+import org.ardulink.core.framing.ProxyFraming;
+import org.ardulink.core.linkmanager.LinkManager.Configurer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ * Network proxy server multiplexing all remote clients on a fixed number of
+ * selector threads instead of using one thread per client. The handshake is
+ * the same as the one of {@link Handshaker}. Creating the link (which can take
+ * seconds, e.g. while waiting for the arduino to boot) and listing the ports
+ * is done on a worker thread so it does not block other clients.<br>
+ * Clients connecting to the same port share the link (see
+ * {@link Links#getLink(Configurer)}) and its {@link BoardHub}, everything
+ * received from the link is relayed to all of them. Bytes received from the
+ * link are taken from the hub without copying and written to the clients using
+ * gathering writes. Bytes received from the clients are written to the link by
+ * the worker, so a slow link never blocks a selector thread.
+ *
+ */
+public class NioNetworkProxyServer implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(NioNetworkProxyServer.class);
+
+	private static final int BUFFER_SIZE = 1024;
+	private static final int MAX_LINE_LENGTH = BUFFER_SIZE;
+	private static final int MAX_GATHER = 16;
+	private static final int MAX_PENDING_TO_BOARD = 16;
+	private static final byte SEPARATOR = (byte) Handshaker.PROXY_CONNECTION_SEPARATOR.charAt(0);
+
+	private final ServerSocketChannel serverChannel;
+	private final SelectorLoop[] loops;
+	private final ExecutorService worker;
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private final CountDownLatch terminated;
+	private final AtomicInteger nextLoop = new AtomicInteger();
+
+	public NioNetworkProxyServer(int portNumber, int selectorThreads) throws IOException {
+		checkArgument(selectorThreads > 0, "selectorThreads must be greater than 0 but was %s", selectorThreads);
+		this.serverChannel = ServerSocketChannel.open();
+		this.serverChannel.bind(new InetSocketAddress(portNumber));
+		this.serverChannel.configureBlocking(false);
+		this.terminated = new CountDownLatch(selectorThreads);
+		AtomicInteger workers = new AtomicInteger();
+		this.worker = Executors.newCachedThreadPool(r -> daemon(r, "ardulink-proxy-worker-" + workers.incrementAndGet()));
+		this.loops = new SelectorLoop[selectorThreads];
+		for (int i = 0; i < loops.length; i++) {
+			loops[i] = new SelectorLoop(i);
+		}
+		SelectorLoop acceptor = loops[0];
+		acceptor.execute(() -> acceptor.register(serverChannel, OP_ACCEPT, null));
+		for (SelectorLoop loop : loops) {
+			loop.thread.start();
+		}
+	}
+
+	private static Thread daemon(Runnable runnable, String name) {
+		Thread thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	public int getPort() {
+		return serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * Waits until this server is closed, either by calling {@link #close()} or by
+	 * a client sending {@link NetworkProxyMessages#STOP_SERVER_CMD}.
+	 * 
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void awaitClose() throws InterruptedException {
+		terminated.await();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed.compareAndSet(false, true)) {
+			try {
+				serverChannel.close();
+			} finally {
+				for (SelectorLoop loop : loops) {
+					loop.execute(loop::shutdown);
+				}
+				worker.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Returns the Configurer to use for a newly connected client.
+	 * 
+	 * @return the Configurer for the client's link
+	 */
+	protected Configurer configurer() {
+		return Links.getDefaultConfigurer();
+	}
+
+	protected Link newLink(Configurer configurer) {
+		return Links.getLink(configurer);
+	}
+
+	protected SlowConsumerPolicy slowConsumerPolicy() {
+		return SlowConsumerPolicy.DISCONNECT;
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			SelectorLoop loop = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+			SocketChannel accepted = channel;
+			loop.execute(() -> new ProxyClient(accepted, loop));
+		}
+	}
+
+	private final class SelectorLoop implements Runnable {
+
+		private final Selector selector;
+		private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+		private final Thread thread;
+
+		private SelectorLoop(int index) throws IOException {
+			this.selector = Selector.open();
+			this.thread = daemon(this, "ardulink-proxy-selector-" + index);
+		}
+
+		private void execute(Runnable task) {
+			tasks.add(task);
+			selector.wakeup();
+		}
+
+		private SelectionKey register(java.nio.channels.SelectableChannel channel, int ops, Object attachment) {
+			try {
+				return channel.register(selector, ops, attachment);
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot register " + channel, e);
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (selector.isOpen()) {
+					selector.select();
+					runTasks();
+					if (!selector.isOpen()) {
+						break;
+					}
+					Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+					while (keys.hasNext()) {
+						SelectionKey key = keys.next();
+						keys.remove();
+						handle(key);
+					}
+				}
+			} catch (ClosedSelectorException e) {
+				// server was closed
+			} catch (IOException e) {
+				logger.error("Error in selector loop", e);
+			} finally {
+				terminated.countDown();
+			}
+		}
+
+		private void runTasks() {
+			Runnable task;
+			while ((task = tasks.poll()) != null) {
+				try {
+					task.run();
+				} catch (RuntimeException e) {
+					logger.error("Error running task {}", task, e);
+				}
+			}
+		}
+
+		private void handle(SelectionKey key) {
+			if (!key.isValid()) {
+				return;
+			}
+			if (key.isAcceptable()) {
+				try {
+					accept();
+				} catch (IOException e) {
+					logger.error("Error accepting connection", e);
+				}
+				return;
+			}
+			ProxyClient client = (ProxyClient) key.attachment();
+			try {
+				if (key.isReadable()) {
+					client.read();
+				}
+				if (key.isValid() && key.isWritable()) {
+					client.write();
+				}
+			} catch (Exception e) {
+				logger.error("Error while doing proxy", e);
+				client.close();
+			}
+		}
+
+		private void shutdown() {
+			for (SelectionKey key : selector.keys()) {
+				if (key.attachment() instanceof ProxyClient) {
+					((ProxyClient) key.attachment()).close();
+				}
+			}
+			try {
+				selector.close();
+			} catch (IOException e) {
+				logger.error("Error closing selector", e);
+			}
+		}
+
+	}
+
+	private enum State {
+		COMMANDS, AWAIT_PORT, AWAIT_BAUDRATE, BUSY, RELAYING
+	}
+
+	/**
+	 * The state of one remote client. All methods but {@link #send(byte[])},
+	 * {@link #drainToBoard()} and {@link #close()} are called by the client's
+	 * selector thread only.
+	 */
+	private final class ProxyClient {
+
+		private final SocketChannel channel;
+		private final SelectorLoop loop;
+		private final SelectionKey key;
+		private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+		private final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+		private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+		private final AtomicBoolean writeRequested = new AtomicBoolean();
+		private final Queue<byte[]> toBoard = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger pendingToBoard = new AtomicInteger();
+		private final AtomicBoolean boardWriteScheduled = new AtomicBoolean();
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		private State state = State.COMMANDS;
+		private String port;
+		private ProxyFraming framing = ProxyFraming.RAW;
+		private FrameReader frameReader;
+		private ByteArrayOutputStream frames;
+		private FramedOutputStream framedOut;
+		private long dropped;
+		private volatile Link link;
+		private volatile Subscription subscription;
+
+		private ProxyClient(SocketChannel channel, SelectorLoop loop) {
+			this.channel = channel;
+			this.loop = loop;
+			this.key = loop.register(channel, OP_READ, this);
+		}
+
+		private void read() throws IOException {
+			if (channel.read(in) < 0) {
+				close();
+				return;
+			}
+			processInput();
+		}
+
+		private void processInput() throws IOException {
+			in.flip();
+			try {
+				if (state == State.RELAYING) {
+					relay();
+				} else {
+					handshake();
+				}
+			} finally {
+				in.compact();
+			}
+		}
+
+		private void relay() throws IOException {
+			if (!in.hasRemaining()) {
+				return;
+			}
+			if (framing.isBinary()) {
+				frameReader.process(in.array(), in.position(), in.remaining());
+				in.position(in.limit());
+			} else {
+				byte[] bytes = new byte[in.remaining()];
+				in.get(bytes);
+				writeToBoard(bytes);
+			}
+		}
+
+		/**
+		 * Queues the passed bytes to be written to the board by the worker. Stops
+		 * reading from the client while too many writes are pending.
+		 */
+		private void writeToBoard(byte[] bytes) {
+			toBoard.add(bytes);
+			if (pendingToBoard.incrementAndGet() >= MAX_PENDING_TO_BOARD) {
+				key.interestOps(key.interestOps() & ~OP_READ);
+			}
+			if (boardWriteScheduled.compareAndSet(false, true)) {
+				worker.execute(this::drainToBoard);
+			}
+		}
+
+		private void drainToBoard() {
+			try {
+				do {
+					byte[] bytes;
+					while ((bytes = toBoard.poll()) != null) {
+						subscription.write(bytes);
+						if (pendingToBoard.decrementAndGet() == MAX_PENDING_TO_BOARD - 1) {
+							loop.execute(this::resumeReading);
+						}
+					}
+					boardWriteScheduled.set(false);
+				} while (!toBoard.isEmpty() && boardWriteScheduled.compareAndSet(false, true));
+			} catch (Exception e) {
+				logger.error("Error while writing to {}", port, e);
+				close();
+			}
+		}
+
+		private void resumeReading() {
+			if (key.isValid()) {
+				key.interestOps(key.interestOps() | OP_READ);
+			}
+		}
+
+		private void startRelaying() {
+			if (framing.isBinary()) {
+				frameReader = new FrameReader(
+						(id, bytes, offset, length) -> writeToBoard(Arrays.copyOfRange(bytes, offset, offset + length)));
+				frames = new ByteArrayOutputStream();
+				framedOut = new FramedOutputStream(frames, framing.isCompressed());
+			}
+			resume(State.RELAYING);
+		}
+
+		private void handshake() {
+			while (in.hasRemaining() && state != State.BUSY && state != State.RELAYING) {
+				byte b = in.get();
+				if (b == SEPARATOR) {
+					String command = line.toString(US_ASCII);
+					line.reset();
+					handle(command);
+				} else {
+					checkState(line.size() < MAX_LINE_LENGTH, "Handshake line exceeds %s bytes", MAX_LINE_LENGTH);
+					line.write(b);
+				}
+			}
+		}
+
+		private void handle(String command) {
+			switch (state) {
+			case AWAIT_PORT:
+				port = command;
+				state = State.AWAIT_BAUDRATE;
+				break;
+			case AWAIT_BAUDRATE:
+				busy(() -> connect(port, command));
+				break;
+			default:
+				if (STOP_SERVER_CMD.equals(command)) {
+					logger.info("{} requested to stop the server", channel);
+					worker.execute(NioNetworkProxyServer.this::closeQuietly);
+				} else if (GET_PORT_LIST_CMD.equals(command)) {
+					busy(this::sendPortList);
+				} else if (CONNECT_CMD.equals(command)) {
+					state = State.AWAIT_PORT;
+				} else if (command.startsWith(FRAMING_CMD)) {
+					framing = framingWithName(command.substring(FRAMING_CMD.length()));
+					send(line(FRAMING + framing.name()));
+				}
+			}
+		}
+
+		/**
+		 * Stops reading and handshaking until the passed task, executed by the
+		 * worker, did finish.
+		 */
+		private void busy(Runnable task) {
+			state = State.BUSY;
+			key.interestOps(key.interestOps() & ~OP_READ);
+			worker.execute(task);
+		}
+
+		private void resume(State newState) {
+			if (!key.isValid()) {
+				return;
+			}
+			state = newState;
+			key.interestOps(key.interestOps() | OP_READ);
+			if (newState == State.RELAYING) {
+				requestWrite();
+			}
+			try {
+				processInput();
+			} catch (IOException e) {
+				logger.error("Error while doing proxy", e);
+				close();
+			}
+		}
+
+		private void sendPortList() {
+			Object[] portList = configurer().getAttribute("port").getChoiceValues();
+			Object[] ports = portList == null ? new Object[0] : portList;
+			StringBuilder sb = new StringBuilder().append(NUMBER_OF_PORTS).append(ports.length).append((char) SEPARATOR);
+			Arrays.stream(ports).forEach(p -> sb.append(p).append((char) SEPARATOR));
+			send(sb.toString().getBytes(US_ASCII));
+			loop.execute(() -> resume(State.COMMANDS));
+		}
+
+		private void connect(String port, String baudrate) {
+			Link newLink = null;
+			try {
+				Configurer configurer = configurer();
+				configurer.getAttribute("port").setValue(port);
+				configurer.getAttribute("baudrate").setValue(Integer.valueOf(baudrate));
+				newLink = newLink(configurer);
+				Link root = getRoot(newLink);
+				checkState(root instanceof ConnectionBasedLink, "Only %s links supported for now (got %s)",
+						ConnectionBasedLink.class.getName(), root.getClass());
+				this.link = newLink;
+				this.subscription = BoardHub.subscribe(((ConnectionBasedLink) root).getConnection(),
+						slowConsumerPolicy(), this::requestWrite);
+				send(line(OK));
+				loop.execute(this::startRelaying);
+			} catch (Exception e) {
+				logger.error("Error during connecting", e);
+				this.link = null;
+				closeQuietly(newLink);
+				send(line(KO));
+				loop.execute(() -> resume(State.COMMANDS));
+			}
+		}
+
+		private byte[] line(String message) {
+			return (message + (char) SEPARATOR).getBytes(US_ASCII);
+		}
+
+		/**
+		 * Queues the passed handshake response to be written to the client. Can be
+		 * called by any thread.
+		 */
+		private void send(byte[] bytes) {
+			if (!closed.get()) {
+				out.add(ByteBuffer.wrap(bytes));
+				requestWrite();
+			}
+		}
+
+		private void requestWrite() {
+			if (writeRequested.compareAndSet(false, true)) {
+				loop.execute(this::enableWrite);
+			}
+		}
+
+		private void enableWrite() {
+			if (key.isValid()) {
+				key.interestOps(key.interestOps() | OP_WRITE);
+			}
+		}
+
+		private void write() throws IOException {
+			while (!out.isEmpty() || takeFromBoard()) {
+				int count = 0;
+				for (ByteBuffer buffer : out) {
+					if (count == gather.length) {
+						break;
+					}
+					gather[count++] = buffer;
+				}
+				long written = channel.write(gather, 0, count);
+				Arrays.fill(gather, 0, count, null);
+				while (!out.isEmpty() && !out.peek().hasRemaining()) {
+					out.poll();
+				}
+				if (!out.isEmpty() && out.peek().hasRemaining() && written == 0) {
+					// socket buffer is full, wait for the next OP_WRITE
+					return;
+				}
+			}
+			writeRequested.set(false);
+			key.interestOps(key.interestOps() & ~OP_WRITE);
+			if ((!out.isEmpty() || takeFromBoard()) && writeRequested.compareAndSet(false, true)) {
+				key.interestOps(key.interestOps() | OP_WRITE);
+			}
+		}
+
+		/**
+		 * Moves the bytes received from the board to the queue of bytes to write.
+		 * Raw bytes are not copied, if binary framing is used the bytes are batched
+		 * into frames.
+		 */
+		private boolean takeFromBoard() throws IOException {
+			if (state != State.RELAYING) {
+				return false;
+			}
+			int taken = 0;
+			byte[] bytes;
+			while (taken < MAX_GATHER && (bytes = subscription.poll()) != null) {
+				if (framing.isBinary()) {
+					skipDropped();
+					framedOut.write(bytes);
+				} else {
+					out.add(ByteBuffer.wrap(bytes));
+				}
+				taken++;
+			}
+			if (taken > 0 && framing.isBinary()) {
+				framedOut.flush();
+				out.add(ByteBuffer.wrap(frames.toByteArray()));
+				frames.reset();
+			}
+			return taken > 0;
+		}
+
+		private void skipDropped() {
+			long nowDropped = subscription.dropped();
+			framedOut.skip(nowDropped - dropped);
+			dropped = nowDropped;
+		}
+
+		private void close() {
+			if (!closed.compareAndSet(false, true)) {
+				return;
+			}
+			Subscription subscription = this.subscription;
+			if (subscription != null) {
+				subscription.close();
+			}
+			closeQuietly(link);
+			key.cancel();
+			try {
+				channel.close();
+			} catch (IOException e) {
+				logger.error("Error closing channel {}", channel, e);
+			}
+			logger.info("{} connection closed.", channel);
+		}
+
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (IOException e) {
+			logger.error("Error closing {}", this, e);
+		}
+	}
+
+	private static void closeQuietly(Link link) {
+		if (link != null) {
+			try {
+				link.close();
+			} catch (IOException e) {
+				logger.error("Error disconnecting link {}", link, e);
+			}
+		}
+	}
+
+}
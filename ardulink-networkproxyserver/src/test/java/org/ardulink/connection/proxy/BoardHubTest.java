@@ -0,0 +1,169 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.connection.proxy;
+
+import static org.ardulink.connection.proxy.BoardHub.SlowConsumerPolicy.DISCONNECT;
+import static org.ardulink.connection.proxy.BoardHub.SlowConsumerPolicy.DROP_OLDEST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ardulink.connection.proxy.BoardHub.Subscription;
+import org.ardulink.core.Connection;
+import org.junit.jupiter.api.Test;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+class BoardHubTest {
+
+	private final List<Connection.Listener> listeners = new ArrayList<>();
+	private final List<String> written = new ArrayList<>();
+	private final Connection connection = new Connection() {
+
+		@Override
+		public void write(byte[] bytes) throws IOException {
+			written.add(new String(bytes));
+		}
+
+		@Override
+		public void addListener(Listener listener) {
+			listeners.add(listener);
+		}
+
+		@Override
+		public void removeListener(Listener listener) {
+			listeners.remove(listener);
+		}
+
+		@Override
+		public void close() throws IOException {
+			// noop
+		}
+
+	};
+
+	@Test
+	void everySubscriberReceivesEverythingAtItsOwnPace() throws IOException {
+		AtomicInteger signals = new AtomicInteger();
+		try (Subscription s1 = BoardHub.subscribe(connection, DISCONNECT, signals::incrementAndGet);
+				Subscription s2 = BoardHub.subscribe(connection, DISCONNECT, signals::incrementAndGet)) {
+			assertThat(listeners).hasSize(1);
+			receive("a\n", "b\n");
+			assertThat(signals).hasValue(4);
+
+			assertThat(pollAll(s1)).containsExactly("a\n", "b\n");
+			receive("c\n");
+			assertThat(pollAll(s1)).containsExactly("c\n");
+			assertThat(pollAll(s2)).containsExactly("a\n", "b\n", "c\n");
+		}
+	}
+
+	@Test
+	void lastSubscriptionRemovesTheListener() {
+		Subscription s1 = BoardHub.subscribe(connection, DISCONNECT, () -> {
+		});
+		Subscription s2 = BoardHub.subscribe(connection, DISCONNECT, () -> {
+		});
+		s1.close();
+		assertThat(listeners).hasSize(1);
+		s2.close();
+		assertThat(listeners).isEmpty();
+	}
+
+	@Test
+	void slowConsumerGetsDisconnected() throws IOException {
+		try (Subscription subscription = BoardHub.subscribe(connection, 4, DISCONNECT, () -> {
+		})) {
+			receive("1\n", "2\n", "3\n", "4\n", "5\n");
+			assertThatThrownBy(subscription::poll).isInstanceOf(IllegalStateException.class)
+					.hasMessageContaining("behind");
+		}
+	}
+
+	@Test
+	void slowConsumerContinuesWithOldestAvailable() throws IOException {
+		try (Subscription subscription = BoardHub.subscribe(connection, 4, DROP_OLDEST, () -> {
+		})) {
+			receive("1\n", "2\n", "3\n", "4\n", "5\n", "6\n");
+			assertThat(pollAll(subscription)).containsExactly("3\n", "4\n", "5\n", "6\n");
+			assertThat(subscription.dropped()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void publishesCompleteLinesOnly() throws IOException {
+		try (Subscription subscription = BoardHub.subscribe(connection, DISCONNECT, () -> {
+		})) {
+			receive("alp://ared/1/", "2\nalp://ared/2/3\nalp://", "ared/3/4\n");
+			assertThat(pollAll(subscription)).containsExactly("alp://ared/1/2\nalp://ared/2/3\n", "alp://ared/3/4\n");
+		}
+	}
+
+	@Test
+	void slowConsumerDropsWholeLinesAndCountsThem() throws IOException {
+		try (Subscription subscription = BoardHub.subscribe(connection, 2, DROP_OLDEST, () -> {
+		})) {
+			receive("1\n2\n", "3", "\n4\n5", "\n", "6\n7\n8");
+			assertThat(pollAll(subscription)).containsExactly("5\n", "6\n7\n");
+			assertThat(subscription.dropped()).isEqualTo(4);
+			receive("\n");
+			assertThat(pollAll(subscription)).containsExactly("8\n");
+			assertThat(subscription.dropped()).isEqualTo(4);
+		}
+	}
+
+	@Test
+	void writesCompleteFramesOnly() throws IOException {
+		try (Subscription s1 = BoardHub.subscribe(connection, DISCONNECT, () -> {
+		}); Subscription s2 = BoardHub.subscribe(connection, DISCONNECT, () -> {
+		})) {
+			s1.write("alp://ppin/1/".getBytes());
+			s2.write("alp://ppsw/2/1\nalp://pp".getBytes());
+			s1.write("2\n".getBytes());
+			s2.write("in/3/4\n".getBytes());
+			assertThat(written).containsExactly("alp://ppsw/2/1\n", "alp://ppin/1/2\n", "alp://ppin/3/4\n");
+		}
+	}
+
+	private void receive(String... messages) throws IOException {
+		for (String message : messages) {
+			for (Connection.Listener listener : listeners) {
+				listener.received(message.getBytes());
+			}
+		}
+	}
+
+	private static List<String> pollAll(Subscription subscription) {
+		List<String> polled = new ArrayList<>();
+		byte[] bytes;
+		while ((bytes = subscription.poll()) != null) {
+			polled.add(new String(bytes));
+		}
+		return polled;
+	}
+
+}
@@ -24,6 +24,7 @@ import org.ardulink.connection.proxy.NetworkProxyServer.StartCommand;
 import org.ardulink.core.Connection;
 import org.ardulink.core.ConnectionBasedLink;
 import org.ardulink.core.Link;
+import org.ardulink.core.framing.ProxyFraming;
 import org.ardulink.core.linkmanager.LinkManager.ConfigAttribute;
 import org.ardulink.core.linkmanager.LinkManager.Configurer;
 import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
@@ -62,10 +63,11 @@ class NetworkProxyServerTest {
 	};
 
 	private ConnectionBasedLink clientSideLink;
+	private int serverPort;
 
 	@BeforeEach
 	void setup() throws InterruptedException, IOException {
-		int serverPort = freePort();
+		serverPort = freePort();
 		startServerInBackground(serverPort);
 		this.clientSideLink = clientLinkToServer("localhost", serverPort);
 	}
@@ -80,6 +82,14 @@ class NetworkProxyServerTest {
 		assertReceived(expected);
 	}
 
+	@Test
+	void proxyServerDoesReceiveMessagesSentByBinaryFramedClient() throws Exception {
+		try (ConnectionBasedLink framedLink = clientLinkToServer("localhost", serverPort, ProxyFraming.BINARY)) {
+			framedLink.switchAnalogPin(analogPin(1), 2);
+			assertReceived(alpProtocolMessage(POWER_PIN_INTENSITY).forPin(1).withValue(2) + "\n");
+		}
+	}
+
 	private void assertReceived(StringBuilder expected) {
 		assertReceived(expected.toString());
 	}
@@ -89,11 +99,17 @@ class NetworkProxyServerTest {
 	}
 
 	private ConnectionBasedLink clientLinkToServer(String hostname, int port) throws IOException {
+		return clientLinkToServer(hostname, port, ProxyFraming.RAW);
+	}
+
+	private ConnectionBasedLink clientLinkToServer(String hostname, int port, ProxyFraming framing)
+			throws IOException {
 		// TODO PF use Links?
 		// Links.getLink(URIs.newURI(String.format("ardulink://proxy?tcphost=%s&tcpport=%s&port=%s",
 		// hostname, port, "someNonNullPort")));
 		ProxyLinkFactory linkFactory = new ProxyLinkFactory();
 		ProxyLinkConfig linkConfig = linkFactory.newLinkConfig();
+		linkConfig.framing = framing;
 		return linkFactory.newLink(configure(linkConfig, hostname, port));
 	}
 
@@ -126,7 +142,7 @@ class NetworkProxyServerTest {
 
 										@Override
 										public Object uniqueIdentifier() {
-											return "";
+											return NetworkProxyServerTest.this;
 										}
 
 										@Override
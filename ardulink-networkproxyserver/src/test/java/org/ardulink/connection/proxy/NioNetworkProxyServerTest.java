@@ -0,0 +1,241 @@
+/**
+Copyright 2013 project Ardulink http://www.ardulink.org/
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.ardulink.connection.proxy;
+
+import static java.time.Duration.ofMillis;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.ardulink.core.Pin.analogPin;
+import static org.ardulink.core.proto.api.Protocols.protoByName;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.alpProtocolMessage;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.ANALOG_PIN_READ;
+import static org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey.POWER_PIN_INTENSITY;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.ardulink.core.Connection;
+import org.ardulink.core.ConnectionBasedLink;
+import org.ardulink.core.Link;
+import org.ardulink.core.events.AnalogPinValueChangedEvent;
+import org.ardulink.core.events.EventListenerAdapter;
+import org.ardulink.core.framing.ProxyFraming;
+import org.ardulink.core.linkmanager.LinkManager.ConfigAttribute;
+import org.ardulink.core.linkmanager.LinkManager.Configurer;
+import org.ardulink.core.proto.ardulink.ArdulinkProtocol2;
+import org.ardulink.core.proxy.ProxyLinkConfig;
+import org.ardulink.core.proxy.ProxyLinkFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * [ardulinktitle] [ardulinkversion]
+ * 
+ * project Ardulink http://www.ardulink.org/
+ * 
+ * [adsense]
+ *
+ */
+@Timeout(value = 5, unit = SECONDS)
+class NioNetworkProxyServerTest {
+
+	private final StringBuffer proxySideReceived = new StringBuffer();
+	private final List<Connection.Listener> proxySideListeners = new CopyOnWriteArrayList<>();
+	private volatile CountDownLatch proxySideWritable = new CountDownLatch(0);
+	private final Connection proxySideConnection = new Connection() {
+
+		@Override
+		public void write(byte[] bytes) throws IOException {
+			try {
+				proxySideWritable.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			proxySideReceived.append(new String(bytes));
+		}
+
+		@Override
+		public void addListener(Listener listener) {
+			proxySideListeners.add(listener);
+		}
+
+		@Override
+		public void removeListener(Listener listener) {
+			proxySideListeners.remove(listener);
+		}
+
+		@Override
+		public void close() throws IOException {
+			// noop
+		}
+
+	};
+
+	private NioNetworkProxyServer server;
+
+	@BeforeEach
+	void setup() throws IOException {
+		server = new NioNetworkProxyServer(0, 2) {
+			@Override
+			protected Configurer configurer() {
+				return new Configurer() {
+
+					@Override
+					public Object uniqueIdentifier() {
+						return NioNetworkProxyServerTest.this;
+					}
+
+					@Override
+					public Collection<String> getAttributes() {
+						return List.of("port", "baudrate");
+					}
+
+					@Override
+					public ConfigAttribute getAttribute(String key) {
+						ConfigAttribute attribute = mock(ConfigAttribute.class);
+						when(attribute.getName()).thenReturn(key);
+						return attribute;
+					}
+
+					@Override
+					public Link newLink() {
+						return new ConnectionBasedLink(proxySideConnection,
+								protoByName(ArdulinkProtocol2.NAME).newByteStreamProcessor());
+					}
+
+				};
+			}
+		};
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		server.close();
+	}
+
+	@Test
+	void proxyServerDoesReceiveMessagesSentByClient() throws Exception {
+		try (ConnectionBasedLink clientSideLink = clientLinkToServer()) {
+			StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < 3; i++) {
+				clientSideLink.switchAnalogPin(analogPin(1), 2);
+				expected.append(alpProtocolMessage(POWER_PIN_INTENSITY).forPin(1).withValue(2) + "\n");
+			}
+			await().forever().pollInterval(ofMillis(50)).until(proxySideReceived::toString, expected.toString()::equals);
+		}
+	}
+
+	@Test
+	void clientsShareTheLinkAndAllReceiveWhatTheLinkReceives() throws Exception {
+		List<Integer> client1Received = new CopyOnWriteArrayList<>();
+		List<Integer> client2Received = new CopyOnWriteArrayList<>();
+		try (ConnectionBasedLink client1 = clientLinkToServer(); ConnectionBasedLink client2 = clientLinkToServer()) {
+			client1.addListener(analogValuesTo(client1Received));
+			client2.addListener(analogValuesTo(client2Received));
+
+			byte[] message = (alpProtocolMessage(ANALOG_PIN_READ).forPin(1).withValue(42) + "\n").getBytes();
+			for (Connection.Listener listener : proxySideListeners) {
+				listener.received(message);
+			}
+
+			await().forever().pollInterval(ofMillis(50)).until(() -> client1Received.equals(List.of(42)));
+			await().forever().pollInterval(ofMillis(50)).until(() -> client2Received.equals(List.of(42)));
+		}
+		await().forever().pollInterval(ofMillis(50)).until(proxySideListeners::isEmpty);
+	}
+
+	@Test
+	void slowLinkDoesNotBlockRelayingToClients() throws Exception {
+		List<Integer> received = new CopyOnWriteArrayList<>();
+		proxySideWritable = new CountDownLatch(1);
+		try (ConnectionBasedLink clientSideLink = clientLinkToServer()) {
+			clientSideLink.addListener(analogValuesTo(received));
+			clientSideLink.switchAnalogPin(analogPin(1), 2);
+
+			byte[] message = (alpProtocolMessage(ANALOG_PIN_READ).forPin(1).withValue(42) + "\n").getBytes();
+			for (Connection.Listener listener : proxySideListeners) {
+				listener.received(message);
+			}
+			await().forever().pollInterval(ofMillis(50)).until(() -> received.equals(List.of(42)));
+			assertThat(proxySideReceived).isEmpty();
+
+			proxySideWritable.countDown();
+			String expected = alpProtocolMessage(POWER_PIN_INTENSITY).forPin(1).withValue(2) + "\n";
+			await().forever().pollInterval(ofMillis(50)).until(proxySideReceived::toString, expected::equals);
+		}
+	}
+
+	@Test
+	void binaryFramedClientsExchangeMessages() throws Exception {
+		List<Integer> received = new CopyOnWriteArrayList<>();
+		List<Integer> rawReceived = new CopyOnWriteArrayList<>();
+		try (ConnectionBasedLink framedClient = clientLinkToServer(ProxyFraming.BINARY_COMPRESSED);
+				ConnectionBasedLink rawClient = clientLinkToServer()) {
+			framedClient.addListener(analogValuesTo(received));
+			rawClient.addListener(analogValuesTo(rawReceived));
+			framedClient.switchAnalogPin(analogPin(1), 2);
+			String expected = alpProtocolMessage(POWER_PIN_INTENSITY).forPin(1).withValue(2) + "\n";
+			await().forever().pollInterval(ofMillis(50)).until(proxySideReceived::toString, expected::equals);
+
+			for (int i = 0; i < 100; i++) {
+				byte[] message = (alpProtocolMessage(ANALOG_PIN_READ).forPin(1).withValue(i) + "\n").getBytes();
+				for (Connection.Listener listener : proxySideListeners) {
+					listener.received(message);
+				}
+			}
+			await().forever().pollInterval(ofMillis(50)).until(received::size, s -> s == 100);
+			assertThat(received).isEqualTo(range(0, 100).boxed().collect(toList()));
+			await().forever().pollInterval(ofMillis(50)).until(rawReceived::size, s -> s == 100);
+			assertThat(rawReceived).isEqualTo(range(0, 100).boxed().collect(toList()));
+		}
+	}
+
+	private static EventListenerAdapter analogValuesTo(List<Integer> values) {
+		return new EventListenerAdapter() {
+			@Override
+			public void stateChanged(AnalogPinValueChangedEvent event) {
+				values.add(event.getValue());
+			}
+		};
+	}
+
+	private ConnectionBasedLink clientLinkToServer() throws IOException {
+		return clientLinkToServer(ProxyFraming.RAW);
+	}
+
+	private ConnectionBasedLink clientLinkToServer(ProxyFraming framing) throws IOException {
+		ProxyLinkFactory linkFactory = new ProxyLinkFactory();
+		ProxyLinkConfig linkConfig = linkFactory.newLinkConfig();
+		linkConfig.tcphost = "localhost";
+		linkConfig.tcpport = server.getPort();
+		linkConfig.port = "anything non-null";
+		linkConfig.framing = framing;
+		return linkFactory.newLink(linkConfig);
+	}
+
+}
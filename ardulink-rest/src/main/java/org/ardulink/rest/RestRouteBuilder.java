@@ -25,6 +25,7 @@ import static java.util.regex.Matcher.quoteReplacement;
 import static org.apache.camel.Exchange.HTTP_RESPONSE_CODE;
 import static org.ardulink.core.Pin.analogPin;
 import static org.ardulink.core.Pin.digitalPin;
+import static org.ardulink.core.Pin.newPinMap;
 import static org.ardulink.core.Pin.Type.ANALOG;
 import static org.ardulink.core.Pin.Type.DIGITAL;
 import static org.ardulink.core.proto.api.bytestreamproccesors.ByteStreamProcessors.parse;
@@ -47,7 +48,6 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
@@ -61,6 +61,7 @@ import org.ardulink.core.messages.api.FromDeviceMessage;
 import org.ardulink.core.messages.api.FromDeviceMessagePinStateChanged;
 import org.ardulink.core.proto.ardulink.ALProtoBuilder.ALPProtocolKey;
 import org.ardulink.core.proto.ardulink.ArdulinkProtocol2.ALPByteStreamProcessor;
+import org.ardulink.util.PinMap;
 import org.eclipse.jetty.server.handler.ResourceHandler;
 import org.eclipse.jetty.util.resource.EmptyResource;
 import org.eclipse.jetty.util.resource.Resource;
@@ -98,7 +99,7 @@ public class RestRouteBuilder extends RouteBuilder {
 
 	@Override
 	public void configure() throws Exception {
-		ConcurrentHashMap<Pin, CompletableFuture<FromDeviceMessagePinStateChanged>> messages = new ConcurrentHashMap<>();
+		PinMap<Pin, CompletableFuture<FromDeviceMessagePinStateChanged>> messages = newPinMap();
 
 		String patchAnalog = "direct:patchAnalog-" + identityHashCode(this);
 		String patchDigital = "direct:patchDigital-" + identityHashCode(this);
@@ -206,7 +207,7 @@ public class RestRouteBuilder extends RouteBuilder {
 	}
 
 	private static void readQueue(Exchange exchange,
-			Map<Pin, CompletableFuture<FromDeviceMessagePinStateChanged>> messages) throws InterruptedException {
+			PinMap<Pin, CompletableFuture<FromDeviceMessagePinStateChanged>> messages) throws InterruptedException {
 		Message message = exchange.getMessage();
 		Pin pinOfMessage = extractPin(message);
 
@@ -289,12 +290,13 @@ public class RestRouteBuilder extends RouteBuilder {
 	}
 
 	private void writeArduinoMessagesTo(String arduino,
-			Map<Pin, CompletableFuture<FromDeviceMessagePinStateChanged>> messages) {
+			PinMap<Pin, CompletableFuture<FromDeviceMessagePinStateChanged>> messages) {
 		ALPByteStreamProcessor byteStreamProcessor = new ALPByteStreamProcessor();
 		from(arduino).process(exchange -> {
-			String body = exchange.getMessage().getBody(String.class);
-			FromDeviceMessage fromDevice = getFirst(parse(byteStreamProcessor, byteStreamProcessor.toBytes(body)))
-					.orElseThrow(() -> new IllegalStateException("Cannot handle " + body));
+			Object body = exchange.getMessage().getBody();
+			FromDeviceMessage fromDevice = body instanceof FromDeviceMessage //
+					? (FromDeviceMessage) body //
+					: parseFirst(byteStreamProcessor, exchange.getMessage().getBody(String.class));
 			if (fromDevice instanceof FromDeviceMessagePinStateChanged) {
 				FromDeviceMessagePinStateChanged message = (FromDeviceMessagePinStateChanged) fromDevice;
 				messages.compute(message.getPin(), (pin, future) -> {
@@ -307,6 +309,11 @@ public class RestRouteBuilder extends RouteBuilder {
 		});
 	}
 
+	private static FromDeviceMessage parseFirst(ALPByteStreamProcessor byteStreamProcessor, String body) {
+		return getFirst(parse(byteStreamProcessor, byteStreamProcessor.toBytes(body)))
+				.orElseThrow(() -> new IllegalStateException("Cannot handle " + body));
+	}
+
 	private static void switchDigital(Exchange exchange) {
 		Message message = exchange.getMessage();
 		boolean state = parseBoolean(message.getBody(String.class));
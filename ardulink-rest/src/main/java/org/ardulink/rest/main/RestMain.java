@@ -48,12 +48,20 @@ public class RestMain implements AutoCloseable {
 
 	private static Properties toCamelProperties(CommandLineArguments args) {
 		return toProperties(Map.of( //
-				VAR_TARGET, args.connection, //
+				VAR_TARGET, withTypedBody(args.connection), //
 				VAR_BIND, args.bind, //
 				VAR_PORT, args.port //
 		));
 	}
 
+	/**
+	 * Lets the ardulink camel endpoint emit typed messages so reading pins do not
+	 * have to parse them.
+	 */
+	private static String withTypedBody(String connection) {
+		return connection + (connection.contains("?") ? "&" : "?") + "typedBody=true";
+	}
+
 	@Override
 	public void close() {
 		main.stop();